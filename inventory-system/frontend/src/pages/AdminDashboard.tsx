@@ -134,79 +134,7 @@ export default function AdminDashboard({
   const [recommendations, setRecommendations] = useState<RecommendationItem[]>([]);
   const [branchCards, setBranchCards] = useState<BranchCardData[]>([]);
 
-  // Şubeleri + şube kartlarını backend'den çek
-  useEffect(() => {
-    async function loadBranches() {
-      try {
-        const res = await fetch(`${API_BASE_URL}/branches`);
-        if (!res.ok) throw new Error("branches failed");
-        const data: any[] = await res.json();
-
-        const options: BranchOption[] = [
-          { id: null, name: "Tüm Şubeler" },
-          ...data.map((b) => ({
-            id: Number(b.id),
-            name: b.name ?? "İsimsiz Şube",
-          })),
-        ];
-        setBranchOptions(options);
-
-        // Şube kartları için stok değeri + ürün sayısı
-        const cards: BranchCardData[] = await Promise.all(
-          data.map(async (b) => {
-            const branchId = Number(b.id);
-            let stockValue = 0;
-            let productsCount = 0;
-
-            try {
-              const invRes = await fetch(
-                `${API_BASE_URL}/reports/inventory-valuation?branchId=${branchId}`
-              );
-              if (invRes.ok) {
-                const inv = await invRes.json();
-                stockValue = Number(inv ?? 0);
-              }
-            } catch {
-              stockValue = 0;
-            }
-
-            try {
-              const prodRes = await fetch(
-                `${API_BASE_URL}/products?branchId=${branchId}&page=0&size=1`
-              );
-              if (prodRes.ok) {
-                const body: any = await prodRes.json();
-                if (Array.isArray(body)) {
-                  productsCount = body.length;
-                } else if (typeof body.totalElements === "number") {
-                  productsCount = body.totalElements;
-                } else if (Array.isArray(body.content)) {
-                  productsCount = body.content.length;
-                }
-              }
-            } catch {
-              productsCount = 0;
-            }
-
-            return {
-              id: branchId,
-              name: b.name ?? "İsimsiz Şube",
-              stockValue,
-              products: productsCount,
-            };
-          })
-        );
-
-        setBranchCards(cards);
-      } catch (err) {
-        console.error("Branch load error", err);
-      }
-    }
-
-    loadBranches();
-  }, []);
-
-  // Tarih + şube filtresine göre dashboard verilerini çek
+  // Tüm panel verisi tek istekte: GET /dashboard (bölümler sunucuda paralel hesaplanır)
   useEffect(() => {
     const { from, to } = getDateRange(dateRange);
     const branchQuery =
@@ -214,192 +142,89 @@ export default function AdminDashboard({
 
     async function loadDashboard() {
       try {
-        // 1) Gelir tablosu
-        try {
-          const res = await fetch(
-            `${API_BASE_URL}/reports/income-statement?from=${from}&to=${to}${branchQuery}`
-          );
-          if (res.ok) {
-            const data: any = await res.json();
-            const rev = Number(data.revenue ?? 0);
-            const cg = Number(data.cogs ?? 0);
-            setRevenue(rev);
-            setCogs(cg);
-          } else {
-            setRevenue(0);
-            setCogs(0);
-          }
-        } catch (e) {
-          console.error("income-statement error", e);
-          setRevenue(0);
-          setCogs(0);
-        }
+        const res = await fetch(
+          `${API_BASE_URL}/dashboard?from=${from}&to=${to}&limit=1000&threshold=3&expiringWithinDays=30${branchQuery}`
+        );
+        if (!res.ok) throw new Error("dashboard failed");
+        const data: any = await res.json();
+
+        // Hata veren bölüm null gelir; nedeni data.sections içinde
+        (data.sections ?? [])
+          .filter((s: any) => s.error)
+          .forEach((s: any) => console.error(`${s.section} error`, s.error));
+
+        // 1) Gelir tablosu + toplam satış adedi
+        const income = data.incomeStatement ?? {};
+        setRevenue(Number(income.revenue ?? 0));
+        setCogs(Number(income.cogs ?? 0));
+        setTotalSalesQty(Number(income.totalQuantity ?? 0));
 
         // 2) Envanter değeri
-        try {
-          const invUrl =
-            selectedBranchId == null
-              ? `${API_BASE_URL}/reports/inventory-valuation`
-              : `${API_BASE_URL}/reports/inventory-valuation?branchId=${selectedBranchId}`;
-          const invRes = await fetch(invUrl);
-          if (invRes.ok) {
-            const inv = await invRes.json();
-            setTotalInventoryValue(Number(inv ?? 0));
-          } else {
-            setTotalInventoryValue(0);
-          }
-        } catch (e) {
-          console.error("inventory-valuation error", e);
-          setTotalInventoryValue(0);
-        }
+        setTotalInventoryValue(Number(data.inventoryValue ?? 0));
 
         // 3) Satış trendi
-        try {
-          const trendRes = await fetch(
-            `${API_BASE_URL}/reports/sales-trend?from=${from}&to=${to}${branchQuery}`
-          );
-          if (trendRes.ok) {
-            const arr: any[] = await trendRes.json();
-            const mapped: SalesTrendPoint[] = arr.map((p: any) => {
-              const dateStr =
-                p.date ??
-                p.day ??
-                (Array.isArray(p) ? p[0] : "") ??
-                "";
-              const d = dateStr ? new Date(dateStr) : new Date();
-              const label = d.toLocaleDateString("tr-TR", {
-                day: "numeric",
-                month: "short",
-              });
-              const sales = Number(
-                p.revenue ?? p.gross ?? (Array.isArray(p) ? p[1] : 0) ?? 0
-              );
-              return { day: label, sales };
+        setSalesTrendData(
+          (data.salesTrend ?? []).map((p: any) => {
+            const d = p.date ? new Date(p.date) : new Date();
+            const label = d.toLocaleDateString("tr-TR", {
+              day: "numeric",
+              month: "short",
             });
-            setSalesTrendData(mapped);
-          } else {
-            setSalesTrendData([]);
-          }
-        } catch (e) {
-          console.error("sales-trend error", e);
-          setSalesTrendData([]);
-        }
-
-        // 4) En çok satan ürünler + toplam satış adedi
-        try {
-          const bestRes = await fetch(
-            `${API_BASE_URL}/reports/bestsellers?from=${from}&to=${to}&limit=1000${branchQuery}`
-          );
-          if (bestRes.ok) {
-            const arr: any[] = await bestRes.json();
-            const mapped: TopProduct[] = arr.map((p: any) => ({
-              name: p.productName ?? p.name ?? "Ürün",
-              sales: Number(
-                p.totalQuantity ?? p.quantity ?? p.total ?? 0
-              ),
-            }));
-            setTopProductsData(mapped);
-
-            const total = mapped.reduce(
-              (sum, p) => sum + (p.sales || 0),
-              0
-            );
-            setTotalSalesQty(total);
-          } else {
-            setTopProductsData([]);
-            setTotalSalesQty(0);
-          }
-        } catch (e) {
-          console.error("bestsellers error", e);
-          setTopProductsData([]);
-          setTotalSalesQty(0);
-        }
+            return { day: label, sales: Number(p.revenue ?? 0) };
+          })
+        );
+
+        // 4) En çok satan ürünler
+        setTopProductsData(
+          (data.bestsellers ?? []).map((p: any) => ({
+            name: p.productName ?? "Ürün",
+            sales: Number(p.totalQuantity ?? 0),
+          }))
+        );
 
         // 5) Yavaş giden ürünler
-        try {
-          const slowRes = await fetch(
-            `${API_BASE_URL}/reports/slow-movers?from=${from}&to=${to}&threshold=3${branchQuery}`
-          );
-          if (slowRes.ok) {
-            const arr: any[] = await slowRes.json();
-            const mapped: SlowMovingProduct[] = arr.map((p: any) => {
-              const days = p.daysSinceLastSale ?? null;
-              return {
-                name: p.productName ?? p.name ?? "Ürün",
-                lastSale:
-                  days != null ? `${days} gün önce` : "bilinmiyor",
-                stock: Number(
-                  p.totalQuantity ?? p.quantity ?? p.total ?? 0
-                ),
-              };
-            });
-            setSlowMovingProducts(mapped);
-          } else {
-            setSlowMovingProducts([]);
-          }
-        } catch (e) {
-          console.error("slow-movers error", e);
-          setSlowMovingProducts([]);
-        }
-
-        // 6) SKT uyarıları (sadece adet için)
-        try {
-          const alertUrl =
-            selectedBranchId == null
-              ? `${API_BASE_URL}/alerts/expiring?withinDays=30`
-              : `${API_BASE_URL}/alerts/expiring?withinDays=30&branchId=${selectedBranchId}`;
-          const alertRes = await fetch(alertUrl);
-          if (alertRes.ok) {
-            const arr: any[] = await alertRes.json();
-            setSktPartiCount(arr.length);
-          } else {
-            setSktPartiCount(0);
-          }
-        } catch (e) {
-          console.error("alerts error", e);
-          setSktPartiCount(0);
-        }
+        setSlowMovingProducts(
+          (data.slowMovers ?? []).map((p: any) => {
+            const days = p.daysSinceLastSale ?? null;
+            return {
+              name: p.productName ?? "Ürün",
+              lastSale: days != null ? `${days} gün önce` : "bilinmiyor",
+              stock: Number(p.totalQuantity ?? 0),
+            };
+          })
+        );
+
+        // 6) SKT uyarıları (parti sayısı)
+        setSktPartiCount(Number(data.expiringBatches ?? 0));
 
         // 7) Öneri sistemi
-        try {
-          const recRes = await fetch(
-            `${API_BASE_URL}/recommendations?from=${from}&to=${to}${branchQuery}`
-          );
-          if (recRes.ok) {
-            const arr: any[] = await recRes.json();
-            const mapped: RecommendationItem[] = arr.map(
-              (r: any, idx: number) => {
-                const rawCode: string | null =
-                  r.recommendation ?? r.action ?? r.type ?? null;
-                return {
-                  id: Number(r.id ?? idx),
-                  product:
-                    r.productName ??
-                    r.product ??
-                    r.name ??
-                    "Ürün",
-                  message:
-                    r.message ??
-                    r.reason ??
-                    r.explanation ??
-                    "",
-                  type: mapToBadgeType(rawCode),
-                  branch:
-                    r.branchName ??
-                    r.branch ??
-                    selectedBranch ??
-                    "Tüm Şubeler",
-                };
-              }
-            );
-            setRecommendations(mapped);
-          } else {
-            setRecommendations([]);
-          }
-        } catch (e) {
-          console.error("recommendations error", e);
-          setRecommendations([]);
-        }
+        setRecommendations(
+          (data.recommendations ?? []).map((r: any, idx: number) => ({
+            id: Number(r.productId ?? idx),
+            product: r.productName ?? "Ürün",
+            message: r.explanation ?? "",
+            type: mapToBadgeType(r.recommendation),
+            branch: selectedBranch ?? "Tüm Şubeler",
+          }))
+        );
+
+        // 8) Şube seçenekleri + şube kartları (filtreden bağımsız, tüm şubeler)
+        const branches: any[] = data.branches ?? [];
+        setBranchOptions([
+          { id: null, name: "Tüm Şubeler" },
+          ...branches.map((b) => ({
+            id: Number(b.branchId),
+            name: b.name ?? "İsimsiz Şube",
+          })),
+        ]);
+        setBranchCards(
+          branches.map((b) => ({
+            id: Number(b.branchId),
+            name: b.name ?? "İsimsiz Şube",
+            stockValue: Number(b.inventoryValue ?? 0),
+            products: Number(b.products ?? 0),
+          }))
+        );
       } catch (err) {
         console.error("dashboard load error", err);
       }
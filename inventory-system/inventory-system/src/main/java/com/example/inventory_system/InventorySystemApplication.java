@@ -2,8 +2,10 @@ package com.example.inventory_system;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(scanBasePackages = "com.example.inventory_system")
+@EnableScheduling
 public class InventorySystemApplication {
 	public static void main(String[] args) {
 		SpringApplication.run(InventorySystemApplication.class, args);
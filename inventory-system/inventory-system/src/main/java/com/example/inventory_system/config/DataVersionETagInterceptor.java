@@ -0,0 +1,99 @@
+package com.example.inventory_system.config;
+
+import com.example.inventory_system.service.DataVersionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.util.ServletRequestPathUtils;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * GET okumaları için veri sürümünden ETag. Etiket handler'dan önce hesaplanır; If-None-Match
+ * eşleşirse 304 döner ve sorgu hiç çalışmaz. Yanıt etiketten yeni olabilir ama eski olamaz
+ * (sürüm commit'ten sonra artar), bu yüzden en kötü durumda bir sonraki istek 200 alır.
+ *
+ * branchId parametresi yalnızca yanıtı gerçekten o şubeyle sınırlı olan uçlarda etikete girer;
+ * diğerleri (tüm şube kartları, şube matrisi, tükenme süresi...) tüm şubelerin sürümünü kullanır.
+ */
+public class DataVersionETagInterceptor implements HandlerInterceptor {
+
+    private static final PathPatternParser PARSER = PathPatternParser.defaultInstance;
+
+    // yalnızca şube / kategori tanımları
+    private static final List<PathPattern> CATALOG = patterns(
+            "/api/v1/branches", "/api/v1/branches/{id}",
+            "/api/v1/categories", "/api/v1/categories/{id}");
+
+    private static final List<PathPattern> DATA = patterns(
+            "/api/v1/products/**", "/api/v1/reports/**", "/api/v1/alerts/**",
+            "/api/v1/recommendations/**", "/api/v1/dashboard", "/api/v1/transactions/**",
+            "/api/v1/branch-transfers", "/api/v1/ledger", "/api/v1/stock/**");
+
+    private static final List<PathPattern> BRANCH_FILTERED = patterns(
+            "/api/v1/products",
+            "/api/v1/reports/bestsellers", "/api/v1/reports/slow-movers",
+            "/api/v1/reports/sales-trend", "/api/v1/reports/sales-trend/export",
+            "/api/v1/reports/category-sales",
+            "/api/v1/reports/product-margins", "/api/v1/reports/product-margins/export",
+            "/api/v1/reports/income-statement", "/api/v1/reports/inventory-valuation",
+            "/api/v1/alerts/expiring",
+            "/api/v1/recommendations", "/api/v1/recommendations/ml",
+            "/api/v1/transactions", "/api/v1/transactions/export",
+            "/api/v1/ledger", "/api/v1/stock/as-of");
+
+    private final DataVersionService dataVersionService;
+
+    public DataVersionETagInterceptor(DataVersionService dataVersionService) {
+        this.dataVersionService = dataVersionService;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"GET".equals(request.getMethod())) return true;
+
+        PathContainer path = (ServletRequestPathUtils.hasParsedRequestPath(request)
+                ? ServletRequestPathUtils.getParsedRequestPath(request)
+                : ServletRequestPathUtils.parseAndCache(request)).pathWithinApplication();
+        String tag;
+        if (matches(CATALOG, path)) {
+            tag = dataVersionService.tag(false, null);
+        } else if (matches(DATA, path)) {
+            tag = dataVersionService.tag(true, matches(BRANCH_FILTERED, path) ? branchId(request) : null);
+        } else {
+            return true;
+        }
+
+        // ETag başlığını yazar; eşleşirse durumu 304 yapar (If-None-Match listesi ve * dahil)
+        return !new ServletWebRequest(request, response).checkNotModified('"' + tag + '"');
+    }
+
+    // ========== HELPERS ==========
+
+    // geçersiz değer etiketi etkilemez; istek handler'da zaten 400 alır
+    private static Long branchId(HttpServletRequest request) {
+        String raw = request.getParameter("branchId");
+        if (raw == null || raw.isBlank()) return null;
+        try {
+            return Long.valueOf(raw.trim());
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    private static boolean matches(List<PathPattern> patterns, PathContainer path) {
+        for (PathPattern pattern : patterns) {
+            if (pattern.matches(path)) return true;
+        }
+        return false;
+    }
+
+    private static List<PathPattern> patterns(String... paths) {
+        return Arrays.stream(paths).map(PARSER::parse).toList();
+    }
+}
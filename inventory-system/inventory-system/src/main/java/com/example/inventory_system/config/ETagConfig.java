@@ -0,0 +1,24 @@
+package com.example.inventory_system.config;
+
+import com.example.inventory_system.service.DataVersionService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@ConditionalOnProperty(name = "inventory.etag.enabled", havingValue = "true", matchIfMissing = true)
+public class ETagConfig implements WebMvcConfigurer {
+
+    private final DataVersionService dataVersionService;
+
+    public ETagConfig(DataVersionService dataVersionService) {
+        this.dataVersionService = dataVersionService;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new DataVersionETagInterceptor(dataVersionService))
+                .addPathPatterns("/api/v1/**");
+    }
+}
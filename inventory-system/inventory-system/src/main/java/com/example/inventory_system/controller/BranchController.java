@@ -3,6 +3,9 @@ package com.example.inventory_system.controller;
 import com.example.inventory_system.domain.Branch;
 import com.example.inventory_system.dto.BranchCreateRequest;
 import com.example.inventory_system.repository.BranchRepository;
+import com.example.inventory_system.service.DataVersionService;
+import com.example.inventory_system.service.InventoryValuationService;
+import com.example.inventory_system.service.ReportCacheService;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
@@ -19,9 +22,18 @@ import static org.springframework.http.HttpStatus.*;
 public class BranchController {
 
     private final BranchRepository repo;
+    private final InventoryValuationService valuationService;
+    private final ReportCacheService reportCache;
+    private final DataVersionService dataVersion;
 
-    public BranchController(BranchRepository repo) {
+    public BranchController(BranchRepository repo,
+                            InventoryValuationService valuationService,
+                            ReportCacheService reportCache,
+                            DataVersionService dataVersion) {
         this.repo = repo;
+        this.valuationService = valuationService;
+        this.reportCache = reportCache;
+        this.dataVersion = dataVersion;
     }
 
     @PostMapping(consumes = "application/json", produces = "application/json")
@@ -30,6 +42,8 @@ public class BranchController {
             throw new ResponseStatusException(CONFLICT, "Branch name already exists");
         }
         Branch saved = repo.save(new Branch(req.getName(), req.getAddress(), req.getPhone()));
+        reportCache.invalidateAll(); // şube adları / kartları raporlarda görünür
+        dataVersion.allChanged();
         return ResponseEntity.created(URI.create("/api/v1/branches/" + saved.getId())).body(saved);
     }
 
@@ -58,7 +72,10 @@ public class BranchController {
         b.setName(req.getName());
         b.setAddress(req.getAddress());
         b.setPhone(req.getPhone());
-        return repo.save(b);
+        Branch saved = repo.save(b);
+        reportCache.invalidateAll();
+        dataVersion.allChanged();
+        return saved;
     }
 
     @DeleteMapping("/{id}")
@@ -67,6 +84,9 @@ public class BranchController {
             throw new ResponseStatusException(NOT_FOUND, "Branch not found");
         }
         repo.deleteById(id);
+        valuationService.reload(); // şubenin batch'leri cascade ile silindi
+        reportCache.invalidateAll();
+        dataVersion.allChanged();
         return ResponseEntity.noContent().build();
     }
 
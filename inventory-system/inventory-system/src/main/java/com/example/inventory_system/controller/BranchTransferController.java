@@ -3,13 +3,15 @@ package com.example.inventory_system.controller;
 import com.example.inventory_system.domain.Branch;
 import com.example.inventory_system.domain.BranchTransfer;
 import com.example.inventory_system.domain.Product;
-import com.example.inventory_system.domain.StockMovement;
 import com.example.inventory_system.dto.BranchTransferCreateRequest;
 import com.example.inventory_system.dto.BranchTransferResponse;
 import com.example.inventory_system.repository.BranchRepository;
 import com.example.inventory_system.repository.BranchTransferRepository;
+import com.example.inventory_system.repository.InventoryLedgerJdbcRepository;
 import com.example.inventory_system.repository.ProductRepository;
-import com.example.inventory_system.repository.StockMovementRepository;
+import com.example.inventory_system.service.DataVersionService;
+import com.example.inventory_system.service.ReportCacheService;
+import com.example.inventory_system.service.StockCounterService;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
@@ -27,7 +29,10 @@ public class BranchTransferController {
     private final BranchTransferRepository transfers;
     private final ProductRepository products;
     private final BranchRepository branches;
-    private final StockMovementRepository stockMovements;
+    private final InventoryLedgerJdbcRepository ledger;
+    private final StockCounterService stockCounter;
+    private final ReportCacheService reportCache;
+    private final DataVersionService dataVersion;
 
     private static final DateTimeFormatter DATE_TIME_FMT =
             DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
@@ -35,11 +40,17 @@ public class BranchTransferController {
     public BranchTransferController(BranchTransferRepository transfers,
                                     ProductRepository products,
                                     BranchRepository branches,
-                                    StockMovementRepository stockMovements) {
+                                    InventoryLedgerJdbcRepository ledger,
+                                    StockCounterService stockCounter,
+                                    ReportCacheService reportCache,
+                                    DataVersionService dataVersion) {
         this.transfers = transfers;
         this.products = products;
         this.branches = branches;
-        this.stockMovements = stockMovements;
+        this.ledger = ledger;
+        this.stockCounter = stockCounter;
+        this.reportCache = reportCache;
+        this.dataVersion = dataVersion;
     }
 
     // 🔹 1) Transfer oluştur (stokları hemen günceller)
@@ -72,19 +83,11 @@ public class BranchTransferController {
 
         int qty = req.quantity();
 
-        if (sourceProduct.getStock() == null || sourceProduct.getStock() < qty) {
+        // --- 1) Kaynak şubeden stok düş (OUT): atomik koşullu update ---
+        if (!stockCounter.decrement(sourceProduct.getId(), qty)) {
             throw new ResponseStatusException(BAD_REQUEST, "Insufficient stock at source branch");
         }
 
-        // --- 1) Kaynak şubeden stok düş (OUT) ---
-        sourceProduct.setStock(sourceProduct.getStock() - qty);
-        stockMovements.save(new StockMovement(
-                sourceProduct,
-                StockMovement.Type.OUT,
-                qty
-        ));
-        products.save(sourceProduct);
-
         // --- 2) Hedef şubede aynı SKU'lu ürün var mı? ---
         Product targetProduct = products
                 .findBySkuIgnoreCaseAndBranch_Id(sourceProduct.getSku(), target.getId())
@@ -100,18 +103,11 @@ public class BranchTransferController {
                     target
             );
             targetProduct.setCategory(sourceProduct.getCategory());
-            targetProduct = products.save(targetProduct);
+            targetProduct = products.saveAndFlush(targetProduct);
         }
 
         // --- 3) Hedef şubeye stok ekle (IN) ---
-        Integer currentTargetStock = targetProduct.getStock() != null ? targetProduct.getStock() : 0;
-        targetProduct.setStock(currentTargetStock + qty);
-        stockMovements.save(new StockMovement(
-                targetProduct,
-                StockMovement.Type.IN,
-                qty
-        ));
-        products.save(targetProduct);
+        stockCounter.increment(targetProduct.getId(), qty);
 
         // --- 4) Transfer kaydı oluştur (COMPLETED) ---
         BranchTransfer transfer = new BranchTransfer(
@@ -123,6 +119,17 @@ public class BranchTransferController {
         );
         BranchTransfer saved = transfers.save(transfer);
 
+        // --- 5) Ledger: kaynakta çıkış, hedefte giriş (batch'lere dokunulmaz, maliyet yok) ---
+        ledger.append(List.of(
+                new InventoryLedgerJdbcRepository.Entry(saved.getCreatedAt(),
+                        InventoryLedgerJdbcRepository.EntryType.TRANSFER_OUT, source.getId(), sourceProduct.getId(),
+                        -qty, null, null, InventoryLedgerJdbcRepository.DOC_BRANCH_TRANSFER, saved.getId()),
+                new InventoryLedgerJdbcRepository.Entry(saved.getCreatedAt(),
+                        InventoryLedgerJdbcRepository.EntryType.TRANSFER_IN, target.getId(), targetProduct.getId(),
+                        qty, null, null, InventoryLedgerJdbcRepository.DOC_BRANCH_TRANSFER, saved.getId())));
+        reportCache.stockChanged(List.of(source.getId(), target.getId()));
+        dataVersion.branchesChanged(List.of(source.getId(), target.getId()));
+
         return toResponse(saved);
     }
 
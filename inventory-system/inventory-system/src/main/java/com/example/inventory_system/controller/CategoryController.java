@@ -4,6 +4,8 @@ import com.example.inventory_system.domain.Category;
 import com.example.inventory_system.dto.CategoryCreateRequest;
 import com.example.inventory_system.dto.CategoryResponse;
 import com.example.inventory_system.repository.CategoryRepository;
+import com.example.inventory_system.service.DataVersionService;
+import com.example.inventory_system.service.ReportCacheService;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -21,9 +23,15 @@ import static org.springframework.http.HttpStatus.*;
 public class CategoryController {
 
     private final CategoryRepository categories;
+    private final ReportCacheService reportCache;
+    private final DataVersionService dataVersion;
 
-    public CategoryController(CategoryRepository categories) {
+    public CategoryController(CategoryRepository categories,
+                              ReportCacheService reportCache,
+                              DataVersionService dataVersion) {
         this.categories = categories;
+        this.reportCache = reportCache;
+        this.dataVersion = dataVersion;
     }
 
     @PostMapping(consumes = "application/json", produces = "application/json")
@@ -32,6 +40,7 @@ public class CategoryController {
             throw new ResponseStatusException(CONFLICT, "Category already exists");
         }
         Category saved = categories.save(new Category(req.getName()));
+        dataVersion.allChanged();
         return ResponseEntity.created(URI.create("/api/v1/categories/" + saved.getId()))
                 .body(new CategoryResponse(saved.getId(), saved.getName(), saved.getCreatedAt()));
     }
@@ -61,6 +70,8 @@ public class CategoryController {
 
         c.setName(req.getName());
         Category saved = categories.save(c);
+        reportCache.invalidateAll(); // kategori satışları adları gösterir
+        dataVersion.allChanged();
         return new CategoryResponse(saved.getId(), saved.getName(), saved.getCreatedAt());
     }
 
@@ -70,6 +81,8 @@ public class CategoryController {
             throw new ResponseStatusException(NOT_FOUND, "Category not found");
         }
         categories.deleteById(id);
+        reportCache.invalidateAll();
+        dataVersion.allChanged();
         return ResponseEntity.noContent().build();
     }
 }
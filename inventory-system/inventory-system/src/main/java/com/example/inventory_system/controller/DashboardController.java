@@ -0,0 +1,38 @@
+package com.example.inventory_system.controller;
+
+import com.example.inventory_system.dto.DashboardResponse;
+import com.example.inventory_system.service.DashboardService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/v1/dashboard")
+public class DashboardController {
+
+    private final DashboardService dashboardService;
+
+    public DashboardController(DashboardService dashboardService) {
+        this.dashboardService = dashboardService;
+    }
+
+    /**
+     * Yönetici panelinin tüm verisi tek istekte (gelir tablosu, envanter değeri, satış trendi,
+     * en çok / yavaş satanlar, SKT uyarı sayısı, öneriler, şube kartları) + bölüm süreleri.
+     *
+     * Örnek istek:
+     * GET /api/v1/dashboard?from=2025-01-01&to=2025-01-31&branchId=1
+     */
+    @GetMapping(produces = "application/json")
+    public DashboardResponse dashboard(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to")   @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(name = "branchId", required = false) Long branchId,
+            @RequestParam(name = "limit", defaultValue = "10") int limit,
+            @RequestParam(name = "threshold", defaultValue = "3") long threshold,
+            @RequestParam(name = "expiringWithinDays", defaultValue = "30") int expiringWithinDays
+    ) {
+        return dashboardService.load(from, to, branchId, limit, threshold, expiringWithinDays);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.inventory_system.controller;
+
+import com.example.inventory_system.dto.HotProductResponse;
+import com.example.inventory_system.service.StockCounterService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Kampanya dönemlerinde yoğun yazılan ürünlerin stok sayacını parçalara bölme / geri toplama.
+ *
+ * Örn:
+ * PUT    /api/v1/admin/hot-products/42?shards=16
+ * DELETE /api/v1/admin/hot-products/42
+ */
+@RestController
+@RequestMapping("/api/v1/admin/hot-products")
+public class HotProductController {
+
+    private final StockCounterService stockCounterService;
+    private final int defaultShards;
+
+    public HotProductController(StockCounterService stockCounterService,
+                                @Value("${inventory.stock.hot-shards:8}") int defaultShards) {
+        this.stockCounterService = stockCounterService;
+        this.defaultShards = defaultShards;
+    }
+
+    @GetMapping(produces = "application/json")
+    public List<HotProductResponse> list() {
+        return stockCounterService.listHot();
+    }
+
+    @PutMapping(value = "/{productId}", produces = "application/json")
+    public HotProductResponse markHot(@PathVariable("productId") Long productId,
+                                      @RequestParam(name = "shards", required = false) Integer shards) {
+        return stockCounterService.markHot(productId, shards != null ? shards : defaultShards);
+    }
+
+    @DeleteMapping(value = "/{productId}", produces = "application/json")
+    public HotProductResponse markCold(@PathVariable("productId") Long productId) {
+        return stockCounterService.markCold(productId);
+    }
+}
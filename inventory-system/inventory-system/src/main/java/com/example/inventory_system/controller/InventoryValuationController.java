@@ -0,0 +1,36 @@
+package com.example.inventory_system.controller;
+
+import com.example.inventory_system.dto.ValuationCheckResponse;
+import com.example.inventory_system.service.InventoryValuationService;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Envanter değeri sayacının SQL ile karşılaştırılması (inventory.valuation.counter-enabled=true iken).
+ *
+ * Örn:
+ * POST /api/v1/admin/inventory-valuation/check    (sapma varsa sayaç düzeltilir)
+ * POST /api/v1/admin/inventory-valuation/reload   (sayaç SQL'den baştan yüklenir)
+ */
+@RestController
+@RequestMapping("/api/v1/admin/inventory-valuation")
+public class InventoryValuationController {
+
+    private final InventoryValuationService valuationService;
+
+    public InventoryValuationController(InventoryValuationService valuationService) {
+        this.valuationService = valuationService;
+    }
+
+    @PostMapping(value = "/check", produces = "application/json")
+    public List<ValuationCheckResponse> check() {
+        return valuationService.check();
+    }
+
+    @PostMapping(value = "/reload", produces = "application/json")
+    public List<ValuationCheckResponse> reload() {
+        valuationService.reload();
+        return valuationService.check();
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.inventory_system.controller;
+
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+/**
+ * Ledger sayfalarının imleci: son satırın zamanı ve ledger id'si ("<timestamp>,<id>").
+ * Yanıtta X-Next-Cursor başlığıyla döner, sonraki istekte after parametresidir.
+ */
+record KeysetCursor(LocalDateTime date, long id) {
+
+    static final String HEADER = "X-Next-Cursor";
+
+    static KeysetCursor parse(String raw) {
+        if (raw == null || raw.isBlank()) return null;
+        int comma = raw.lastIndexOf(',');
+        if (comma > 0) {
+            try {
+                return new KeysetCursor(LocalDateTime.parse(raw.substring(0, comma).trim()),
+                        Long.parseLong(raw.substring(comma + 1).trim()));
+            } catch (DateTimeParseException | NumberFormatException ignored) {
+                // aşağıda 400
+            }
+        }
+        throw new ResponseStatusException(BAD_REQUEST, "after must be <timestamp>,<id>");
+    }
+
+    @Override
+    public String toString() {
+        return date + "," + id;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.inventory_system.controller;
+
+import com.example.inventory_system.dto.LedgerEntryResponse;
+import com.example.inventory_system.repository.InventoryLedgerJdbcRepository;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+@CrossOrigin(origins = "http://localhost:3000", exposedHeaders = KeysetCursor.HEADER)
+@RestController
+@RequestMapping("/api/v1/ledger")
+public class LedgerController {
+
+    private static final int MAX_LIMIT = 1000;
+
+    private final InventoryLedgerJdbcRepository ledger;
+
+    public LedgerController(InventoryLedgerJdbcRepository ledger) {
+        this.ledger = ledger;
+    }
+
+    /**
+     * Denetim: tarih aralığındaki tüm stok hareketleri (iki uç dahil), eskiden yeniye. Sayfa
+     * dolduysa X-Next-Cursor sonraki sayfanın after değeridir.
+     *
+     *  Örn:
+     *  GET /api/v1/ledger?from=2025-01-01&to=2025-01-31
+     *  GET /api/v1/ledger?from=2025-01-01&to=2025-01-31&branchId=3&type=adjustment&limit=200
+     */
+    @GetMapping(produces = "application/json")
+    public ResponseEntity<List<LedgerEntryResponse>> list(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(name = "branchId", required = false) Long branchId,
+            @RequestParam(name = "productId", required = false) Long productId,
+            @RequestParam(name = "type", required = false) String type,
+            @RequestParam(name = "limit", defaultValue = "100") int limit,
+            @RequestParam(name = "after", required = false) String after
+    ) {
+        if (from.isAfter(to)) {
+            throw new ResponseStatusException(BAD_REQUEST, "from must not be after to");
+        }
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new ResponseStatusException(BAD_REQUEST, "limit must be between 1 and " + MAX_LIMIT);
+        }
+        KeysetCursor cursor = KeysetCursor.parse(after);
+
+        List<InventoryLedgerJdbcRepository.Row> rows = ledger.range(from, to, branchId, productId, entryType(type),
+                cursor != null ? cursor.date() : null, cursor != null ? cursor.id() : null, limit);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (rows.size() == limit) {
+            InventoryLedgerJdbcRepository.Row last = rows.get(rows.size() - 1);
+            response.header(KeysetCursor.HEADER, new KeysetCursor(last.createdAt(), last.id()).toString());
+        }
+        return response.body(rows.stream().map(LedgerController::toResponse).toList());
+    }
+
+    static LedgerEntryResponse toResponse(InventoryLedgerJdbcRepository.Row r) {
+        return new LedgerEntryResponse(
+                r.id(),
+                r.createdAt(),
+                r.entryType(),
+                r.quantity() > 0 ? "IN" : "OUT",
+                Math.abs(r.quantity()),
+                r.branchId(),
+                r.branchName(),
+                r.productId(),
+                r.productName(),
+                r.unitPrice(),
+                r.costAmount(),
+                r.docType(),
+                r.docId());
+    }
+
+    // ========== HELPERS ==========
+
+    private static InventoryLedgerJdbcRepository.EntryType entryType(String raw) {
+        if (raw == null || raw.isBlank()) return null;
+        try {
+            return InventoryLedgerJdbcRepository.EntryType.valueOf(raw.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(BAD_REQUEST, "Unknown entry type: " + raw);
+        }
+    }
+}
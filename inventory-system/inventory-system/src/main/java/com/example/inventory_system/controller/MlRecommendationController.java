@@ -1,7 +1,7 @@
 package com.example.inventory_system.controller;
 
 import com.example.inventory_system.dto.MlRecommendationResponse;
-import com.example.inventory_system.service.MlRecommendationService;
+import com.example.inventory_system.service.ReportQueryService;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 
@@ -11,10 +11,10 @@ import java.time.LocalDate;
 @RequestMapping("/api/v1/recommendations/ml")
 public class MlRecommendationController {
 
-    private final MlRecommendationService service;
+    private final ReportQueryService reports;
 
-    public MlRecommendationController(MlRecommendationService service) {
-        this.service = service;
+    public MlRecommendationController(ReportQueryService reports) {
+        this.reports = reports;
     }
 
     @GetMapping
@@ -24,6 +24,6 @@ public class MlRecommendationController {
             @RequestParam(name = "branchId", required = false) Long branchId,
             @RequestParam(name = "horizonDays", defaultValue = "30") int horizonDays
     ) {
-        return service.generate(from, to, branchId, horizonDays);
+        return reports.mlRecommendations(from, to, branchId, horizonDays);
     }
 }
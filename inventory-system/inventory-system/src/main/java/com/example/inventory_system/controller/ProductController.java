@@ -3,7 +3,9 @@ package com.example.inventory_system.controller;
 import com.example.inventory_system.domain.Category;
 import com.example.inventory_system.repository.CategoryRepository;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.transaction.annotation.Transactional;
 import com.example.inventory_system.domain.Branch;
@@ -13,8 +15,12 @@ import com.example.inventory_system.dto.ProductResponse;
 import com.example.inventory_system.repository.BranchRepository;
 import com.example.inventory_system.repository.ProductRepository;
 import jakarta.validation.Valid;
-import com.example.inventory_system.domain.StockMovement;
-import com.example.inventory_system.repository.StockMovementRepository;
+import com.example.inventory_system.dto.LedgerEntryResponse;
+import com.example.inventory_system.repository.InventoryLedgerJdbcRepository;
+import com.example.inventory_system.service.InventoryValuationService;
+import com.example.inventory_system.service.DataVersionService;
+import com.example.inventory_system.service.ReportCacheService;
+import com.example.inventory_system.service.StockCounterService;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -22,6 +28,8 @@ import org.springframework.web.server.ResponseStatusException;
 
 
 import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.List;
 
 
 import static org.springframework.http.HttpStatus.*;
@@ -33,36 +41,48 @@ public class ProductController {
 
     private final CategoryRepository categories;
 
-    private final  StockMovementRepository stockMovements;
+    private final InventoryLedgerJdbcRepository ledger;
     private final ProductRepository products;
     private final BranchRepository branches;
+    private final StockCounterService stockCounter;
+    private final InventoryValuationService valuationService;
+    private final ReportCacheService reportCache;
+    private final DataVersionService dataVersion;
 
 
 
     public ProductController(ProductRepository products,
                              BranchRepository branches,
-                             CategoryRepository categories, StockMovementRepository stockMovements) {
+                             CategoryRepository categories, InventoryLedgerJdbcRepository ledger,
+                             StockCounterService stockCounter,
+                             InventoryValuationService valuationService,
+                             ReportCacheService reportCache,
+                             DataVersionService dataVersion) {
         this.products = products;
         this.branches = branches;
         this.categories = categories;
-        this.stockMovements = stockMovements;
+        this.ledger = ledger;
+        this.stockCounter = stockCounter;
+        this.valuationService = valuationService;
+        this.reportCache = reportCache;
+        this.dataVersion = dataVersion;
     }
 
 
+    // inventory_ledger'dan; yalnızca createdAt'e göre sıralanır (sort=createdAt,desc)
     @GetMapping(value = "/{id}/movements", produces = "application/json")
-    @Transactional(readOnly = true)
-    public Page<?> listMovements(@PathVariable("id") Long id,
-                                 @PageableDefault(size = 10, sort = "createdAt") Pageable pageable) {
+    public Page<LedgerEntryResponse> listMovements(@PathVariable("id") Long id,
+                                                   @PageableDefault(size = 10, sort = "createdAt") Pageable pageable) {
         // ürün var mı kontrolü (404 yerine boş dönmek istemezsin)
-        products.findById(id).orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Product not found"));
-
-        return stockMovements.findByProduct_Id(id, pageable)
-                .map(m -> java.util.Map.of(
-                        "id", m.getId(),
-                        "type", m.getType().name(),
-                        "quantity", m.getQuantity(),
-                        "createdAt", m.getCreatedAt()
-                ));
+        if (!products.existsById(id)) {
+            throw new ResponseStatusException(NOT_FOUND, "Product not found");
+        }
+
+        Sort.Order order = pageable.getSort().getOrderFor("createdAt");
+        boolean ascending = order == null || order.isAscending();
+        List<LedgerEntryResponse> rows = ledger.byProduct(id, ascending, pageable.getOffset(), pageable.getPageSize())
+                .stream().map(LedgerController::toResponse).toList();
+        return new PageImpl<>(rows, pageable, ledger.countByProduct(id));
     }
 
     // health/ping (isteğe bağlı)
@@ -125,6 +145,8 @@ public class ProductController {
         ));
         saved.setCategory(category);
         saved = products.save(saved);
+        reportCache.invalidateAll(); // öneriler tüm ürünleri listeler
+        dataVersion.allChanged();
 
         return ResponseEntity.created(URI.create("/api/v1/products/" + saved.getId()))
                 .body(toResponse(saved));
@@ -154,11 +176,15 @@ public class ProductController {
         p.setName(req.getName());
         p.setSku(req.getSku());
         p.setPrice(req.getPrice());
-        p.setStock(req.getStock());
+        // hot üründe parçalar olduğu gibi kalır; toplam istenen değere eşit olsun
+        p.setStock(req.getStock() - p.getShardStock());
         p.setBranch(branch);
         p.setCategory(category);
 
-        return toResponse(products.save(p));
+        Product saved = products.save(p);
+        reportCache.invalidateAll(); // ad / şube / stok raporlarda görünür
+        dataVersion.allChanged();
+        return toResponse(saved);
     }
 
 
@@ -194,24 +220,28 @@ public class ProductController {
             throw new ResponseStatusException(BAD_REQUEST, "'type' must be IN or OUT");
         }
 
-        Product p = products.findById(id)
-                .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Product not found"));
+        // atomik koşullu update: entity yükle-değiştir-kaydet yok, eşzamanlı düzeltmeler kaybolmaz
+        boolean updated = type.equals("IN")
+                ? stockCounter.increment(id, quantity)
+                : stockCounter.decrement(id, quantity);
 
-        if (type.equals("IN")) {
-            p.setStock(p.getStock() + quantity);
-        } else { // OUT
-            if (p.getStock() < quantity) {
-                throw new ResponseStatusException(BAD_REQUEST, "Insufficient stock");
+        if (!updated) {
+            if (!products.existsById(id)) {
+                throw new ResponseStatusException(NOT_FOUND, "Product not found");
             }
-            p.setStock(p.getStock() - quantity);
+            throw new ResponseStatusException(BAD_REQUEST, "Insufficient stock");
         }
 
-        // hareket kaydı
-        StockMovement.Type mvType = "IN".equals(type)
-                ? StockMovement.Type.IN : StockMovement.Type.OUT;
-        stockMovements.save(new StockMovement(p, mvType, quantity));
+        Product p = products.findById(id)
+                .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Product not found"));
 
-        return toResponse(products.save(p));
+        // hareket kaydı (batch'lere dokunulmaz, maliyet yok)
+        ledger.append(List.of(new InventoryLedgerJdbcRepository.Entry(LocalDateTime.now(),
+                InventoryLedgerJdbcRepository.EntryType.ADJUSTMENT, p.getBranch().getId(), id,
+                "IN".equals(type) ? quantity : -quantity, null, null, null, null)));
+        reportCache.stockChanged(List.of(p.getBranch().getId()));
+        dataVersion.branchesChanged(List.of(p.getBranch().getId()));
+        return toResponse(p);
     }
 
 
@@ -224,6 +254,9 @@ public class ProductController {
             throw new ResponseStatusException(NOT_FOUND, "Product not found");
         }
         products.deleteById(id);
+        valuationService.reload(); // ürünün batch'leri cascade ile silindi
+        reportCache.invalidateAll();
+        dataVersion.allChanged();
         return ResponseEntity.noContent().build();
     }
 
@@ -234,7 +267,7 @@ public class ProductController {
                 p.getName(),
                 p.getSku(),
                 p.getPrice(),
-                p.getStock(),
+                p.getTotalStock(),
                 p.getBranch() != null ? p.getBranch().getId() : null,
                 p.getBranch() != null ? p.getBranch().getName() : null,
                 p.getCreatedAt(),
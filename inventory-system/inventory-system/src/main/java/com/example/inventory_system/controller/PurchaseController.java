@@ -1,7 +1,10 @@
 package com.example.inventory_system.controller;
 
+import com.example.inventory_system.dto.PurchaseOrderRequest;
 import com.example.inventory_system.dto.PurchaseRequest;
+import com.example.inventory_system.service.IdempotencyService;
 import com.example.inventory_system.service.InventoryService;
+import com.example.inventory_system.service.PurchaseService;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -11,14 +14,44 @@ import org.springframework.web.bind.annotation.*;
 public class PurchaseController {
 
     private final InventoryService inventoryService;
+    private final PurchaseService purchaseService;
+    private final IdempotencyService idempotencyService;
 
-    public PurchaseController(InventoryService inventoryService) {
+    public PurchaseController(InventoryService inventoryService,
+                              PurchaseService purchaseService,
+                              IdempotencyService idempotencyService) {
         this.inventoryService = inventoryService;
+        this.purchaseService = purchaseService;
+        this.idempotencyService = idempotencyService;
     }
 
     @PostMapping(consumes = "application/json")
-    public ResponseEntity<Void> receive(@Valid @RequestBody PurchaseRequest req) {
-        inventoryService.receiveBatch(req);
+    public ResponseEntity<Void> receive(@RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
+                                        @Valid @RequestBody PurchaseRequest req) {
+        idempotencyService.execute(idempotencyKey, "POST /api/v1/purchases", req, Void.class, () -> {
+            inventoryService.receiveBatch(req);
+            return null;
+        });
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Çok satırlı mal kabul (irsaliye): tüm satırlar tek transaction'da, toplu insert ile yazılır.
+     *
+     * Örn:
+     * POST /api/v1/purchases/orders
+     * { "branchId": 1, "lines": [ { "productId": 10, "quantity": 24, "unitCost": 3.50, "expiryDate": "2026-03-01" } ] }
+     */
+    @PostMapping(value = "/orders", consumes = "application/json")
+    public ResponseEntity<Void> receiveOrder(
+            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
+            @Valid @RequestBody PurchaseOrderRequest req) {
+        idempotencyService.execute(idempotencyKey, "POST /api/v1/purchases/orders", req, Void.class, () -> {
+            purchaseService.createPurchase(req.branchId(), req.lines().stream()
+                    .map(l -> new PurchaseService.PurchaseLine(l.productId(), l.quantity(), l.unitCost(), l.expiryDate()))
+                    .toList());
+            return null;
+        });
         return ResponseEntity.noContent().build();
     }
 }
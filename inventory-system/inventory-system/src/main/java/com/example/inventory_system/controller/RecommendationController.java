@@ -1,7 +1,7 @@
 package com.example.inventory_system.controller;
 
 import com.example.inventory_system.dto.RecommendationItemResponse;
-import com.example.inventory_system.service.RecommendationService;
+import com.example.inventory_system.service.ReportQueryService;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 
@@ -12,10 +12,10 @@ import java.util.List;
 @RequestMapping("/api/v1/recommendations")
 public class RecommendationController {
 
-    private final RecommendationService service;
+    private final ReportQueryService reports;
 
-    public RecommendationController(RecommendationService service) {
-        this.service = service;
+    public RecommendationController(ReportQueryService reports) {
+        this.reports = reports;
     }
 
     /**
@@ -30,7 +30,7 @@ public class RecommendationController {
             @RequestParam(name = "tteWindowDays", defaultValue = "30") int tteWindowDays,
             @RequestParam(name = "expiryWindowDays", defaultValue = "30") int expiryWindowDays
     ) {
-        return service.generate(from, to, branchId, tteWindowDays, expiryWindowDays);
+        return reports.recommendations(from, to, branchId, tteWindowDays, expiryWindowDays);
     }
 }
     
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.example.inventory_system.controller;
+
+import com.example.inventory_system.dto.ReportJobPageResponse;
+import com.example.inventory_system.dto.ReportJobRequest;
+import com.example.inventory_system.dto.ReportJobResponse;
+import com.example.inventory_system.service.ReportJobService;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+
+/**
+ * Uzun süren raporlar için arka plan işleri. report: /reports/* uçlarından biri
+ * (bestsellers, slow-movers, sales-trend, category-sales, product-margins, income-statement,
+ * time-to-empty, branch-matrix, inventory-valuation) ya da recommendations / recommendations-ml.
+ *
+ * Örn:
+ * POST /api/v1/report-jobs   {"report":"product-margins","params":{"from":"2023-01-01","to":"2025-12-31","limit":1000}}
+ *      -> 202 (yeni iş) / 200 (aynı parametrelerle bekleyen, çalışan ya da taze iş)
+ * GET  /api/v1/report-jobs/42             (durum, progress)
+ * GET  /api/v1/report-jobs/42/results?page=0
+ */
+@RestController
+@RequestMapping("/api/v1/report-jobs")
+public class ReportJobController {
+
+    private final ReportJobService reportJobService;
+
+    public ReportJobController(ReportJobService reportJobService) {
+        this.reportJobService = reportJobService;
+    }
+
+    @PostMapping(produces = "application/json")
+    public ResponseEntity<ReportJobResponse> submit(@Valid @RequestBody ReportJobRequest request) {
+        ReportJobResponse job = reportJobService.submit(request);
+        return ResponseEntity.status(job.reused() ? HttpStatus.OK : HttpStatus.ACCEPTED)
+                .location(URI.create("/api/v1/report-jobs/" + job.id()))
+                .body(job);
+    }
+
+    @GetMapping(value = "/{id}", produces = "application/json")
+    public ReportJobResponse get(@PathVariable("id") long id) {
+        return reportJobService.get(id);
+    }
+
+    @GetMapping(value = "/{id}/results", produces = "application/json")
+    public ReportJobPageResponse results(@PathVariable("id") long id,
+                                         @RequestParam(name = "page", defaultValue = "0") int page) {
+        return reportJobService.page(id, page);
+    }
+}
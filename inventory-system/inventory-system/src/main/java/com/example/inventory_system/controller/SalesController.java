@@ -1,23 +1,197 @@
 package com.example.inventory_system.controller;
 
+import com.example.inventory_system.dto.BulkSaleResponse;
+import com.example.inventory_system.dto.BulkSaleResult;
 import com.example.inventory_system.dto.SaleCreateRequest;
+import com.example.inventory_system.dto.SaleImportRequest;
 import com.example.inventory_system.dto.SaleResponse;
+import com.example.inventory_system.dto.SaleStatusResponse;
+import com.example.inventory_system.service.IdempotencyService;
 import com.example.inventory_system.service.InventoryService;
+import com.example.inventory_system.service.SaleIntakeService;
+import com.example.inventory_system.service.SalesService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/v1/sales")
 public class SalesController {
 
     private final InventoryService inventoryService;
+    private final SaleIntakeService saleIntakeService;
+    private final SalesService salesService;
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int bulkChunkSize;
 
-    public SalesController(InventoryService inventoryService) {
+    public SalesController(InventoryService inventoryService,
+                           SaleIntakeService saleIntakeService,
+                           SalesService salesService,
+                           IdempotencyService idempotencyService,
+                           ObjectMapper objectMapper,
+                           Validator validator,
+                           @Value("${inventory.sales.bulk.chunk-size:500}") int bulkChunkSize) {
         this.inventoryService = inventoryService;
+        this.saleIntakeService = saleIntakeService;
+        this.salesService = salesService;
+        this.idempotencyService = idempotencyService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.bulkChunkSize = Math.max(1, bulkChunkSize);
     }
 
+    /**
+     * Idempotency-Key verilirse aynı anahtarla gelen tekrar FIFO tüketimini yeniden çalıştırmaz,
+     * ilk yanıtı döner (timeout sonrası kasa tekrarları için).
+     */
     @PostMapping(consumes = "application/json", produces = "application/json")
-    public SaleResponse create(@Valid @RequestBody SaleCreateRequest req) {
-        return inventoryService.createSale(req);
+    public SaleResponse create(@RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
+                               @Valid @RequestBody SaleCreateRequest req) {
+        return idempotencyService.execute(idempotencyKey, "POST /api/v1/sales", req, SaleResponse.class,
+                () -> inventoryService.createSale(req));
+    }
+
+    /**
+     * Kasadan sonradan aktarılan çok satırlı satış; kayıtlar verilen satış zamanıyla yazılır.
+     *
+     * Örn:
+     * POST /api/v1/sales/import
+     * { "branchId": 1, "createdAt": "2025-06-01T18:30:00", "items": [ ... ] }
+     */
+    @PostMapping(value = "/import", consumes = "application/json", produces = "application/json")
+    public ResponseEntity<Map<String, Long>> importSale(
+            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
+            @Valid @RequestBody SaleImportRequest req) {
+        Long id = idempotencyService.execute(idempotencyKey, "POST /api/v1/sales/import", req, Long.class,
+                () -> salesService.createSale(req.branchId(), req.items().stream()
+                        .map(i -> new SalesService.SaleLine(i.productId(), i.quantity(), i.unitPrice()))
+                        .toList(), req.createdAt()));
+        return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("id", id));
+    }
+
+    /**
+     * Asenkron satış: doğrulanan istek kuyruğa alınır ve 202 + handle döner.
+     * Sonuç (COGS ya da red sebebi) status ucundan sorgulanır.
+     *
+     * Örn:
+     * POST /api/v1/sales/async
+     * GET  /api/v1/sales/{handle}/status
+     */
+    @PostMapping(value = "/async", consumes = "application/json", produces = "application/json")
+    public ResponseEntity<SaleStatusResponse> createAsync(
+            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
+            @Valid @RequestBody SaleCreateRequest req) {
+        // tekrar aynı handle'ı döner; güncel durum status ucundan okunur
+        SaleStatusResponse pending = idempotencyService.execute(idempotencyKey, "POST /api/v1/sales/async", req,
+                SaleStatusResponse.class, () -> saleIntakeService.submit(req));
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/sales/" + pending.handle() + "/status"))
+                .body(pending);
+    }
+
+    @GetMapping(value = "/{handle}/status", produces = "application/json")
+    public SaleStatusResponse status(@PathVariable("handle") String handle) {
+        return saleIntakeService.status(handle)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "Sale handle not found"));
+    }
+
+    /**
+     * Vardiya sonu toplu satış yükleme.
+     * Gövde NDJSON (satır başına bir SaleCreateRequest) veya JSON array olabilir; gövde
+     * tamamen belleğe alınmadan okunur ve chunk-size'lık parçalar halinde ayrı transaction'larda yazılır.
+     *
+     * Örn:
+     * POST /api/v1/sales/bulk   (Content-Type: application/x-ndjson)
+     */
+    @PostMapping(value = "/bulk", consumes = {"application/x-ndjson", "application/json"}, produces = "application/json")
+    public BulkSaleResponse bulk(InputStream body) throws IOException {
+        List<BulkSaleResult> results = new ArrayList<>();
+        List<SaleCreateRequest> chunk = new ArrayList<>(bulkChunkSize);
+        List<Integer> chunkIndexes = new ArrayList<>(bulkChunkSize);
+        int index = 0;
+
+        try (MappingIterator<SaleCreateRequest> it =
+                     objectMapper.readerFor(SaleCreateRequest.class).readValues(body)) {
+            while (true) {
+                SaleCreateRequest req;
+                try {
+                    if (!it.hasNextValue()) break;
+                    req = it.nextValue();
+                } catch (JsonProcessingException ex) {
+                    // bozuk kayıttan sonrası güvenle okunamaz: eldekini yaz ve dur
+                    flush(chunk, chunkIndexes, results);
+                    results.add(rejected(index, "Malformed JSON: " + ex.getOriginalMessage()));
+                    break;
+                }
+
+                String invalid = validate(req);
+                if (invalid != null) {
+                    results.add(rejected(index, invalid));
+                } else {
+                    chunk.add(req);
+                    chunkIndexes.add(index);
+                    if (chunk.size() >= bulkChunkSize) {
+                        flush(chunk, chunkIndexes, results);
+                    }
+                }
+                index++;
+            }
+        }
+        flush(chunk, chunkIndexes, results);
+
+        results.sort((a, b) -> Integer.compare(a.index(), b.index()));
+        int accepted = (int) results.stream().filter(r -> "ACCEPTED".equals(r.status())).count();
+        return new BulkSaleResponse(index, accepted, results.size() - accepted, results);
+    }
+
+    // --- helpers ---
+
+    private void flush(List<SaleCreateRequest> chunk, List<Integer> chunkIndexes, List<BulkSaleResult> results) {
+        if (chunk.isEmpty()) return;
+
+        List<InventoryService.SaleOutcome> outcomes = inventoryService.createSales(chunk);
+        for (int i = 0; i < outcomes.size(); i++) {
+            InventoryService.SaleOutcome o = outcomes.get(i);
+            int idx = chunkIndexes.get(i);
+            results.add(o.accepted()
+                    ? new BulkSaleResult(idx, "ACCEPTED", o.sale().id(), o.sale().totalAmount(), null)
+                    : rejected(idx, o.error().getReason()));
+        }
+        chunk.clear();
+        chunkIndexes.clear();
+    }
+
+    private String validate(SaleCreateRequest req) {
+        if (req == null) return "Empty sale";
+        Set<ConstraintViolation<SaleCreateRequest>> violations = validator.validate(req);
+        if (violations.isEmpty()) return null;
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private static BulkSaleResult rejected(int index, String error) {
+        return new BulkSaleResult(index, "REJECTED", null, null, error);
     }
 }
@@ -0,0 +1,35 @@
+package com.example.inventory_system.controller;
+
+import com.example.inventory_system.dto.SalesPartitionResponse;
+import com.example.inventory_system.service.SalesPartitionService;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * sales / sale_items aylık partition'ları.
+ *
+ * Örn:
+ * GET  /api/v1/admin/sales-partitions
+ * POST /api/v1/admin/sales-partitions/maintain   (gece işini hemen çalıştırır)
+ */
+@RestController
+@RequestMapping("/api/v1/admin/sales-partitions")
+public class SalesPartitionController {
+
+    private final SalesPartitionService salesPartitionService;
+
+    public SalesPartitionController(SalesPartitionService salesPartitionService) {
+        this.salesPartitionService = salesPartitionService;
+    }
+
+    @GetMapping(produces = "application/json")
+    public List<SalesPartitionResponse> list() {
+        return salesPartitionService.list();
+    }
+
+    @PostMapping(value = "/maintain", produces = "application/json")
+    public List<SalesPartitionResponse> maintain() {
+        return salesPartitionService.maintain();
+    }
+}
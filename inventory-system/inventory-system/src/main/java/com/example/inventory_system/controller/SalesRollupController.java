@@ -0,0 +1,35 @@
+package com.example.inventory_system.controller;
+
+import com.example.inventory_system.dto.SalesRollupRebuildResponse;
+import com.example.inventory_system.service.SalesRollupService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+/**
+ * Günlük satış özetinin sale_items'tan yeniden hesaplanması (onarım / geçmiş veri yüklemesi sonrası).
+ *
+ * Örn:
+ * POST /api/v1/admin/sales-rollup/rebuild?from=2025-01-01&to=2025-03-31
+ * POST /api/v1/admin/sales-rollup/rebuild            (tüm geçmiş)
+ */
+@RestController
+@RequestMapping("/api/v1/admin/sales-rollup")
+public class SalesRollupController {
+
+    private final SalesRollupService salesRollupService;
+
+    public SalesRollupController(SalesRollupService salesRollupService) {
+        this.salesRollupService = salesRollupService;
+    }
+
+    @PostMapping(value = "/rebuild", produces = "application/json")
+    public SalesRollupRebuildResponse rebuild(
+            @RequestParam(name = "from", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return salesRollupService.rebuild(from, to);
+    }
+}
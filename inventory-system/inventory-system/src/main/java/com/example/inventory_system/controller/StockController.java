@@ -0,0 +1,40 @@
+package com.example.inventory_system.controller;
+
+import com.example.inventory_system.dto.StockAsOfResponse;
+import com.example.inventory_system.service.StockSnapshotService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@CrossOrigin(origins = "http://localhost:3000")
+@RestController
+@RequestMapping("/api/v1/stock")
+public class StockController {
+
+    private final StockSnapshotService stockSnapshotService;
+
+    public StockController(StockSnapshotService stockSnapshotService) {
+        this.stockSnapshotService = stockSnapshotService;
+    }
+
+    /**
+     * Verilen günün sonundaki stok adedi ve değeri (ürün / şube bazında).
+     *
+     * Ledger'dan önceki geçmiş (V15 backfill) satışların hangi batch'ten düştüğünü bilmez; eksik
+     * adet tek bir açılış satırıyla en başa yazılır. Bu dönemdeki bir tarih için sonuç, o tarihten
+     * sonra gelen batch'lerden satılan adet (ve maliyeti) kadar fazla çıkabilir. Canlı ledger
+     * döneminde ve bugün için kesindir.
+     *
+     *  Örn:
+     *  GET /api/v1/stock/as-of?date=2025-03-31
+     *  GET /api/v1/stock/as-of?date=2025-03-31&branchId=2
+     */
+    @GetMapping("/as-of")
+    public StockAsOfResponse asOf(
+            @RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(name = "branchId", required = false) Long branchId
+    ) {
+        return stockSnapshotService.asOf(date, branchId);
+    }
+}
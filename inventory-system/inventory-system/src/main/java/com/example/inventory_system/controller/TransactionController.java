@@ -1,130 +1,107 @@
 package com.example.inventory_system.controller;
 
-import com.example.inventory_system.domain.ProductBatch;
-import com.example.inventory_system.domain.SaleItem;
 import com.example.inventory_system.dto.TransactionResponse;
-import com.example.inventory_system.repository.ProductBatchRepository;
-import com.example.inventory_system.repository.SaleItemRepository;
-import org.springframework.transaction.annotation.Transactional;
+import com.example.inventory_system.repository.InventoryLedgerJdbcRepository;
+import com.example.inventory_system.service.ExportFormat;
+import com.example.inventory_system.service.ReportExportService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
-import java.util.ArrayList;
-import java.util.Comparator;
+import java.time.LocalDate;
 import java.util.List;
 
-@CrossOrigin(origins = "http://localhost:3000")
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+@CrossOrigin(origins = "http://localhost:3000", exposedHeaders = KeysetCursor.HEADER)
 @RestController
 @RequestMapping("/api/v1/transactions")
 public class TransactionController {
 
-    private final ProductBatchRepository batches;
-    private final SaleItemRepository saleItems;
+    private static final int MAX_LIMIT = 1000;
+
+    private final InventoryLedgerJdbcRepository ledger;
+    private final ReportExportService exportService;
 
-    public TransactionController(ProductBatchRepository batches,
-                                 SaleItemRepository saleItems) {
-        this.batches = batches;
-        this.saleItems = saleItems;
+    public TransactionController(InventoryLedgerJdbcRepository ledger,
+                                 ReportExportService exportService) {
+        this.ledger = ledger;
+        this.exportService = exportService;
     }
 
     /**
-     * Genel işlem listesi:
-     *  - Purchases  -> ProductBatch üzerinden
-     *  - Sales      -> SaleItem + Sale üzerinden
+     * Genel işlem listesi (en yeni en üstte), inventory_ledger'daki mal kabul ve satış satırları.
+     * id: mal kabulde batch id, satışta satış kalemi id. Sayfa dolduysa X-Next-Cursor başlığı
+     * sonraki sayfanın after değerini taşır (son satırın zamanı ve ledger id'si).
      *
      *  Örn:
      *  GET /api/v1/transactions
-     *  GET /api/v1/transactions?branchId=110
-     *  GET /api/v1/transactions?branchId=110&limit=100
+     *  GET /api/v1/transactions?branchId=110&limit=20
+     *  GET /api/v1/transactions?limit=20&after=2025-03-01T10:15:30.123456,48211
      */
     @GetMapping
-    @Transactional(readOnly = true)
-    public List<TransactionResponse> list(
+    public ResponseEntity<List<TransactionResponse>> list(
             @RequestParam(name = "branchId", required = false) Long branchId,
-            @RequestParam(name = "limit", defaultValue = "100") int limit
+            @RequestParam(name = "limit", defaultValue = "100") int limit,
+            @RequestParam(name = "after", required = false) String after
     ) {
-        List<TransactionResponse> out = new ArrayList<>();
-
-        // --- PURCHASE tarafı: ProductBatch ---
-        for (ProductBatch b : batches.findAll()) {
-            if (branchId != null) {
-                if (b.getBranch() == null || !branchId.equals(b.getBranch().getId())) {
-                    continue;
-                }
-            }
-
-            var product = b.getProduct();
-            var branch  = b.getBranch();
-
-            BigDecimal unitCost = b.getUnitCost() != null
-                    ? b.getUnitCost()
-                    : BigDecimal.ZERO;
-
-            Integer qty = b.getQuantity() != null ? b.getQuantity() : 0;
-            BigDecimal total = unitCost.multiply(BigDecimal.valueOf(qty));
-
-            out.add(new TransactionResponse(
-                    b.getId(),
-                    "purchase",
-                    product != null ? product.getId() : null,
-                    product != null ? product.getName() : "(deleted)",
-                    branch != null ? branch.getId() : null,
-                    branch != null ? branch.getName() : null,
-                    qty,
-                    unitCost,
-                    total,
-                    b.getCreatedAt(),     // veya b.getReceivedAt() varsa onu kullan
-                    b.getExpiryDate()
-            ));
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new ResponseStatusException(BAD_REQUEST, "limit must be between 1 and " + MAX_LIMIT);
         }
+        KeysetCursor cursor = KeysetCursor.parse(after);
 
-        // --- SALES tarafı: SaleItem + Sale ---
-        for (SaleItem si : saleItems.findAll()) {
-            var sale    = si.getSale();
-            var product = si.getProduct();
-
-            if (branchId != null) {
-                if (sale == null || sale.getBranch() == null
-                        || !branchId.equals(sale.getBranch().getId())) {
-                    continue;
-                }
-            }
-
-            var branch = (sale != null) ? sale.getBranch() : null;
-
-            BigDecimal unitPrice = si.getUnitPrice() != null
-                    ? si.getUnitPrice()
-                    : BigDecimal.ZERO;
+        List<InventoryLedgerJdbcRepository.Row> rows = ledger.transactions(branchId,
+                cursor != null ? cursor.date() : null, cursor != null ? cursor.id() : null, limit);
 
-            Integer qty = si.getQuantity() != null ? si.getQuantity() : 0;
-            BigDecimal total = unitPrice.multiply(BigDecimal.valueOf(qty));
-
-            out.add(new TransactionResponse(
-                    si.getId(),
-                    "sale",
-                    product != null ? product.getId() : null,
-                    product != null ? product.getName() : "(deleted)",
-                    branch != null ? branch.getId() : null,
-                    branch != null ? branch.getName() : null,
-                    qty,
-                    unitPrice,
-                    total,
-                    sale != null ? sale.getCreatedAt() : null,
-                    null      // satışta SKT yok
-            ));
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (rows.size() == limit) {
+            InventoryLedgerJdbcRepository.Row last = rows.get(rows.size() - 1);
+            response.header(KeysetCursor.HEADER, new KeysetCursor(last.createdAt(), last.id()).toString());
         }
+        return response.body(rows.stream().map(TransactionController::toResponse).toList());
+    }
 
-        // Tarihe göre sondan başa sırala (en yeni en üstte)
-        out.sort(Comparator.comparing(TransactionResponse::getDate,
-                Comparator.nullsLast(Comparator.naturalOrder())).reversed());
+    /**
+     * İşlem geçmişi dışa aktarma (tarih aralığı zorunlu, iki uç dahil). Satırlar bellekte
+     * toplanmadan CSV / NDJSON olarak akar; gzip=true ile .gz iner.
+     *
+     *  Örn:
+     *  GET /api/v1/transactions/export?from=2025-01-01&to=2025-12-31&format=ndjson&gzip=true
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(name = "branchId", required = false) Long branchId,
+            @RequestParam(name = "format", defaultValue = "csv") String format,
+            @RequestParam(name = "gzip", defaultValue = "false") boolean gzip
+    ) {
+        return exportService.transactions(from, to, branchId, ExportFormat.parse(format), gzip);
+    }
 
-        if (out.size() > limit) {
-            return out.subList(0, limit);
-        }
-        return out;
+    // ========== HELPERS ==========
+
+    private static TransactionResponse toResponse(InventoryLedgerJdbcRepository.Row r) {
+        BigDecimal unitPrice = r.unitPrice() != null ? r.unitPrice() : BigDecimal.ZERO;
+        int qty = Math.abs(r.quantity());
+        return new TransactionResponse(
+                r.docId(),
+                "SALE".equals(r.entryType()) ? "sale" : "purchase",
+                r.productId(),
+                r.productName() != null ? r.productName() : "(deleted)",
+                r.branchId(),
+                r.branchName(),
+                qty,
+                unitPrice,
+                unitPrice.multiply(BigDecimal.valueOf(qty)),
+                r.createdAt(),
+                r.expiryDate());
     }
 }
@@ -11,7 +11,8 @@ public class BranchTransfer {
     }
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "branch_transfer_seq")
+    @SequenceGenerator(name = "branch_transfer_seq", sequenceName = "branch_transfer_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(optional = false)
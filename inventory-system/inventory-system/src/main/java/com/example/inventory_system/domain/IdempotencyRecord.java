@@ -0,0 +1,46 @@
+package com.example.inventory_system.domain;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Idempotency-Key ile gelen yazma isteğinin kaydı. Yazmalar JDBC ile yapılır
+ * (IdempotencyJdbcRepository), entity yalnızca şema içindir.
+ * COMMITTED: işlem commit oldu, yanıt henüz kaydedilmedi (devralınmaz); owner: sahip isteğin belirteci.
+ */
+@Entity
+@Table(name = "idempotency_keys",
+        indexes = @Index(name = "idx_idempotency_keys_created_at", columnList = "created_at"))
+public class IdempotencyRecord {
+
+    public enum Status { IN_PROGRESS, COMMITTED, COMPLETED }
+
+    @Id
+    @Column(name = "idempotency_key", length = 128)
+    private String key;
+
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    @Column(columnDefinition = "text")
+    private String responseBody;
+
+    @Column(length = 36)
+    private String owner;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public IdempotencyRecord() {}
+
+    public String getKey() { return key; }
+    public String getRequestHash() { return requestHash; }
+    public Status getStatus() { return status; }
+    public String getResponseBody() { return responseBody; }
+    public String getOwner() { return owner; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
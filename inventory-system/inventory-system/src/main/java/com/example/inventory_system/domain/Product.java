@@ -2,6 +2,7 @@ package com.example.inventory_system.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Formula;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
@@ -25,17 +26,18 @@ import java.time.LocalDateTime;
 
 public class Product {
 
- /*   @Version
+    @Version
     private Long version;
     public Long getVersion() { return version; }
-*/
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     private Category category;
 
 
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable=false, length=96)
@@ -50,6 +52,10 @@ public class Product {
     @Column(nullable=false)
     private Integer stock;
 
+    // hot ürünlerde stoğun products.stock dışında kalan kısmı (bkz. ProductStockShard)
+    @Formula("(SELECT COALESCE(SUM(s.stock), 0) FROM product_stock_shards s WHERE s.product_id = id)")
+    private Integer shardStock;
+
     @ManyToOne(fetch = FetchType.EAGER, optional = false)
     @JoinColumn(name = "branch_id", nullable = false)
     private Branch branch;
@@ -72,6 +78,9 @@ public class Product {
     public String getSku() { return sku; }
     public BigDecimal getPrice() { return price; }
     public Integer getStock() { return stock; }
+    public Integer getShardStock() { return shardStock != null ? shardStock : 0; }
+    /** Kesin stok: products.stock + parçalar. Okuma/raporlama için bunu kullan. */
+    public Integer getTotalStock() { return stock != null ? stock + getShardStock() : getShardStock(); }
     public Branch getBranch() { return branch; }
     public LocalDateTime getCreatedAt() { return createdAt; }
 
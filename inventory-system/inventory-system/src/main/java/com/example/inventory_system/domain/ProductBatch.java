@@ -7,7 +7,9 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "product_batches")
 public class ProductBatch {
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_batches_seq")
+    @SequenceGenerator(name = "product_batches_seq", sequenceName = "product_batches_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(optional = false) @JoinColumn(name = "product_id")
@@ -27,6 +29,10 @@ public class ProductBatch {
     @Column(nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
+    // optimistic satış modunda FIFO katmanı çakışmalarını yakalamak için
+    @Version
+    private Long version;
+
     public ProductBatch() {}
     public ProductBatch(Product product, Branch branch, LocalDate expiryDate,
                         java.math.BigDecimal unitCost, Integer quantity) {
@@ -45,5 +51,6 @@ public class ProductBatch {
     public java.math.BigDecimal getUnitCost() { return unitCost; }
     public Integer getQuantity() { return quantity; }
     public LocalDateTime getCreatedAt() { return createdAt; }
+    public Long getVersion() { return version; }
     public void setQuantity(Integer quantity) { this.quantity = quantity; }
 }
@@ -0,0 +1,48 @@
+package com.example.inventory_system.domain;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Sıcak (hot) ürünlerin stok sayacının bir parçası. Ürün hot işaretlendiğinde
+ * products.stock bu satırlara dağıtılır; gerçek stok = products.stock + SUM(shard.stock).
+ * Yazmalar JDBC ile yapılır (ProductStockShardJdbcRepository), entity yalnızca şema içindir.
+ */
+@Entity
+@Table(name = "product_stock_shards")
+@IdClass(ProductStockShard.Key.class)
+public class ProductStockShard {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Id
+    @Column(name = "shard")
+    private Integer shard;
+
+    @Column(nullable = false)
+    private Integer stock;
+
+    public ProductStockShard() {}
+
+    public Long getProductId() { return productId; }
+    public Integer getShard() { return shard; }
+    public Integer getStock() { return stock; }
+
+    public static class Key implements Serializable {
+        private Long productId;
+        private Integer shard;
+
+        public Key() {}
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key k && Objects.equals(productId, k.productId) && Objects.equals(shard, k.shard);
+        }
+
+        @Override
+        public int hashCode() { return Objects.hash(productId, shard); }
+    }
+}
@@ -7,10 +7,14 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "sales")
 public class Sale {
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sales_seq")
+    @SequenceGenerator(name = "sales_seq", sequenceName = "sales_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne(optional = false) @JoinColumn(name = "branch_id")
+    // Tablo partition'lı (V12): FK migration'da tanımlı
+    @ManyToOne(optional = false)
+    @JoinColumn(name = "branch_id", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private Branch branch;
 
     @Column(nullable = false)
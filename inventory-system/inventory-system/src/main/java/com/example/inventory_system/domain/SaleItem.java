@@ -2,18 +2,26 @@ package com.example.inventory_system.domain;
 
 import jakarta.persistence.*;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "sale_items")
 public class SaleItem {
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sale_items_seq")
+    @SequenceGenerator(name = "sale_items_seq", sequenceName = "sale_items_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne(optional = false) @JoinColumn(name = "sale_id")
+    // Tablo partition'lı (V12): FK'lar migration'da tanımlı, Hibernate partition'lı tablonun
+    // FK'larını göremediği için her açılışta yeniden eklemeye çalışmasın.
+    // sale FK'sı partition anahtarını içerir: (sale_id, sale_created_at) -> sales(id, created_at)
+    @ManyToOne(optional = false)
+    @JoinColumn(name = "sale_id", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private Sale sale;
 
-    @ManyToOne(optional = false) @JoinColumn(name = "product_id")
+    @ManyToOne(optional = false)
+    @JoinColumn(name = "product_id", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private Product product;
 
     @Column(nullable = false)
@@ -27,6 +35,16 @@ public class SaleItem {
     @Column(nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
+    // satıştan kopya (denormalize): satır bazlı toplamalar sales'e join yapmasın
+    @Column(name = "sale_created_at", nullable = false)
+    private LocalDateTime saleCreatedAt;
+
+    @Column(name = "sale_date", nullable = false)
+    private LocalDate saleDate;
+
+    @Column(name = "branch_id", nullable = false)
+    private Long branchId;
+
     public SaleItem() {}
     public SaleItem(Sale sale, Product product, Integer quantity,
                     BigDecimal unitPrice, BigDecimal cogsAmount) {
@@ -35,6 +53,9 @@ public class SaleItem {
         this.quantity = quantity;
         this.unitPrice = unitPrice;
         this.cogsAmount = cogsAmount;
+        this.saleCreatedAt = sale.getCreatedAt();
+        this.saleDate = sale.getCreatedAt().toLocalDate();
+        this.branchId = sale.getBranch().getId();
     }
 
     public Long getId() { return id; }
@@ -43,4 +64,7 @@ public class SaleItem {
     public Integer getQuantity() { return quantity; }
     public BigDecimal getUnitPrice() { return unitPrice; }
     public BigDecimal getCogsAmount() { return cogsAmount; }
+    public LocalDateTime getSaleCreatedAt() { return saleCreatedAt; }
+    public LocalDate getSaleDate() { return saleDate; }
+    public Long getBranchId() { return branchId; }
 }
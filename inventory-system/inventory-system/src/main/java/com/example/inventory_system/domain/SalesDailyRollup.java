@@ -0,0 +1,65 @@
+package com.example.inventory_system.domain;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * (gün, şube, ürün) bazında satış özeti: adet, ciro ve COGS. Satışla aynı transaction'da
+ * artımlı güncellenir (SalesRollupJdbcRepository); raporlar satır kalemleri yerine buradan okur.
+ */
+@Entity
+@Table(name = "sales_daily_rollup",
+        indexes = @Index(name = "idx_sales_daily_rollup_product_day", columnList = "product_id, day"))
+@IdClass(SalesDailyRollup.Key.class)
+public class SalesDailyRollup {
+
+    @Id
+    @Column(name = "day")
+    private LocalDate day;
+
+    @Id
+    @Column(name = "branch_id")
+    private Long branchId;
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(nullable = false)
+    private Long qty;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal revenue;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal cogs;
+
+    public SalesDailyRollup() {}
+
+    public LocalDate getDay() { return day; }
+    public Long getBranchId() { return branchId; }
+    public Long getProductId() { return productId; }
+    public Long getQty() { return qty; }
+    public BigDecimal getRevenue() { return revenue; }
+    public BigDecimal getCogs() { return cogs; }
+
+    public static class Key implements Serializable {
+        private LocalDate day;
+        private Long branchId;
+        private Long productId;
+
+        public Key() {}
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key k && Objects.equals(day, k.day)
+                    && Objects.equals(branchId, k.branchId) && Objects.equals(productId, k.productId);
+        }
+
+        @Override
+        public int hashCode() { return Objects.hash(day, branchId, productId); }
+    }
+}
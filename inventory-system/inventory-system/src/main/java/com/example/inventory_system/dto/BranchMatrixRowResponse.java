@@ -0,0 +1,24 @@
+package com.example.inventory_system.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * /reports/branch-matrix satırı. previous* ve *Delta alanları yalnızca compare=true iken dolu;
+ * önceki dönem, seçilen dönemle aynı uzunlukta hemen öncesindeki aralıktır.
+ */
+public record BranchMatrixRowResponse(
+        Long branchId,
+        String branchName,
+        BigDecimal revenue,
+        BigDecimal cogs,
+        BigDecimal grossProfit,
+        long units,
+        BigDecimal inventoryValue,      // kalan batch adedi * birim maliyet
+        long expiringQuantity,          // expiringWithinDays içinde SKT'si dolan adet
+        BigDecimal expiringValue,
+        BigDecimal previousRevenue,
+        BigDecimal revenueDelta,
+        Double revenueDeltaPercent,     // önceki dönem cirosu 0 ise null
+        BigDecimal grossProfitDelta,
+        Long unitsDelta
+) {}
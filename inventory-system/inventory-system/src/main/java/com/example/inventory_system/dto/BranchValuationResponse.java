@@ -0,0 +1,8 @@
+package com.example.inventory_system.dto;
+
+import java.math.BigDecimal;
+
+public record BranchValuationResponse(
+        Long branchId,
+        BigDecimal value        // kalan batch adedi * birim maliyet
+) {}
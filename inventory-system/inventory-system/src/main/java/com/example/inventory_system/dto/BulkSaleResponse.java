@@ -0,0 +1,10 @@
+package com.example.inventory_system.dto;
+
+import java.util.List;
+
+public record BulkSaleResponse(
+        int received,
+        int accepted,
+        int rejected,
+        List<BulkSaleResult> results
+) {}
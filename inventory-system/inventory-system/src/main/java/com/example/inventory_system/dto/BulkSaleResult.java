@@ -0,0 +1,11 @@
+package com.example.inventory_system.dto;
+
+import java.math.BigDecimal;
+
+public record BulkSaleResult(
+        int index,              // gövdedeki sıra (0'dan başlar)
+        String status,          // ACCEPTED / REJECTED
+        Long saleId,            // sadece ACCEPTED için dolu
+        BigDecimal totalAmount,
+        String error            // sadece REJECTED için dolu
+) {}
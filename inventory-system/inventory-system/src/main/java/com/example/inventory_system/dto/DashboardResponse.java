@@ -0,0 +1,31 @@
+package com.example.inventory_system.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * GET /api/v1/dashboard yanıtı. Hata veren ya da süresi dolan bölüm null döner;
+ * nedeni sections listesinde yazar.
+ */
+public record DashboardResponse(
+        LocalDate from,
+        LocalDate to,
+        Long branchId,
+        Map<String, Object> incomeStatement,         // /reports/income-statement
+        BigDecimal inventoryValue,                   // /reports/inventory-valuation
+        List<SalesTrendPointResponse> salesTrend,
+        List<BestSellerResponse> bestsellers,
+        List<SlowMoverResponse> slowMovers,
+        Long expiringBatches,                        // /alerts/expiring kayıt sayısı
+        List<RecommendationItemResponse> recommendations,
+        List<BranchCard> branches,                   // filtreden bağımsız, tüm şubeler
+        List<SectionTiming> sections,
+        long totalMillis
+) {
+    public record BranchCard(Long branchId, String name, BigDecimal inventoryValue, long products) {}
+
+    // millis: bölümün kendi çalışma süresi; error null ise başarılı
+    public record SectionTiming(String section, long millis, String error) {}
+}
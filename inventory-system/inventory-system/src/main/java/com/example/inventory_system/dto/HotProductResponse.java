@@ -0,0 +1,7 @@
+package com.example.inventory_system.dto;
+
+public record HotProductResponse(
+        Long productId,
+        int shards,     // 0 = cold (tek satır sayaç)
+        long stock      // products.stock + parçaların toplamı
+) {}
@@ -0,0 +1,24 @@
+package com.example.inventory_system.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * inventory_ledger satırı. quantity işaretsizdir, yönü type verir (eski stok hareketi alanları);
+ * costAmount stok değerindeki işaretli değişimdir.
+ */
+public record LedgerEntryResponse(
+        Long id,
+        LocalDateTime createdAt,
+        String entryType,                      // PURCHASE | SALE | TRANSFER_OUT | TRANSFER_IN | ADJUSTMENT
+        String type,                           // IN | OUT
+        int quantity,
+        Long branchId,
+        String branchName,
+        Long productId,
+        String productName,
+        BigDecimal unitPrice,
+        BigDecimal costAmount,
+        String docType,                        // sale_item | product_batch | branch_transfer | opening_balance (düzeltmede boş)
+        Long docId
+) {}
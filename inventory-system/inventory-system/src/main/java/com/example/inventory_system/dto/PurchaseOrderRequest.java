@@ -0,0 +1,19 @@
+package com.example.inventory_system.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public record PurchaseOrderRequest(
+        @NotNull Long branchId,
+        @NotNull @Size(min = 1, max = 5000) List<@Valid @NotNull Line> lines
+) {
+    public record Line(
+            @NotNull Long productId,
+            @NotNull @Positive Integer quantity,
+            @NotNull @DecimalMin("0.00") BigDecimal unitCost,
+            LocalDate expiryDate
+    ) {}
+}
@@ -0,0 +1,14 @@
+package com.example.inventory_system.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+/**
+ * GET /api/v1/report-jobs/{id}/results?page=N: sonucun N. parçası (0'dan başlar).
+ */
+public record ReportJobPageResponse(
+        Long jobId,
+        int page,
+        int pageCount,
+        int rowCount,
+        @JsonRawValue String rows
+) {}
@@ -0,0 +1,14 @@
+package com.example.inventory_system.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+import java.util.Map;
+
+/**
+ * POST /api/v1/report-jobs gövdesi. params rapor ucunun query parametreleriyle aynı adları taşır
+ * (ör. from, to, branchId, limit); verilmeyenler uçtaki varsayılanı alır.
+ */
+public record ReportJobRequest(
+        @NotBlank String report,
+        Map<String, Object> params
+) {}
@@ -0,0 +1,26 @@
+package com.example.inventory_system.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.time.LocalDateTime;
+
+/**
+ * progress: 0-100; hesaplama bitene kadar 0, bitince 50, sonuç parçaları yazıldıkça 100'e artar.
+ * reused: gönderim aynı parametrelerle bekleyen / çalışan ya da taze bir işe bağlandı.
+ */
+public record ReportJobResponse(
+        Long id,
+        String report,
+        @JsonRawValue String params,           // normalize parametreler (varsayılanlar dolu)
+        String status,                         // QUEUED | RUNNING | SUCCEEDED | FAILED
+        int progress,
+        Integer rowCount,
+        Integer pageCount,
+        @JsonRawValue String summary,          // liste dışı alanlar (ör. ML modeli rmse / mape)
+        String error,
+        LocalDateTime createdAt,
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt,
+        LocalDateTime expiresAt,               // bu zamandan sonra tekrar gönderim yeni iş başlatır
+        boolean reused
+) {}
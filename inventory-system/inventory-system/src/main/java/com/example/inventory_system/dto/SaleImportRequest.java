@@ -0,0 +1,12 @@
+package com.example.inventory_system.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record SaleImportRequest(
+        @NotNull Long branchId,
+        @PastOrPresent LocalDateTime createdAt,     // boşsa şimdi
+        @NotNull @Size(min = 1) List<SaleCreateRequest.@Valid @NotNull Item> items
+) {}
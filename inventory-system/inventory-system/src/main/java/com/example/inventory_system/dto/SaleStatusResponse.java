@@ -0,0 +1,9 @@
+package com.example.inventory_system.dto;
+
+public record SaleStatusResponse(
+        String handle,
+        String status,          // PENDING / ACCEPTED / REJECTED
+        SaleResponse sale,      // sadece ACCEPTED için dolu (COGS satır bazında)
+        Integer errorStatus,    // sadece REJECTED için: senkron uçta dönecek HTTP kodu
+        String error
+) {}
@@ -0,0 +1,8 @@
+package com.example.inventory_system.dto;
+
+public record SalesPartitionResponse(
+        String parent,          // sales | sale_items
+        String table,
+        String bounds,          // FOR VALUES FROM (...) TO (...) | DEFAULT
+        long estimatedRows      // planner istatistiği (pg_class.reltuples)
+) {}
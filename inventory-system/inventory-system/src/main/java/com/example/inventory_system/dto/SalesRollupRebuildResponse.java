@@ -0,0 +1,9 @@
+package com.example.inventory_system.dto;
+
+import java.time.LocalDate;
+
+public record SalesRollupRebuildResponse(
+        LocalDate from,     // veri yoksa null
+        LocalDate to,
+        int rows            // yeniden yazılan (gün, şube, ürün) satırı
+) {}
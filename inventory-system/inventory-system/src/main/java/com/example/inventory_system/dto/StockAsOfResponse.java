@@ -0,0 +1,28 @@
+package com.example.inventory_system.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * date gün sonundaki stok ve değeri. value ledger maliyetinden (mal kabulle artar, satışın
+ * maliyetiyle azalır); transfer ve düzeltme yalnızca adedi değiştirir.
+ * Backfill edilen dönemde (canlı ledger'dan önce) üst sınırdır: bkz. StockController#asOf.
+ */
+public record StockAsOfResponse(
+        LocalDate date,
+        Long branchId,                         // boşsa tüm şubeler
+        LocalDate snapshotDate,                // başlangıç alınan görüntü; boşsa ledger'ın başından
+        long totalQuantity,
+        BigDecimal totalValue,
+        List<Line> lines
+) {
+    public record Line(
+            Long branchId,
+            String branchName,
+            Long productId,
+            String productName,
+            long quantity,
+            BigDecimal value
+    ) {}
+}
@@ -0,0 +1,11 @@
+package com.example.inventory_system.dto;
+
+import java.math.BigDecimal;
+
+public record ValuationCheckResponse(
+        Long branchId,
+        BigDecimal counter,     // bellekteki sayaç (kontrol anında)
+        BigDecimal actual,      // product_batches üzerinden SUM
+        BigDecimal drift,       // counter - actual; sıfır değilse sayaç düzeltildi
+        boolean repaired
+) {}
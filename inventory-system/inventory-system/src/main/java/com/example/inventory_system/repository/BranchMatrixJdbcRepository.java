@@ -0,0 +1,115 @@
+package com.example.inventory_system.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Şube karşılaştırma matrisi tek SQL'de: satış toplamları günlük özetten şube + dönem bazında,
+ * stok değeri ve SKT'si yaklaşan stok product_batches'tan şube bazında gruplanır. Şube sayısı
+ * arttıkça sorgu sayısı değişmez.
+ *
+ * Dönem 0 = önceki dönem, 1 = istenen dönem. Her şube için iki dönem satırı (satış olmasa da)
+ * üretilir; farklar LAG ile aynı şubenin önceki dönem satırından alınır.
+ */
+@Repository
+public class BranchMatrixJdbcRepository {
+
+    /** previous* ve *Delta alanları önceki dönem istenmediyse anlamsızdır (0 döner). */
+    public record Row(Long branchId, String branchName,
+                      long units, BigDecimal revenue, BigDecimal cogs,
+                      long previousUnits, BigDecimal previousRevenue, BigDecimal previousGrossProfit,
+                      long unitsDelta, BigDecimal revenueDelta, BigDecimal grossProfitDelta,
+                      BigDecimal inventoryValue, long expiringQuantity, BigDecimal expiringValue) {}
+
+    private final JdbcTemplate jdbc;
+
+    public BranchMatrixJdbcRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * @param previousFrom önceki dönemin ilk günü; önceki dönem istenmiyorsa from verilir
+     *                     (önceki dönem satırları boş kalır)
+     * @param from         dönem başlangıcı (dahil)
+     * @param to           dönem sonu (dahil)
+     * @param expiringUntil bu güne kadar SKT'si dolan stok "yaklaşan" sayılır
+     */
+    public List<Row> matrix(LocalDate previousFrom, LocalDate from, LocalDate to, LocalDate expiringUntil) {
+        return jdbc.query("""
+                WITH sales AS (
+                    SELECT branch_id,
+                           CASE WHEN day >= ? THEN 1 ELSE 0 END AS period,
+                           SUM(qty) AS units, SUM(revenue) AS revenue, SUM(cogs) AS cogs
+                    FROM sales_daily_rollup
+                    WHERE day >= ? AND day <= ?
+                    GROUP BY 1, 2
+                ),
+                grid AS (
+                    SELECT b.id AS branch_id, b.name, p.period,
+                           COALESCE(s.units, 0) AS units,
+                           COALESCE(s.revenue, 0) AS revenue,
+                           COALESCE(s.cogs, 0) AS cogs
+                    FROM branches b
+                    CROSS JOIN (VALUES (0), (1)) AS p(period)
+                    LEFT JOIN sales s ON s.branch_id = b.id AND s.period = p.period
+                ),
+                compared AS (
+                    SELECT branch_id, name, period, units, revenue, cogs,
+                           LAG(units) OVER w AS previous_units,
+                           LAG(revenue) OVER w AS previous_revenue,
+                           LAG(revenue - cogs) OVER w AS previous_gross,
+                           units - LAG(units) OVER w AS units_delta,
+                           revenue - LAG(revenue) OVER w AS revenue_delta,
+                           (revenue - cogs) - LAG(revenue - cogs) OVER w AS gross_delta
+                    FROM grid
+                    WINDOW w AS (PARTITION BY branch_id ORDER BY period)
+                ),
+                stock AS (
+                    SELECT branch_id,
+                           SUM(quantity * unit_cost) AS inventory_value,
+                           SUM(quantity) FILTER (WHERE expiry_date <= ?) AS expiring_quantity,
+                           SUM(quantity * unit_cost) FILTER (WHERE expiry_date <= ?) AS expiring_value
+                    FROM product_batches
+                    WHERE quantity > 0
+                    GROUP BY branch_id
+                )
+                SELECT c.branch_id, c.name, c.units, c.revenue, c.cogs,
+                       c.previous_units, c.previous_revenue, c.previous_gross,
+                       c.units_delta, c.revenue_delta, c.gross_delta,
+                       COALESCE(st.inventory_value, 0) AS inventory_value,
+                       COALESCE(st.expiring_quantity, 0) AS expiring_quantity,
+                       COALESCE(st.expiring_value, 0) AS expiring_value
+                FROM compared c
+                LEFT JOIN stock st ON st.branch_id = c.branch_id
+                WHERE c.period = 1
+                ORDER BY c.name
+                """, this::mapRow,
+                Date.valueOf(from), Date.valueOf(previousFrom), Date.valueOf(to),
+                Date.valueOf(expiringUntil), Date.valueOf(expiringUntil));
+    }
+
+    private Row mapRow(ResultSet rs, int n) throws SQLException {
+        return new Row(
+                rs.getLong("branch_id"),
+                rs.getString("name"),
+                rs.getLong("units"),
+                rs.getBigDecimal("revenue"),
+                rs.getBigDecimal("cogs"),
+                rs.getLong("previous_units"),
+                rs.getBigDecimal("previous_revenue"),
+                rs.getBigDecimal("previous_gross"),
+                rs.getLong("units_delta"),
+                rs.getBigDecimal("revenue_delta"),
+                rs.getBigDecimal("gross_delta"),
+                rs.getBigDecimal("inventory_value"),
+                rs.getLong("expiring_quantity"),
+                rs.getBigDecimal("expiring_value"));
+    }
+}
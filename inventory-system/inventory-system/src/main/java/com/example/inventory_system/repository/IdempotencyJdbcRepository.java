@@ -0,0 +1,108 @@
+package com.example.inventory_system.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * idempotency_keys üzerindeki atomik işlemler. Zaman karşılaştırmaları DB saatiyle (now()) yapılır.
+ * owner: anahtarı sahiplenen isteğin belirteci (V18); işaretleme / tamamlama / bırakma yalnızca sahibine.
+ */
+@Repository
+public class IdempotencyJdbcRepository {
+
+    /** expired: TTL geçmiş; stale: IN_PROGRESS ve işleyen istek zaman aşımına uğramış sayılır. */
+    public record KeyRow(String requestHash, String status, String responseBody, boolean expired, boolean stale) {}
+
+    private final JdbcTemplate jdbc;
+
+    public IdempotencyJdbcRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /** Anahtarı sahiplenir; başka bir istek zaten sahiplenmişse false. */
+    public boolean claim(String key, String requestHash, String owner) {
+        return jdbc.update("""
+                INSERT INTO idempotency_keys (idempotency_key, request_hash, status, owner, created_at)
+                VALUES (?, ?, 'IN_PROGRESS', ?, now())
+                ON CONFLICT (idempotency_key) DO NOTHING
+                """, key, requestHash, owner) == 1;
+    }
+
+    public Optional<KeyRow> find(String key, long ttlSeconds, long inFlightTimeoutSeconds) {
+        List<KeyRow> rows = jdbc.query("""
+                SELECT request_hash, status, response_body,
+                       created_at < now() - (? * interval '1 second'),
+                       created_at < now() - (? * interval '1 second')
+                FROM idempotency_keys
+                WHERE idempotency_key = ?
+                """, (rs, i) -> new KeyRow(rs.getString(1), rs.getString(2), rs.getString(3),
+                        rs.getBoolean(4), rs.getBoolean(5)),
+                ttlSeconds, inFlightTimeoutSeconds, key);
+        return rows.stream().findFirst();
+    }
+
+    /**
+     * Zaman aşımına uğramış IN_PROGRESS kaydını devralır; yarışı yalnızca bir istek kazanır.
+     * COMMITTED kayıt devralınmaz: işlem zaten uygulanmış.
+     */
+    public boolean takeOver(String key, String requestHash, String owner, long inFlightTimeoutSeconds) {
+        return jdbc.update("""
+                UPDATE idempotency_keys SET request_hash = ?, owner = ?, response_body = NULL, created_at = now()
+                WHERE idempotency_key = ? AND status = 'IN_PROGRESS'
+                  AND created_at < now() - (? * interval '1 second')
+                """, requestHash, owner, key, inFlightTimeoutSeconds) == 1;
+    }
+
+    /**
+     * İşlemin transaction'ı içinde, commit'ten hemen önce çağrılır: işlem ile işaret birlikte
+     * commit olur ya da birlikte geri alınır. Yanıt önceden yazılmışsa (write-behind) kayıt doğrudan
+     * COMPLETED olur. Anahtar devralınmışsa false.
+     */
+    public boolean markCommitted(String key, String owner) {
+        return jdbc.update("""
+                UPDATE idempotency_keys
+                SET status = CASE WHEN response_body IS NULL THEN 'COMMITTED' ELSE 'COMPLETED' END
+                WHERE idempotency_key = ? AND owner = ? AND status IN ('IN_PROGRESS', 'COMMITTED')
+                """, key, owner) == 1;
+    }
+
+    public void complete(String key, String owner, String responseBody) {
+        jdbc.update("""
+                UPDATE idempotency_keys SET status = 'COMPLETED', response_body = ?
+                WHERE idempotency_key = ? AND owner = ?
+                """, responseBody, key, owner);
+    }
+
+    /**
+     * Yazması devredilmiş işlemin yanıtı: yazma commit olmuşsa (COMMITTED) kayıt COMPLETED olur,
+     * olmamışsa IN_PROGRESS kalır ve yanıt yazıcının markCommitted'ı ile birlikte geçerlilik kazanır.
+     */
+    public void stageResponse(String key, String owner, String responseBody) {
+        jdbc.update("""
+                UPDATE idempotency_keys
+                SET response_body = ?, status = CASE WHEN status = 'COMMITTED' THEN 'COMPLETED' ELSE status END
+                WHERE idempotency_key = ? AND owner = ?
+                """, responseBody, key, owner);
+    }
+
+    /** İstek commit olmadan başarısız oldu: anahtar serbest, aynı anahtarla tekrar denenebilir. */
+    public void release(String key, String owner) {
+        jdbc.update("DELETE FROM idempotency_keys WHERE idempotency_key = ? AND owner = ? AND status = 'IN_PROGRESS'",
+                key, owner);
+    }
+
+    public int deleteExpired(String key, long ttlSeconds) {
+        return jdbc.update("""
+                DELETE FROM idempotency_keys
+                WHERE idempotency_key = ? AND created_at < now() - (? * interval '1 second')
+                """, key, ttlSeconds);
+    }
+
+    public int purgeExpired(long ttlSeconds) {
+        return jdbc.update("DELETE FROM idempotency_keys WHERE created_at < now() - (? * interval '1 second')",
+                ttlSeconds);
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.inventory_system.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * inventory_ledger: stok hareketlerinin yalnızca eklenen tek kaydı (V15). Yazan her akış
+ * (satış, mal kabul, transfer, düzeltme) satırları kendi transaction'ında JDBC batch ile ekler.
+ *
+ * Bugünden önceki bir tarihle gelen satır (tarihli satış aktarımı) o günden itibaren gün sonu
+ * stok görüntülerini geçersiz kılar (StockSnapshotJdbcRepository).
+ *
+ * Okumalar: işlem akışı (mal kabul + satış, kısmi index'lerle keyset), ürün hareketleri
+ * ((product_id, created_at) index'i) ve zaman aralığı taraması (BRIN).
+ */
+@Repository
+public class InventoryLedgerJdbcRepository {
+
+    public enum EntryType { PURCHASE, SALE, TRANSFER_OUT, TRANSFER_IN, ADJUSTMENT }
+
+    /** quantity işaretli; unitPrice / costAmount / doc boş olabilir. */
+    public record Entry(LocalDateTime createdAt, EntryType type, Long branchId, Long productId, int quantity,
+                        BigDecimal unitPrice, BigDecimal costAmount, String docType, Long docId) {}
+
+    /** Okunan satır; ürün / şube adı silinmişse boş. expiryDate yalnızca mal kabulde dolu. */
+    public record Row(Long id, LocalDateTime createdAt, String entryType, Long branchId, String branchName,
+                      Long productId, String productName, int quantity, BigDecimal unitPrice,
+                      BigDecimal costAmount, String docType, Long docId, LocalDate expiryDate) {}
+
+    public static final String DOC_SALE_ITEM = "sale_item";
+    public static final String DOC_PRODUCT_BATCH = "product_batch";
+    public static final String DOC_BRANCH_TRANSFER = "branch_transfer";
+
+    // kısmi index'lerin koşuluyla birebir aynı olmalı (V15)
+    private static final String TRANSACTION_TYPES = "l.entry_type IN ('PURCHASE', 'SALE')";
+
+    private static final RowMapper<Row> ROW = (rs, i) -> new Row(
+            rs.getLong("id"),
+            rs.getTimestamp("created_at").toLocalDateTime(),
+            rs.getString("entry_type"),
+            rs.getLong("branch_id"),
+            rs.getString("branch_name"),
+            rs.getLong("product_id"),
+            rs.getString("product_name"),
+            rs.getInt("quantity"),
+            rs.getBigDecimal("unit_price"),
+            rs.getBigDecimal("cost_amount"),
+            rs.getString("doc_type"),
+            (Long) rs.getObject("doc_id"),
+            rs.getDate("expiry_date") != null ? rs.getDate("expiry_date").toLocalDate() : null);
+
+    // adlar ve SKT yalnızca sayfaya giren satırlar için join edilir
+    private static final String PAGE_SELECT = """
+            SELECT l.id, l.created_at, l.entry_type, l.branch_id, b.name AS branch_name,
+                   l.product_id, p.name AS product_name, l.quantity, l.unit_price, l.cost_amount,
+                   l.doc_type, l.doc_id, pb.expiry_date
+            FROM (%s) l
+            LEFT JOIN products p ON p.id = l.product_id
+            LEFT JOIN branches b ON b.id = l.branch_id
+            LEFT JOIN product_batches pb ON l.doc_type = 'product_batch' AND pb.id = l.doc_id
+            """;
+
+    private final JdbcTemplate jdbc;
+    private final StockSnapshotJdbcRepository snapshots;
+
+    public InventoryLedgerJdbcRepository(JdbcTemplate jdbc, StockSnapshotJdbcRepository snapshots) {
+        this.jdbc = jdbc;
+        this.snapshots = snapshots;
+    }
+
+    public void append(List<Entry> entries) {
+        if (entries.isEmpty()) return;
+        LocalDate earliest = LocalDate.now();
+        List<Object[]> args = new ArrayList<>(entries.size());
+        for (Entry e : entries) {
+            if (e.createdAt().toLocalDate().isBefore(earliest)) earliest = e.createdAt().toLocalDate();
+            args.add(new Object[]{Timestamp.valueOf(e.createdAt()), e.type().name(), e.branchId(), e.productId(),
+                    e.quantity(), e.unitPrice(), e.costAmount(), e.docType(), e.docId()});
+        }
+        jdbc.batchUpdate("""
+                INSERT INTO inventory_ledger (created_at, entry_type, branch_id, product_id, quantity,
+                                              unit_price, cost_amount, doc_type, doc_id)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+                """, args);
+        if (earliest.isBefore(LocalDate.now())) snapshots.invalidateFrom(earliest);
+    }
+
+    /** Satış kalemleri; itemIds insertSaleItems'ın döndürdüğü id'ler (aynı sırada). */
+    public void appendSales(List<SaleJdbcRepository.SaleItemRow> items, List<Long> itemIds) {
+        List<Entry> entries = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            SaleJdbcRepository.SaleItemRow item = items.get(i);
+            entries.add(new Entry(item.createdAt(), EntryType.SALE, item.branchId(), item.productId(),
+                    -item.quantity(), item.unitPrice(),
+                    item.cogsAmount() != null ? item.cogsAmount().negate() : BigDecimal.ZERO,
+                    DOC_SALE_ITEM, itemIds.get(i)));
+        }
+        append(entries);
+    }
+
+    /**
+     * İşlem akışı (mal kabul + satış), (created_at, id) azalan. afterDate / afterId verilirse
+     * o satırdan sonrakiler.
+     */
+    public List<Row> transactions(Long branchId, LocalDateTime afterDate, Long afterId, int limit) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder where = new StringBuilder(TRANSACTION_TYPES);
+        if (branchId != null) {
+            where.append(" AND l.branch_id = ?");
+            args.add(branchId);
+        }
+        if (afterDate != null) {
+            where.append(" AND (l.created_at, l.id) < (?, ?)");
+            args.add(Timestamp.valueOf(afterDate));
+            args.add(afterId);
+        }
+        args.add(limit);
+        String page = "SELECT l.* FROM inventory_ledger l WHERE " + where
+                + " ORDER BY l.created_at DESC, l.id DESC LIMIT ?";
+        return jdbc.query(PAGE_SELECT.formatted(page) + " ORDER BY l.created_at DESC, l.id DESC",
+                ROW, args.toArray());
+    }
+
+    public long countByProduct(Long productId) {
+        Long count = jdbc.queryForObject("SELECT COUNT(*) FROM inventory_ledger WHERE product_id = ?",
+                Long.class, productId);
+        return count != null ? count : 0;
+    }
+
+    public List<Row> byProduct(Long productId, boolean ascending, long offset, int limit) {
+        String dir = ascending ? "ASC" : "DESC";
+        String page = "SELECT l.* FROM inventory_ledger l WHERE l.product_id = ?"
+                + " ORDER BY l.created_at " + dir + ", l.id " + dir + " LIMIT ? OFFSET ?";
+        return jdbc.query(PAGE_SELECT.formatted(page) + " ORDER BY l.created_at " + dir + ", l.id " + dir,
+                ROW, productId, limit, offset);
+    }
+
+    /**
+     * Zaman aralığı [from, to] (gün, iki uç dahil), (created_at, id) artan. Tarih aralığı BRIN ile
+     * taranır; şube / ürün / tür süzgeçleri aynı taramada uygulanır.
+     */
+    public List<Row> range(LocalDate from, LocalDate to, Long branchId, Long productId, EntryType type,
+                           LocalDateTime afterDate, Long afterId, int limit) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder where = new StringBuilder("l.created_at >= ? AND l.created_at < ?");
+        args.add(Date.valueOf(from));
+        args.add(Date.valueOf(to.plusDays(1)));
+        if (branchId != null) {
+            where.append(" AND l.branch_id = ?");
+            args.add(branchId);
+        }
+        if (productId != null) {
+            where.append(" AND l.product_id = ?");
+            args.add(productId);
+        }
+        if (type != null) {
+            where.append(" AND l.entry_type = ?");
+            args.add(type.name());
+        }
+        if (afterDate != null) {
+            where.append(" AND (l.created_at, l.id) > (?, ?)");
+            args.add(Timestamp.valueOf(afterDate));
+            args.add(afterId);
+        }
+        args.add(limit);
+        String page = "SELECT l.* FROM inventory_ledger l WHERE " + where
+                + " ORDER BY l.created_at, l.id LIMIT ?";
+        return jdbc.query(PAGE_SELECT.formatted(page) + " ORDER BY l.created_at, l.id", ROW, args.toArray());
+    }
+}
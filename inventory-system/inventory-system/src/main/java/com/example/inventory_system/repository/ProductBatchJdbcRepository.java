@@ -0,0 +1,106 @@
+package com.example.inventory_system.repository;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * ProductBatch için JPA dışı toplu (JDBC batch) yazma işlemleri.
+ */
+@Repository
+public class ProductBatchJdbcRepository {
+
+    /** Tüketilebilir (quantity > 0) batch katmanı; bellek içi FIFO ledger'ın yükleme formatı. */
+    public record OpenBatchRow(Long id, Long productId, Long branchId, LocalDate expiryDate,
+                               LocalDateTime createdAt, BigDecimal unitCost, int quantity) {}
+
+    private static final String OPEN_BATCHES = """
+            SELECT id, product_id, branch_id, expiry_date, created_at, unit_cost, quantity
+            FROM product_batches
+            WHERE quantity > 0
+            """;
+
+    private final JdbcTemplate jdbc;
+
+    public ProductBatchJdbcRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * batchId -> tüketilen adet map'ini tek bir JDBC batch olarak yazar.
+     * Satırlar id sırasıyla güncellenir, böylece kilit sırası her zaman aynıdır.
+     * Her satır okunduğu version'a göre koşullu güncellenir ve version bir artırılır;
+     * satırlardan biri bu arada değişmişse OptimisticLockingFailureException fırlatılır.
+     */
+    public void decrementQuantities(Map<Long, Integer> consumedByBatchId, Map<Long, Long> expectedVersions) {
+        if (consumedByBatchId == null || consumedByBatchId.isEmpty()) return;
+
+        List<Object[]> args = new ArrayList<>(consumedByBatchId.size());
+        for (Map.Entry<Long, Integer> e : new TreeMap<>(consumedByBatchId).entrySet()) {
+            args.add(new Object[]{e.getValue(), e.getKey(), expectedVersions.get(e.getKey())});
+        }
+        int[] counts = jdbc.batchUpdate("""
+                UPDATE product_batches
+                SET quantity = quantity - ?, version = version + 1
+                WHERE id = ? AND version = ?
+                """, args);
+
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                throw new OptimisticLockingFailureException(
+                        "Product batch %s was modified concurrently".formatted(args.get(i)[1]));
+            }
+        }
+    }
+
+    /**
+     * Ledger'ın write-behind yazıcısı için: koşulsuz "quantity = quantity - ?" batch'i.
+     * Ledger tek otorite olduğundan version kontrolü yapılmaz, yalnızca artırılır.
+     */
+    public void decrementQuantities(Map<Long, Integer> consumedByBatchId) {
+        if (consumedByBatchId == null || consumedByBatchId.isEmpty()) return;
+
+        List<Object[]> args = new ArrayList<>(consumedByBatchId.size());
+        for (Map.Entry<Long, Integer> e : new TreeMap<>(consumedByBatchId).entrySet()) {
+            args.add(new Object[]{e.getValue(), e.getKey()});
+        }
+        jdbc.batchUpdate("""
+                UPDATE product_batches
+                SET quantity = quantity - ?, version = version + 1
+                WHERE id = ?
+                """, args);
+    }
+
+    public List<OpenBatchRow> findOpenBatches() {
+        return jdbc.query(OPEN_BATCHES, this::mapOpenBatch);
+    }
+
+    public List<OpenBatchRow> findOpenBatches(Long productId, Long branchId) {
+        return jdbc.query(OPEN_BATCHES + " AND product_id = ? AND branch_id = ?",
+                this::mapOpenBatch, productId, branchId);
+    }
+
+    private OpenBatchRow mapOpenBatch(ResultSet rs, int rowNum) throws SQLException {
+        java.sql.Date expiry = rs.getDate("expiry_date");
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        return new OpenBatchRow(
+                rs.getLong("id"),
+                rs.getLong("product_id"),
+                rs.getLong("branch_id"),
+                expiry != null ? expiry.toLocalDate() : null,
+                createdAt != null ? createdAt.toLocalDateTime() : null,
+                rs.getBigDecimal("unit_cost"),
+                rs.getInt("quantity"));
+    }
+}
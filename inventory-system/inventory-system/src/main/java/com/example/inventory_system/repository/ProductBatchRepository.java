@@ -10,19 +10,10 @@ import org.springframework.data.jpa.repository.*;
 
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 public interface ProductBatchRepository extends JpaRepository<ProductBatch, Long> {
 
-    @Query("""
-        SELECT b FROM ProductBatch b
-        WHERE b.product.id = :productId AND b.branch.id = :branchId AND b.quantity > 0
-        ORDER BY 
-          CASE WHEN b.expiryDate IS NULL THEN 1 ELSE 0 END,
-          b.expiryDate ASC NULLS LAST,
-          b.createdAt ASC
-    """)
-    List<ProductBatch> findConsumableBatches(@Param("productId") Long productId,
-                                             @Param("branchId") Long branchId);
     @Query("""
     SELECT b.product.id, COALESCE(SUM(b.quantity),0)
     FROM ProductBatch b
@@ -56,16 +47,30 @@ public interface ProductBatchRepository extends JpaRepository<ProductBatch, Long
     List<ProductBatch> expiringUntil(@Param("until") LocalDate until,
                                      @Param("branchId") Long branchId);
 
+    // Sepet (veya bulk chunk) için tek sorgu: kilitler her zaman id sırasıyla alınır (deadlock olmasın),
+    // FIFO sıralaması bellekte yapılır.
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("""
       SELECT b FROM ProductBatch b
-      WHERE b.product.id = :productId
-        AND (:branchId IS NULL OR b.branch.id = :branchId)
+      WHERE b.product.id IN :productIds
+        AND b.branch.id IN :branchIds
         AND b.quantity > 0
-      ORDER BY b.expiryDate ASC NULLS LAST, b.createdAt ASC, b.id ASC
+      ORDER BY b.id ASC
     """)
-    List<ProductBatch> findFifoBatchesForSale(@Param("productId") Long productId,
-                                              @Param("branchId") Long branchId);
+    List<ProductBatch> lockConsumableBatches(@Param("productIds") Collection<Long> productIds,
+                                             @Param("branchIds") Collection<Long> branchIds);
+
+    // Optimistic mod: aynı küme kilitsiz okunur, çakışma yazarken version ile yakalanır
+    @Query("""
+      SELECT b FROM ProductBatch b
+      WHERE b.product.id IN :productIds
+        AND b.branch.id IN :branchIds
+        AND b.quantity > 0
+      ORDER BY b.id ASC
+    """)
+    List<ProductBatch> findConsumableBatches(@Param("productIds") Collection<Long> productIds,
+                                             @Param("branchIds") Collection<Long> branchIds);
+
     @Query("""
     SELECT b.product.id, b.branch.id, COALESCE(SUM(b.quantity),0)
     FROM ProductBatch b
@@ -84,6 +89,28 @@ public interface ProductBatchRepository extends JpaRepository<ProductBatch, Long
 """)
     List<Object[]> expiringStockByProductAndBranch(@Param("until") java.time.LocalDate until);
 
+    // Envanter değeri: kalan adet * birim maliyet, şube bazında tek sorguda
+    @Query("""
+    SELECT b.branch.id, COALESCE(SUM(b.unitCost * b.quantity), 0)
+    FROM ProductBatch b
+    WHERE b.quantity > 0
+      AND (:branchId IS NULL OR b.branch.id = :branchId)
+    GROUP BY b.branch.id
+""")
+    List<Object[]> valuationByBranch(@Param("branchId") Long branchId);
+
+    // expiringUntil ile aynı filtre, yalnızca parti sayısı (dashboard rozeti)
+    @Query("""
+    SELECT COUNT(b)
+    FROM ProductBatch b
+    WHERE b.quantity > 0
+      AND b.expiryDate IS NOT NULL
+      AND b.expiryDate <= :until
+      AND (:branchId IS NULL OR b.branch.id = :branchId)
+""")
+    long countExpiringUntil(@Param("until") LocalDate until,
+                            @Param("branchId") Long branchId);
+
 
 }
 
@@ -0,0 +1,61 @@
+package com.example.inventory_system.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Product için JPA dışı toplu (JDBC batch) stok güncellemeleri.
+ * Her güncelleme @Version kolonunu da artırır; bayat okunmuş bir ürün düzenlemesi
+ * bu arada yazılmış stok değişimini ezemez.
+ */
+@Repository
+public class ProductJdbcRepository {
+
+    private final JdbcTemplate jdbc;
+
+    public ProductJdbcRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * productId -> satılan adet map'ini atomik "stock = stock - ?" statement'ları olarak tek batch'te yazar.
+     * Satış yolunda yeterlilik batch'ler üzerinden zaten kontrol edildiği için burada
+     * stok koşulu aranmaz; stok alanı boş (null) olan ürünlere dokunulmaz.
+     */
+    public void decrementStocks(Map<Long, Integer> qtyByProductId) {
+        if (qtyByProductId == null || qtyByProductId.isEmpty()) return;
+
+        List<Object[]> args = new ArrayList<>(qtyByProductId.size());
+        for (Map.Entry<Long, Integer> e : new TreeMap<>(qtyByProductId).entrySet()) {
+            args.add(new Object[]{e.getValue(), e.getKey()});
+        }
+        jdbc.batchUpdate("UPDATE products SET stock = stock - ?, version = COALESCE(version, 0) + 1 WHERE id = ? AND stock IS NOT NULL", args);
+    }
+
+    /** productId -> eklenecek adet; tek JDBC batch, id sırasıyla. */
+    public void incrementStocks(Map<Long, Integer> qtyByProductId) {
+        if (qtyByProductId == null || qtyByProductId.isEmpty()) return;
+
+        List<Object[]> args = new ArrayList<>(qtyByProductId.size());
+        for (Map.Entry<Long, Integer> e : new TreeMap<>(qtyByProductId).entrySet()) {
+            args.add(new Object[]{e.getValue(), e.getKey()});
+        }
+        jdbc.batchUpdate("UPDATE products SET stock = COALESCE(stock, 0) + ?, version = COALESCE(version, 0) + 1 WHERE id = ?", args);
+    }
+
+    /** Ürün satırını kilitleyip stok kolonunu döner; ürün yoksa null. */
+    public Integer lockStock(Long productId) {
+        List<Integer> rows = jdbc.queryForList(
+                "SELECT COALESCE(stock, 0) FROM products WHERE id = ? FOR UPDATE", Integer.class, productId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    public void addStock(Long productId, int delta) {
+        jdbc.update("UPDATE products SET stock = COALESCE(stock, 0) + ?, version = COALESCE(version, 0) + 1 WHERE id = ?", delta, productId);
+    }
+}
@@ -5,7 +5,11 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
@@ -22,6 +26,19 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     Page<Product> findByNameContainingIgnoreCaseOrSkuContainingIgnoreCase(
             String name, String sku, Pageable pageable
     );
+
+    // Tek statement, kilitsiz stok değişimi: etkilenen satır 0 ise ürün yok ya da stok yetersiz
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = p.stock - :qty, p.version = COALESCE(p.version, 0) + 1 WHERE p.id = :id AND p.stock >= :qty")
+    int decrementStock(@Param("id") Long id, @Param("qty") int qty);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = COALESCE(p.stock, 0) + :qty, p.version = COALESCE(p.version, 0) + 1 WHERE p.id = :id")
+    int incrementStock(@Param("id") Long id, @Param("qty") int qty);
+
+    // şube -> ürün sayısı
+    @Query("SELECT p.branch.id, COUNT(p) FROM Product p GROUP BY p.branch.id")
+    List<Object[]> countByBranch();
 }
 
 /*
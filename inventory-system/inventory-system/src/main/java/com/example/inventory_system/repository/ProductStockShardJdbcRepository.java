@@ -0,0 +1,98 @@
+package com.example.inventory_system.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * product_stock_shards üzerindeki atomik sayaç işlemleri.
+ * Bir parçanın tek başına negatife düşmesi sorun değildir; anlamlı olan ürün toplamıdır.
+ */
+@Repository
+public class ProductStockShardJdbcRepository {
+
+    public record Shard(int shard, int stock) {}
+
+    public record ShardDelta(Long productId, int shard, int delta) {}
+
+    public record HotProductRow(Long productId, int shards, long stock) {}
+
+    private final JdbcTemplate jdbc;
+
+    public ProductStockShardJdbcRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /** productId -> parça sayısı */
+    public Map<Long, Integer> shardCounts() {
+        Map<Long, Integer> counts = new LinkedHashMap<>();
+        jdbc.query("SELECT product_id, COUNT(*) FROM product_stock_shards GROUP BY product_id",
+                rs -> { counts.put(rs.getLong(1), rs.getInt(2)); });
+        return counts;
+    }
+
+    /** Hot ürünler ve toplam (products.stock + parçalar) stokları. */
+    public List<HotProductRow> hotProducts() {
+        return jdbc.query("""
+                SELECT s.product_id, COUNT(*), COALESCE(MAX(p.stock), 0) + SUM(s.stock)
+                FROM product_stock_shards s
+                JOIN products p ON p.id = s.product_id
+                GROUP BY s.product_id
+                ORDER BY s.product_id
+                """, (rs, i) -> new HotProductRow(rs.getLong(1), rs.getInt(2), rs.getLong(3)));
+    }
+
+    /** Koşulsuz ekle/çıkar; satır yoksa (ürün bu arada cold yapılmış) 0 döner. */
+    public int add(Long productId, int shard, int delta) {
+        return jdbc.update("UPDATE product_stock_shards SET stock = stock + ? WHERE product_id = ? AND shard = ?",
+                delta, productId, shard);
+    }
+
+    /** Parçada yeterli stok varsa düşer; yoksa 0 döner. */
+    public int take(Long productId, int shard, int qty) {
+        return jdbc.update("""
+                UPDATE product_stock_shards SET stock = stock - ?
+                WHERE product_id = ? AND shard = ? AND stock >= ?
+                """, qty, productId, shard, qty);
+    }
+
+    /** Koşulsuz toplu güncelleme; dönen dizi satır başına etkilenen kayıt sayısıdır. */
+    public int[] addAll(List<ShardDelta> deltas) {
+        if (deltas.isEmpty()) return new int[0];
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        for (ShardDelta d : deltas) {
+            args.add(new Object[]{d.delta(), d.productId(), d.shard()});
+        }
+        return jdbc.batchUpdate(
+                "UPDATE product_stock_shards SET stock = stock + ? WHERE product_id = ? AND shard = ?", args);
+    }
+
+    /** Ürünün tüm parçalarını shard sırasıyla kilitler. */
+    public List<Shard> lockShards(Long productId) {
+        return jdbc.query("""
+                SELECT shard, stock FROM product_stock_shards
+                WHERE product_id = ?
+                ORDER BY shard
+                FOR UPDATE
+                """, (rs, i) -> new Shard(rs.getInt(1), rs.getInt(2)), productId);
+    }
+
+    public void createShards(Long productId, int[] stocks) {
+        List<Object[]> args = new ArrayList<>(stocks.length);
+        for (int i = 0; i < stocks.length; i++) {
+            args.add(new Object[]{productId, i, stocks[i]});
+        }
+        jdbc.batchUpdate("INSERT INTO product_stock_shards (product_id, shard, stock) VALUES (?, ?, ?)", args);
+    }
+
+    /** Parçaları siler ve içlerindeki toplam stoğu döner (parça yoksa 0). */
+    public int deleteShards(Long productId) {
+        List<Integer> stocks = jdbc.queryForList(
+                "DELETE FROM product_stock_shards WHERE product_id = ? RETURNING stock", Integer.class, productId);
+        return stocks.stream().mapToInt(Integer::intValue).sum();
+    }
+}
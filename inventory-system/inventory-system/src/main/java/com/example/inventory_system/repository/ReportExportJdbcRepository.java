@@ -0,0 +1,85 @@
+package com.example.inventory_system.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.time.LocalDate;
+
+/**
+ * Dışa aktarma sorguları: satırlar liste olarak toplanmaz, forward-only imleçten fetch-size'lık
+ * parçalar halinde okunur; handler ResultSet üzerinde satır satır ilerler. PostgreSQL sürücüsü
+ * imleci yalnızca autocommit kapalıyken (transaction içinde) kullanır; çağıran read-only
+ * transaction açmalıdır.
+ *
+ * Kolon adları (alias) dışa aktarılan dosyanın başlıklarıdır; türetilen alanlar (kâr, marj)
+ * SQL'de hesaplanır.
+ */
+@Repository
+public class ReportExportJdbcRepository {
+
+    private final JdbcTemplate jdbc;
+
+    public ReportExportJdbcRepository(DataSource dataSource,
+                                      @Value("${inventory.reports.export.fetch-size:1000}") int fetchSize) {
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.jdbc.setFetchSize(Math.max(1, fetchSize));
+    }
+
+    public void productMargins(LocalDate from, LocalDate to, Long branchId, ResultSetExtractor<?> handler) {
+        jdbc.query("""
+                SELECT r.product_id AS "productId", p.name AS "productName", p.sku AS "sku",
+                       SUM(r.qty) AS "quantity",
+                       SUM(r.revenue) AS "revenue", SUM(r.cogs) AS "cogs",
+                       SUM(r.revenue) - SUM(r.cogs) AS "profit",
+                       CASE WHEN SUM(r.revenue) > 0
+                            THEN ROUND((SUM(r.revenue) - SUM(r.cogs)) * 100 / SUM(r.revenue), 2)
+                       END AS "marginPercent"
+                FROM sales_daily_rollup r
+                JOIN products p ON p.id = r.product_id
+                WHERE r.day >= ? AND r.day <= ?
+                  AND (CAST(? AS BIGINT) IS NULL OR r.branch_id = ?)
+                GROUP BY r.product_id, p.name, p.sku
+                ORDER BY SUM(r.revenue) DESC, r.product_id
+                """, handler, Date.valueOf(from), Date.valueOf(to), branchId, branchId);
+    }
+
+    public void salesTrend(LocalDate from, LocalDate to, Long branchId, ResultSetExtractor<?> handler) {
+        jdbc.query("""
+                SELECT r.day AS "date",
+                       SUM(r.revenue) AS "revenue", SUM(r.cogs) AS "cogs",
+                       SUM(r.revenue) - SUM(r.cogs) AS "grossProfit"
+                FROM sales_daily_rollup r
+                WHERE r.day >= ? AND r.day <= ?
+                  AND (CAST(? AS BIGINT) IS NULL OR r.branch_id = ?)
+                GROUP BY r.day
+                ORDER BY r.day
+                """, handler, Date.valueOf(from), Date.valueOf(to), branchId, branchId);
+    }
+
+    /**
+     * İşlem geçmişi (GET /api/v1/transactions ile aynı alanlar): inventory_ledger'daki mal kabul
+     * ve satış satırları; tarih aralığı BRIN index'i ile taranır.
+     */
+    public void transactions(LocalDate from, LocalDate to, Long branchId, ResultSetExtractor<?> handler) {
+        jdbc.query("""
+                SELECT l.doc_id AS "id", CASE WHEN l.entry_type = 'SALE' THEN 'sale' ELSE 'purchase' END AS "type",
+                       l.product_id AS "productId", COALESCE(p.name, '(deleted)') AS "productName",
+                       l.branch_id AS "branchId", b.name AS "branchName",
+                       ABS(l.quantity) AS "quantity", COALESCE(l.unit_price, 0) AS "unitPrice",
+                       COALESCE(l.unit_price, 0) * ABS(l.quantity) AS "totalPrice",
+                       l.created_at AS "date", pb.expiry_date AS "expiryDate"
+                FROM inventory_ledger l
+                LEFT JOIN products p ON p.id = l.product_id
+                LEFT JOIN branches b ON b.id = l.branch_id
+                LEFT JOIN product_batches pb ON l.doc_type = 'product_batch' AND pb.id = l.doc_id
+                WHERE l.entry_type IN ('PURCHASE', 'SALE')
+                  AND l.created_at >= ? AND l.created_at < ?
+                  AND (CAST(? AS BIGINT) IS NULL OR l.branch_id = ?)
+                ORDER BY l.created_at DESC, l.id DESC
+                """, handler, Date.valueOf(from), Date.valueOf(to.plusDays(1)), branchId, branchId);
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.inventory_system.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * report_jobs / report_job_chunks. Zaman karşılaştırmaları DB saatiyle (now()) yapılır.
+ */
+@Repository
+public class ReportJobJdbcRepository {
+
+    public record JobRow(Long id, String report, String params, String status, int progress,
+                         Integer rowCount, Integer chunkCount, String summary, String error,
+                         LocalDateTime createdAt, LocalDateTime startedAt,
+                         LocalDateTime finishedAt, LocalDateTime expiresAt) {}
+
+    private static final String COLUMNS = """
+            id, report, params, status, progress, row_count, chunk_count, summary, error,
+            created_at, started_at, finished_at, expires_at
+            """;
+
+    private static final RowMapper<JobRow> JOB = (rs, i) -> new JobRow(
+            rs.getLong("id"),
+            rs.getString("report"),
+            rs.getString("params"),
+            rs.getString("status"),
+            rs.getInt("progress"),
+            (Integer) rs.getObject("row_count"),
+            (Integer) rs.getObject("chunk_count"),
+            rs.getString("summary"),
+            rs.getString("error"),
+            toLocal(rs.getTimestamp("created_at")),
+            toLocal(rs.getTimestamp("started_at")),
+            toLocal(rs.getTimestamp("finished_at")),
+            toLocal(rs.getTimestamp("expires_at")));
+
+    private final JdbcTemplate jdbc;
+
+    public ReportJobJdbcRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Yeni iş kuyruğa alınır; aynı parametrelerle bekleyen / çalışan iş varsa eklenmez
+     * (kısmi unique index) ve boş döner.
+     */
+    public Optional<Long> insertQueued(String report, String params, String paramsHash) {
+        List<Long> ids = jdbc.queryForList("""
+                INSERT INTO report_jobs (report, params, params_hash, status, created_at)
+                VALUES (?, ?, ?, 'QUEUED', now())
+                ON CONFLICT (params_hash) WHERE status IN ('QUEUED', 'RUNNING') DO NOTHING
+                RETURNING id
+                """, Long.class, report, params, paramsHash);
+        return ids.stream().findFirst();
+    }
+
+    /** Aynı parametrelerle bekleyen / çalışan ya da süresi dolmamış başarılı iş. */
+    public Optional<JobRow> findReusable(String paramsHash) {
+        return jdbc.query("SELECT " + COLUMNS + """
+                FROM report_jobs
+                WHERE params_hash = ?
+                  AND (status IN ('QUEUED', 'RUNNING')
+                       OR (status = 'SUCCEEDED' AND expires_at > now()))
+                ORDER BY (status = 'SUCCEEDED') DESC, finished_at DESC NULLS LAST, id DESC
+                LIMIT 1
+                """, JOB, paramsHash).stream().findFirst();
+    }
+
+    public Optional<JobRow> find(long id) {
+        return jdbc.query("SELECT " + COLUMNS + " FROM report_jobs WHERE id = ?", JOB, id)
+                .stream().findFirst();
+    }
+
+    public boolean markRunning(long id) {
+        return jdbc.update("""
+                UPDATE report_jobs SET status = 'RUNNING', started_at = now()
+                WHERE id = ? AND status = 'QUEUED'
+                """, id) == 1;
+    }
+
+    public void updateProgress(long id, int progress) {
+        jdbc.update("UPDATE report_jobs SET progress = ? WHERE id = ?", progress, id);
+    }
+
+    public void insertChunk(long id, int chunkNo, String rows) {
+        jdbc.update("INSERT INTO report_job_chunks (job_id, chunk_no, rows) VALUES (?, ?, ?)", id, chunkNo, rows);
+    }
+
+    public void markSucceeded(long id, int rowCount, int chunkCount, String summary, long freshSeconds) {
+        jdbc.update("""
+                UPDATE report_jobs
+                SET status = 'SUCCEEDED', progress = 100, row_count = ?, chunk_count = ?, summary = ?,
+                    finished_at = now(), expires_at = now() + (? * interval '1 second')
+                WHERE id = ?
+                """, rowCount, chunkCount, summary, freshSeconds, id);
+    }
+
+    /** Yarım kalan parçalar da silinir. */
+    public void markFailed(long id, String error) {
+        jdbc.update("DELETE FROM report_job_chunks WHERE job_id = ?", id);
+        jdbc.update("""
+                UPDATE report_jobs SET status = 'FAILED', error = ?, finished_at = now(), expires_at = now()
+                WHERE id = ?
+                """, error, id);
+    }
+
+    /** Önceki süreçten kalan, bitmemiş işler (yeniden başlatmada kaybolur). */
+    public int failUnfinished(String error) {
+        return jdbc.update("""
+                UPDATE report_jobs SET status = 'FAILED', error = ?, finished_at = now(), expires_at = now()
+                WHERE status IN ('QUEUED', 'RUNNING')
+                """, error);
+    }
+
+    public Optional<String> findChunk(long id, int chunkNo) {
+        return jdbc.queryForList("SELECT rows FROM report_job_chunks WHERE job_id = ? AND chunk_no = ?",
+                String.class, id, chunkNo).stream().findFirst();
+    }
+
+    /** Tazeliği geçtikten sonra retentionSeconds kadar daha okunabilir, sonra parçalarıyla silinir. */
+    public int purgeExpired(long retentionSeconds) {
+        return jdbc.update("""
+                DELETE FROM report_jobs
+                WHERE expires_at < now() - (? * interval '1 second')
+                """, retentionSeconds);
+    }
+
+    private static LocalDateTime toLocal(Timestamp ts) {
+        return ts != null ? ts.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.inventory_system.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sale / SaleItem satırlarını JDBC batch ile yazar.
+ * Id'ler entity'lerin kullandığı pooled sequence'lardan (tablo_seq) tek sorguda blok blok çekilir,
+ * böylece Hibernate ile aynı id uzayını paylaşır ve insert'ler batch'lenebilir.
+ */
+@Repository
+public class SaleJdbcRepository {
+
+    public record SaleRow(Long id, Long branchId, BigDecimal totalAmount, LocalDateTime createdAt) {}
+
+    /** createdAt satışın zamanıdır; sale_created_at / sale_date / branch_id satıştan kopyalanır. */
+    public record SaleItemRow(Long saleId, Long branchId, Long productId, Integer quantity,
+                              BigDecimal unitPrice, BigDecimal cogsAmount, LocalDateTime createdAt) {}
+
+    // entity'lerdeki @SequenceGenerator allocationSize ve V6 migration'daki INCREMENT BY ile aynı olmalı
+    private static final int ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbc;
+
+    public SaleJdbcRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public List<Long> nextSaleIds(int count) {
+        return nextIds("sales", count);
+    }
+
+    public void insertSales(List<SaleRow> rows) {
+        if (rows.isEmpty()) return;
+        List<Object[]> args = new ArrayList<>(rows.size());
+        for (SaleRow r : rows) {
+            args.add(new Object[]{r.id(), r.branchId(), r.totalAmount(), Timestamp.valueOf(r.createdAt())});
+        }
+        jdbc.batchUpdate("""
+                INSERT INTO sales (id, branch_id, total_amount, created_at)
+                VALUES (?, ?, ?, ?)
+                """, args);
+    }
+
+    /** Atanan id'ler satırlarla aynı sırada döner (ledger satırları bunlara bağlanır). */
+    public List<Long> insertSaleItems(List<SaleItemRow> rows) {
+        if (rows.isEmpty()) return List.of();
+        List<Long> ids = nextIds("sale_items", rows.size());
+        List<Object[]> args = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            SaleItemRow r = rows.get(i);
+            Timestamp createdAt = Timestamp.valueOf(r.createdAt());
+            args.add(new Object[]{ids.get(i), r.saleId(), r.productId(), r.quantity(),
+                    r.unitPrice(), r.cogsAmount(), createdAt,
+                    createdAt, Date.valueOf(r.createdAt().toLocalDate()), r.branchId()});
+        }
+        jdbc.batchUpdate("""
+                INSERT INTO sale_items (id, sale_id, product_id, quantity, unit_price, cogs_amount, created_at,
+                                        sale_created_at, sale_date, branch_id)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                """, args);
+        return ids;
+    }
+
+    /** Write-behind'ın yazamadığı satış (V17); payload JSON. */
+    public void insertDeadLetter(Long saleId, Long branchId, String payload, String error) {
+        jdbc.update("INSERT INTO sale_dead_letters (sale_id, branch_id, payload, error) VALUES (?, ?, ?, ?)",
+                saleId, branchId, payload, error);
+    }
+
+    // pooled optimizer ile aynı kural: nextval = v ise (v - ALLOCATION_SIZE, v] aralığı bizimdir
+    private List<Long> nextIds(String table, int count) {
+        int blocks = (count + ALLOCATION_SIZE - 1) / ALLOCATION_SIZE;
+        List<Long> highs = jdbc.queryForList(
+                "SELECT nextval(CAST(? AS regclass)) FROM generate_series(1, ?)",
+                Long.class, table + "_seq", blocks);
+
+        List<Long> ids = new ArrayList<>(count);
+        for (Long hi : highs) {
+            for (long id = Math.max(1, hi - ALLOCATION_SIZE + 1); id <= hi && ids.size() < count; id++) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+}
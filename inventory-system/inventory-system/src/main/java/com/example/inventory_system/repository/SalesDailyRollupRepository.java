@@ -0,0 +1,161 @@
+package com.example.inventory_system.repository;
+
+import com.example.inventory_system.domain.SalesDailyRollup;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Satış raporları: sales_daily_rollup üzerinden, [from, to] gün aralığı (iki uç dahil).
+ * Maliyet satır kalemi sayısıyla değil gün × ürün sayısıyla büyür.
+ *
+ * Her rapor tek sorgudur ve tipli satır (record) döner: ürün adı / SKU SQL'de join'lenir,
+ * limit Limit parametresiyle LIMIT olarak veritabanına iner. Ürün silinmişse (özet satırı
+ * kalır) LEFT JOIN'li sorgularda ad ve SKU null gelir.
+ */
+public interface SalesDailyRollupRepository extends JpaRepository<SalesDailyRollup, SalesDailyRollup.Key> {
+
+    record ProductSales(Long productId, String productName, String sku,
+                        Long quantity, BigDecimal revenue, BigDecimal cogs, LocalDate lastSaleDay) {}
+
+    record ProductQuantity(Long productId, Long quantity) {}
+
+    record ProductDayQuantity(Long productId, LocalDate day, Long quantity) {}
+
+    record DayTotals(LocalDate day, BigDecimal revenue, BigDecimal cogs) {}
+
+    record CategoryTotals(Long categoryId, String categoryName, BigDecimal revenue, BigDecimal cogs) {}
+
+    record PeriodTotals(Long quantity, BigDecimal revenue, BigDecimal cogs) {}
+
+    @Query("""
+        SELECT new com.example.inventory_system.repository.SalesDailyRollupRepository$ProductSales(
+                r.productId, p.name, p.sku,
+                SUM(r.qty), SUM(r.revenue), SUM(r.cogs), MAX(r.day))
+        FROM SalesDailyRollup r
+        LEFT JOIN Product p ON p.id = r.productId
+        WHERE r.day >= :from AND r.day <= :to
+          AND (:branchId IS NULL OR r.branchId = :branchId)
+        GROUP BY r.productId, p.name, p.sku
+        ORDER BY SUM(r.qty) DESC, r.productId
+    """)
+    List<ProductSales> topSellers(@Param("from") LocalDate from,
+                                  @Param("to") LocalDate to,
+                                  @Param("branchId") Long branchId,
+                                  Limit limit);
+
+    @Query("""
+        SELECT new com.example.inventory_system.repository.SalesDailyRollupRepository$ProductSales(
+                r.productId, p.name, p.sku,
+                SUM(r.qty), SUM(r.revenue), SUM(r.cogs), MAX(r.day))
+        FROM SalesDailyRollup r
+        LEFT JOIN Product p ON p.id = r.productId
+        WHERE r.day >= :from AND r.day <= :to
+          AND (:branchId IS NULL OR r.branchId = :branchId)
+        GROUP BY r.productId, p.name, p.sku
+        HAVING SUM(r.qty) <= :threshold
+        ORDER BY SUM(r.qty) ASC, r.productId
+    """)
+    List<ProductSales> slowSellers(@Param("from") LocalDate from,
+                                   @Param("to") LocalDate to,
+                                   @Param("branchId") Long branchId,
+                                   @Param("threshold") long threshold);
+
+    @Query("""
+        SELECT new com.example.inventory_system.repository.SalesDailyRollupRepository$ProductSales(
+                r.productId, p.name, p.sku,
+                SUM(r.qty), SUM(r.revenue), SUM(r.cogs), MAX(r.day))
+        FROM SalesDailyRollup r
+        JOIN Product p ON p.id = r.productId
+        WHERE r.day >= :from AND r.day <= :to
+          AND (:branchId IS NULL OR r.branchId = :branchId)
+        GROUP BY r.productId, p.name, p.sku
+        ORDER BY SUM(r.revenue) DESC, r.productId
+    """)
+    List<ProductSales> productMargins(@Param("from") LocalDate from,
+                                      @Param("to") LocalDate to,
+                                      @Param("branchId") Long branchId,
+                                      Limit limit);
+
+    @Query("""
+        SELECT new com.example.inventory_system.repository.SalesDailyRollupRepository$ProductQuantity(
+                r.productId, SUM(r.qty))
+        FROM SalesDailyRollup r
+        WHERE r.day >= :from AND r.day <= :to
+          AND (:branchId IS NULL OR r.branchId = :branchId)
+        GROUP BY r.productId
+    """)
+    List<ProductQuantity> salesByProduct(@Param("from") LocalDate from,
+                                         @Param("to") LocalDate to,
+                                         @Param("branchId") Long branchId);
+
+    @Query("""
+        SELECT new com.example.inventory_system.repository.SalesDailyRollupRepository$ProductDayQuantity(
+                r.productId, r.day, SUM(r.qty))
+        FROM SalesDailyRollup r
+        WHERE r.day >= :from AND r.day <= :to
+          AND (:branchId IS NULL OR r.branchId = :branchId)
+        GROUP BY r.productId, r.day
+        ORDER BY r.productId, r.day
+    """)
+    List<ProductDayQuantity> dailySalesByProduct(@Param("from") LocalDate from,
+                                                 @Param("to") LocalDate to,
+                                                 @Param("branchId") Long branchId);
+
+    @Query("""
+        SELECT COALESCE(SUM(r.qty), 0)
+        FROM SalesDailyRollup r
+        WHERE r.productId = :productId
+          AND r.day >= :from
+          AND (:branchId IS NULL OR r.branchId = :branchId)
+    """)
+    Long sumQtySince(@Param("productId") Long productId,
+                     @Param("from") LocalDate from,
+                     @Param("branchId") Long branchId);
+
+    @Query("""
+        SELECT new com.example.inventory_system.repository.SalesDailyRollupRepository$DayTotals(
+                r.day, SUM(r.revenue), SUM(r.cogs))
+        FROM SalesDailyRollup r
+        WHERE r.day >= :from AND r.day <= :to
+          AND (:branchId IS NULL OR r.branchId = :branchId)
+        GROUP BY r.day
+        ORDER BY r.day
+    """)
+    List<DayTotals> salesTrend(@Param("from") LocalDate from,
+                               @Param("to") LocalDate to,
+                               @Param("branchId") Long branchId);
+
+    @Query("""
+        SELECT new com.example.inventory_system.repository.SalesDailyRollupRepository$CategoryTotals(
+                c.id, c.name, SUM(r.revenue), SUM(r.cogs))
+        FROM SalesDailyRollup r
+        JOIN Product p ON p.id = r.productId
+        JOIN p.category c
+        WHERE r.day >= :from AND r.day <= :to
+          AND (:branchId IS NULL OR r.branchId = :branchId)
+        GROUP BY c.id, c.name
+        ORDER BY SUM(r.revenue) DESC
+    """)
+    List<CategoryTotals> categoryBreakdown(@Param("from") LocalDate from,
+                                           @Param("to") LocalDate to,
+                                           @Param("branchId") Long branchId);
+
+    // gelir tablosu: adet, ciro, maliyet tek satırda (satış yoksa toplamlar 0)
+    @Query("""
+        SELECT new com.example.inventory_system.repository.SalesDailyRollupRepository$PeriodTotals(
+                COALESCE(SUM(r.qty), 0), COALESCE(SUM(r.revenue), 0),
+                COALESCE(SUM(r.cogs), 0))
+        FROM SalesDailyRollup r
+        WHERE r.day >= :from AND r.day <= :to
+          AND (:branchId IS NULL OR r.branchId = :branchId)
+    """)
+    PeriodTotals periodTotals(@Param("from") LocalDate from,
+                              @Param("to") LocalDate to,
+                              @Param("branchId") Long branchId);
+}
@@ -0,0 +1,130 @@
+package com.example.inventory_system.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * sales / sale_items aylık partition DDL'i (bkz. V12). İki tablo her zaman aynı ay sınırlarıyla
+ * birlikte açılır ve ayrılır: sales created_at'e, sale_items sale_date'e göre bölünür.
+ * Çağıranın transaction'ı içinde çalışır; eşzamanlı bakım advisory lock ile sıraya girer.
+ */
+@Repository
+public class SalesPartitionJdbcRepository {
+
+    public record PartitionRow(String parent, String table, String bounds, long estimatedRows) {}
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final long LOCK_KEY = 0x5A1E5L;
+
+    private final JdbcTemplate jdbc;
+
+    public SalesPartitionJdbcRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /** Şema V12 ile bölünmüş mü (ddl-auto ile kurulmuş geliştirme veritabanında değildir). */
+    public boolean isPartitioned() {
+        Boolean partitioned = jdbc.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass('sales'))",
+                Boolean.class);
+        return Boolean.TRUE.equals(partitioned);
+    }
+
+    public List<PartitionRow> partitions() {
+        return jdbc.query("""
+                SELECT p.relname AS parent, c.relname AS child,
+                       pg_get_expr(c.relpartbound, c.oid) AS bounds,
+                       GREATEST(c.reltuples, 0) AS estimated_rows
+                FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                JOIN pg_class p ON p.oid = i.inhparent
+                WHERE i.inhparent IN (to_regclass('sales'), to_regclass('sale_items'))
+                ORDER BY p.relname, c.relname
+                """, (rs, n) -> new PartitionRow(rs.getString("parent"), rs.getString("child"),
+                rs.getString("bounds"), rs.getLong("estimated_rows")));
+    }
+
+    public boolean isAttached(YearMonth month) {
+        Boolean attached = jdbc.queryForObject("""
+                SELECT EXISTS (SELECT 1 FROM pg_inherits
+                               WHERE inhrelid = to_regclass(?) AND inhparent = to_regclass('sales'))
+                """, Boolean.class, salesTable(month));
+        return Boolean.TRUE.equals(attached);
+    }
+
+    /**
+     * Ayın partition'larını açar. Default partition'a düşmüş o aya ait satırlar (örn. ileri tarihli
+     * import) yeni tabloya taşınır; sale_items önce taşınır ki sales silinirken ON DELETE CASCADE
+     * hiçbir kalemi bulmasın. Tablolar dolu haliyle attach edilir, FK ve index'ler o sırada kurulur.
+     */
+    public void createMonth(YearMonth month) {
+        lock();
+        if (isAttached(month)) return;
+
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        String sales = salesTable(month);
+        String items = saleItemsTable(month);
+
+        jdbc.execute("CREATE TABLE " + items + " (LIKE sale_items INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        jdbc.execute("CREATE TABLE " + sales + " (LIKE sales INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+
+        jdbc.update("WITH moved AS (DELETE FROM sale_items_default WHERE sale_date >= ? AND sale_date < ? RETURNING *) "
+                + "INSERT INTO " + items + " SELECT * FROM moved", Date.valueOf(from), Date.valueOf(to));
+        jdbc.update("WITH moved AS (DELETE FROM sales_default WHERE created_at >= ? AND created_at < ? RETURNING *) "
+                + "INSERT INTO " + sales + " SELECT * FROM moved",
+                Timestamp.valueOf(from.atStartOfDay()), Timestamp.valueOf(to.atStartOfDay()));
+
+        jdbc.execute("ALTER TABLE sales ATTACH PARTITION " + sales
+                + " FOR VALUES FROM ('" + from + " 00:00:00') TO ('" + to + " 00:00:00')");
+        jdbc.execute("ALTER TABLE sale_items ATTACH PARTITION " + items
+                + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+    }
+
+    /**
+     * Ayın partition'larını ayırır; tablolar veriyle birlikte bağımsız arşiv tablosu olarak kalır
+     * (yedeklenip silinebilir). Kalemler önce ayrılır ve sales'e FK'ları düşürülür, aksi halde
+     * sales partition'ı ayrılamaz. Günlük satış özeti bu aylar için olduğu gibi kalır.
+     */
+    public void detachMonth(YearMonth month) {
+        lock();
+        if (!isAttached(month)) return;
+
+        String items = saleItemsTable(month);
+        jdbc.execute("ALTER TABLE sale_items DETACH PARTITION " + items);
+        jdbc.execute("ALTER TABLE " + items + " DROP CONSTRAINT IF EXISTS fk_sale_items_sale");
+        jdbc.execute("ALTER TABLE sales DETACH PARTITION " + salesTable(month));
+    }
+
+    /** Ayrılmamış en eski aylık partition'ın ayı; yoksa null. */
+    public YearMonth oldestAttachedMonth() {
+        List<String> names = jdbc.queryForList("""
+                SELECT c.relname
+                FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = to_regclass('sales') AND c.relname LIKE 'sales\\_p%'
+                ORDER BY c.relname
+                LIMIT 1
+                """, String.class);
+        return names.isEmpty() ? null : YearMonth.parse(names.get(0).substring("sales_p".length()), SUFFIX);
+    }
+
+    public static String salesTable(YearMonth month) {
+        return "sales_p" + month.format(SUFFIX);
+    }
+
+    public static String saleItemsTable(YearMonth month) {
+        return "sale_items_p" + month.format(SUFFIX);
+    }
+
+    private void lock() {
+        jdbc.query("SELECT pg_advisory_xact_lock(?)", rs -> null, LOCK_KEY);
+    }
+}
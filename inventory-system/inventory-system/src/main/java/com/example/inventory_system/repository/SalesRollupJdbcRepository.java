@@ -0,0 +1,105 @@
+package com.example.inventory_system.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * sales_daily_rollup yazmaları. Satış yazan transaction içinde çağrılır:
+ * satır kalemleri (gün, şube, ürün) bazında toplanır ve tek JDBC batch'te upsert edilir.
+ */
+@Repository
+public class SalesRollupJdbcRepository {
+
+    public record DayRange(LocalDate first, LocalDate last) {}
+
+    // anahtar sırası PK ile aynı; upsert'ler hep bu sırada yapılır, kilit sırası sabit kalır
+    private record Key(LocalDate day, Long branchId, Long productId) implements Comparable<Key> {
+        private static final Comparator<Key> ORDER = Comparator
+                .comparing(Key::day).thenComparing(Key::branchId).thenComparing(Key::productId);
+
+        @Override
+        public int compareTo(Key o) { return ORDER.compare(this, o); }
+    }
+
+    private static final class Totals {
+        long qty;
+        BigDecimal revenue = BigDecimal.ZERO;
+        BigDecimal cogs = BigDecimal.ZERO;
+    }
+
+    private final JdbcTemplate jdbc;
+
+    public SalesRollupJdbcRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /** Yeni yazılan satışların kalemlerini özet tablosuna ekler. */
+    public void add(List<SaleJdbcRepository.SaleItemRow> items) {
+        if (items.isEmpty()) return;
+
+        Map<Key, Totals> totals = new TreeMap<>();
+        for (SaleJdbcRepository.SaleItemRow item : items) {
+            Totals t = totals.computeIfAbsent(
+                    new Key(item.createdAt().toLocalDate(), item.branchId(), item.productId()), k -> new Totals());
+            t.qty += item.quantity();
+            t.revenue = t.revenue.add(item.unitPrice().multiply(BigDecimal.valueOf(item.quantity())));
+            if (item.cogsAmount() != null) t.cogs = t.cogs.add(item.cogsAmount());
+        }
+
+        List<Object[]> args = new ArrayList<>(totals.size());
+        for (Map.Entry<Key, Totals> e : totals.entrySet()) {
+            Key k = e.getKey();
+            Totals t = e.getValue();
+            args.add(new Object[]{Date.valueOf(k.day()), k.branchId(), k.productId(), t.qty, t.revenue, t.cogs});
+        }
+        jdbc.batchUpdate("""
+                INSERT INTO sales_daily_rollup (day, branch_id, product_id, qty, revenue, cogs)
+                VALUES (?, ?, ?, ?, ?, ?)
+                ON CONFLICT (day, branch_id, product_id) DO UPDATE
+                SET qty     = sales_daily_rollup.qty     + EXCLUDED.qty,
+                    revenue = sales_daily_rollup.revenue + EXCLUDED.revenue,
+                    cogs    = sales_daily_rollup.cogs    + EXCLUDED.cogs
+                """, args);
+    }
+
+    /**
+     * [from, to] günlerini sale_items'tan yeniden hesaplar; yazılan özet satırı sayısını döner.
+     * Yalnızca sale_items'ın denormalize sütunlarını okur: idx_sale_items_date_branch_product
+     * üzerinden index-only scan, sıralı gruplama.
+     * Tablo kilidi eşzamanlı satışların upsert'lerini bu transaction bitene kadar bekletir:
+     * kilit alınmadan önce commit edilen satışlar yeniden hesaplamaya girer, sonrakiler üstüne eklenir.
+     */
+    public int rebuild(LocalDate from, LocalDate to) {
+        jdbc.execute("LOCK TABLE sales_daily_rollup IN SHARE ROW EXCLUSIVE MODE");
+        jdbc.update("DELETE FROM sales_daily_rollup WHERE day >= ? AND day <= ?",
+                Date.valueOf(from), Date.valueOf(to));
+        return jdbc.update("""
+                INSERT INTO sales_daily_rollup (day, branch_id, product_id, qty, revenue, cogs)
+                SELECT sale_date, branch_id, product_id,
+                       SUM(quantity), SUM(unit_price * quantity), SUM(COALESCE(cogs_amount, 0))
+                FROM sale_items
+                WHERE sale_date >= ? AND sale_date <= ?
+                GROUP BY sale_date, branch_id, product_id
+                """,
+                Date.valueOf(from), Date.valueOf(to));
+    }
+
+    /**
+     * Satır kalemi olan ilk ve son gün; hiç veri yoksa boş. Ayrılmış (arşivlenmiş) partition'ların
+     * günleri bu aralığın dışında kalır, böylece tam yeniden hesaplama onların özetini silmez.
+     */
+    public Optional<DayRange> dataRange() {
+        return jdbc.query("SELECT MIN(sale_date), MAX(sale_date) FROM sale_items", rs -> {
+            rs.next();
+            Date min = rs.getDate(1);
+            return min == null
+                    ? Optional.empty()
+                    : Optional.of(new DayRange(min.toLocalDate(), rs.getDate(2).toLocalDate()));
+        });
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.inventory_system.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * stock_snapshot_runs / stock_snapshots (V16). Görüntü üretimi advisory lock'u exclusive,
+ * geçmiş tarihli ledger yazımı shared alır: yazımlar birbirini beklemez, yalnızca süren tek günlük
+ * üretimi bekler. Üretim sürerken eklenen geçmiş satır görüntüyü ancak üretim commit olduktan
+ * sonra siler, eski bir görüntü kalmaz.
+ */
+@Repository
+public class StockSnapshotJdbcRepository {
+
+    /** Ürün / şube adı silinmişse boş. */
+    public record BalanceRow(Long branchId, String branchName, Long productId, String productName,
+                             long quantity, BigDecimal value) {}
+
+    /** build: plan bayatladı (önceki görüntü silindi ya da gün başkası tarafından üretildi). */
+    public static final int STALE = -1;
+
+    private static final long LOCK_KEY = 0x5354_4F43_4B53_4E50L; // "STOCKSNP"
+
+    private final JdbcTemplate jdbc;
+
+    public StockSnapshotJdbcRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public Optional<LocalDate> latestRun() {
+        return Optional.ofNullable(jdbc.queryForObject(
+                "SELECT MAX(snapshot_date) FROM stock_snapshot_runs", LocalDate.class));
+    }
+
+    public Optional<LocalDate> latestRunOnOrBefore(LocalDate day) {
+        return Optional.ofNullable(jdbc.queryForObject(
+                "SELECT MAX(snapshot_date) FROM stock_snapshot_runs WHERE snapshot_date <= ?",
+                LocalDate.class, Date.valueOf(day)));
+    }
+
+    public Optional<LocalDate> earliestLedgerDay() {
+        return Optional.ofNullable(jdbc.queryForObject(
+                "SELECT CAST(MIN(created_at) AS DATE) FROM inventory_ledger", LocalDate.class));
+    }
+
+    /**
+     * day'in gün sonu görüntüsü: previous görüntüsü (yoksa ledger'ın başı) + (previous, day]
+     * aralığındaki ledger satırları. Çağıran transaction açmalıdır.
+     *
+     * previous, kilit alındıktan sonra hâlâ en son görüntü değilse (arada geçmiş tarihli yazım
+     * silmiş ya da başka bir node ilerlemiş) hiçbir şey yazılmaz ve STALE döner.
+     */
+    public int build(LocalDate day, LocalDate previous) {
+        lockExclusive();
+        if (!Objects.equals(previous, latestRun().orElse(null))) return STALE;
+        jdbc.update("INSERT INTO stock_snapshot_runs (snapshot_date) VALUES (?)", Date.valueOf(day));
+
+        List<Object> args = new ArrayList<>();
+        args.add(Date.valueOf(day));
+        String base = "";
+        String ledgerFrom = "";
+        if (previous != null) {
+            base = """
+                    SELECT branch_id, product_id, quantity, value FROM stock_snapshots WHERE snapshot_date = ?
+                    UNION ALL
+                    """;
+            ledgerFrom = "created_at >= ? AND ";
+            args.add(Date.valueOf(previous));
+            args.add(Date.valueOf(previous.plusDays(1)));
+        }
+        args.add(Date.valueOf(day.plusDays(1)));
+        return jdbc.update("""
+                INSERT INTO stock_snapshots (snapshot_date, branch_id, product_id, quantity, value)
+                SELECT ?, branch_id, product_id, SUM(quantity), SUM(value)
+                FROM (
+                    %s
+                    SELECT branch_id, product_id, quantity, COALESCE(cost_amount, 0) AS value
+                    FROM inventory_ledger
+                    WHERE %screated_at < ?
+                ) t
+                GROUP BY branch_id, product_id
+                HAVING SUM(quantity) <> 0 OR SUM(value) <> 0
+                """.formatted(base, ledgerFrom), args.toArray());
+    }
+
+    /** Saklama: cutoff'tan eski günlük görüntüler silinir, ay sonları kalır. */
+    public int purgeDailyBefore(LocalDate cutoff) {
+        return jdbc.update("""
+                DELETE FROM stock_snapshot_runs
+                WHERE snapshot_date < ?
+                  AND snapshot_date <> CAST(date_trunc('month', snapshot_date) + interval '1 month - 1 day' AS DATE)
+                """, Date.valueOf(cutoff));
+    }
+
+    /** Geçmiş tarihli ledger yazımı: day ve sonrasının görüntüleri artık eksik. */
+    public void invalidateFrom(LocalDate day) {
+        lockShared();
+        jdbc.update("DELETE FROM stock_snapshot_runs WHERE snapshot_date >= ?", Date.valueOf(day));
+    }
+
+    /**
+     * day gün sonundaki bakiye: en yakın önceki görüntü + sonrasındaki ledger satırları. Görüntü
+     * seçimi ve toplama tek sorguda; eşzamanlı silme yarım sonuç döndürmez.
+     */
+    public List<BalanceRow> balancesAsOf(LocalDate day, Long branchId) {
+        List<Object> args = new ArrayList<>();
+        args.add(Date.valueOf(day));
+        String snapshotBranch = "";
+        String ledgerBranch = "";
+        if (branchId != null) {
+            snapshotBranch = " AND ss.branch_id = ?";
+            args.add(branchId);
+        }
+        args.add(Date.valueOf(day.plusDays(1)));
+        if (branchId != null) {
+            ledgerBranch = " AND l.branch_id = ?";
+            args.add(branchId);
+        }
+        return jdbc.query("""
+                WITH snap AS (
+                    SELECT MAX(snapshot_date) AS day FROM stock_snapshot_runs WHERE snapshot_date <= ?
+                )
+                SELECT t.branch_id, b.name AS branch_name, t.product_id, p.name AS product_name,
+                       SUM(t.quantity) AS quantity, SUM(t.value) AS value
+                FROM (
+                    SELECT ss.branch_id, ss.product_id, ss.quantity, ss.value
+                    FROM stock_snapshots ss
+                    WHERE ss.snapshot_date = (SELECT day FROM snap)%s
+                    UNION ALL
+                    SELECT l.branch_id, l.product_id, l.quantity, COALESCE(l.cost_amount, 0)
+                    FROM inventory_ledger l
+                    WHERE l.created_at >= COALESCE((SELECT day FROM snap) + 1, DATE '-infinity')
+                      AND l.created_at < ?%s
+                ) t
+                LEFT JOIN branches b ON b.id = t.branch_id
+                LEFT JOIN products p ON p.id = t.product_id
+                GROUP BY t.branch_id, b.name, t.product_id, p.name
+                HAVING SUM(t.quantity) <> 0 OR SUM(t.value) <> 0
+                ORDER BY t.branch_id, t.product_id
+                """.formatted(snapshotBranch, ledgerBranch),
+                (rs, i) -> new BalanceRow(
+                        rs.getLong("branch_id"),
+                        rs.getString("branch_name"),
+                        rs.getLong("product_id"),
+                        rs.getString("product_name"),
+                        rs.getLong("quantity"),
+                        rs.getBigDecimal("value")),
+                args.toArray());
+    }
+
+    // transaction sonuna kadar tutulur
+    private void lockExclusive() {
+        jdbc.query("SELECT pg_advisory_xact_lock(?)", rs -> {}, LOCK_KEY);
+    }
+
+    private void lockShared() {
+        jdbc.query("SELECT pg_advisory_xact_lock_shared(?)", rs -> {}, LOCK_KEY);
+    }
+}
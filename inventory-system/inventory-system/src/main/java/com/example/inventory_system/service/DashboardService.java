@@ -0,0 +1,22 @@
+package com.example.inventory_system.service;
+
+import com.example.inventory_system.dto.DashboardResponse;
+
+import java.time.LocalDate;
+
+public interface DashboardService {
+
+    /**
+     * Yönetici panelinin tüm bölümlerini eşzamanlı hesaplar (her bölüm kendi virtual thread'inde,
+     * kendi DB bağlantısıyla). Bölümler var olan rapor uçlarıyla aynı sonucu (ve aynı cache'i) kullanır.
+     *
+     * @param from               satış dönemi başlangıcı (dahil)
+     * @param to                 satış dönemi sonu (dahil)
+     * @param branchId           opsiyonel şube (null = tüm şubeler)
+     * @param limit              en çok satanlar listesinin uzunluğu
+     * @param threshold          yavaş satan eşiği (adet)
+     * @param expiringWithinDays SKT uyarı penceresi (gün)
+     */
+    DashboardResponse load(LocalDate from, LocalDate to, Long branchId,
+                           int limit, long threshold, int expiringWithinDays);
+}
@@ -0,0 +1,169 @@
+package com.example.inventory_system.service;
+
+import com.example.inventory_system.domain.Branch;
+import com.example.inventory_system.dto.BranchValuationResponse;
+import com.example.inventory_system.dto.DashboardResponse;
+import com.example.inventory_system.repository.BranchRepository;
+import com.example.inventory_system.repository.ProductBatchRepository;
+import com.example.inventory_system.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bölümler rapor uçlarıyla aynı ReportQueryService'i çağırır; böylece cache, single-flight ve
+ * hesaplama mantığı tek yerde kalır. Her bölüm kendi virtual thread'inde çalışır ve repository
+ * çağrıları kendi bağlantısını alır. Eşzamanlı bölüm sayısı tüm istekler genelinde
+ * max-concurrent-queries ile sınırlıdır: panel açılış dalgası Hikari havuzunu satış
+ * yazmalarının elinden almasın.
+ *
+ * Süresi (timeout-ms) dolan bölüm iptal edilir ve null döner; diğer bölümler yine gelir.
+ */
+@Slf4j
+@Service
+public class DashboardServiceImpl implements DashboardService {
+
+    private static final int RECOMMENDATION_WINDOW_DAYS = 30;
+
+    private final ReportQueryService reports;
+    private final InventoryValuationService valuationService;
+    private final ProductBatchRepository batches;
+    private final ProductRepository products;
+    private final BranchRepository branches;
+    private final Semaphore queryPermits;
+    private final long timeoutMs;
+
+    public DashboardServiceImpl(ReportQueryService reports,
+                                InventoryValuationService valuationService,
+                                ProductBatchRepository batches,
+                                ProductRepository products,
+                                BranchRepository branches,
+                                @Value("${inventory.dashboard.max-concurrent-queries:6}") int maxConcurrentQueries,
+                                @Value("${inventory.dashboard.timeout-ms:10000}") long timeoutMs) {
+        this.reports = reports;
+        this.valuationService = valuationService;
+        this.batches = batches;
+        this.products = products;
+        this.branches = branches;
+        this.queryPermits = new Semaphore(Math.max(1, maxConcurrentQueries), true);
+        this.timeoutMs = Math.max(1, timeoutMs);
+    }
+
+    private record Section<T>(String name, Future<T> future, AtomicLong millis) {}
+
+    @Override
+    public DashboardResponse load(LocalDate from, LocalDate to, Long branchId,
+                                  int limit, long threshold, int expiringWithinDays) {
+        if (from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must not be after to");
+        }
+
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            var income = submit(executor, "incomeStatement",
+                    () -> reports.incomeStatement(from, to, branchId));
+            var inventoryValue = submit(executor, "inventoryValue",
+                    () -> valuationService.valuation(branchId));
+            var salesTrend = submit(executor, "salesTrend",
+                    () -> reports.salesTrend(from, to, branchId));
+            var bestsellers = submit(executor, "bestsellers",
+                    () -> reports.bestsellers(from, to, branchId, limit));
+            var slowMovers = submit(executor, "slowMovers",
+                    () -> reports.slowMovers(from, to, branchId, threshold));
+            var expiring = submit(executor, "expiringBatches",
+                    () -> batches.countExpiringUntil(LocalDate.now().plusDays(expiringWithinDays), branchId));
+            var recs = submit(executor, "recommendations",
+                    () -> reports.recommendations(from, to, branchId,
+                            RECOMMENDATION_WINDOW_DAYS, RECOMMENDATION_WINDOW_DAYS));
+            var branchCards = submit(executor, "branches", this::branchCards);
+
+            long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            List<DashboardResponse.SectionTiming> timings = new ArrayList<>();
+            return new DashboardResponse(
+                    from, to, branchId,
+                    await(income, deadline, timings),
+                    await(inventoryValue, deadline, timings),
+                    await(salesTrend, deadline, timings),
+                    await(bestsellers, deadline, timings),
+                    await(slowMovers, deadline, timings),
+                    await(expiring, deadline, timings),
+                    await(recs, deadline, timings),
+                    await(branchCards, deadline, timings),
+                    timings,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } finally {
+            // iptal edilen bölümlerin beklenmesi yanıtı geciktirmesin
+            executor.shutdown();
+        }
+    }
+
+    // ========== HELPERS ==========
+
+    private List<DashboardResponse.BranchCard> branchCards() {
+        Map<Long, BigDecimal> values = new HashMap<>();
+        for (BranchValuationResponse v : valuationService.valuationByBranch()) {
+            values.put(v.branchId(), v.value());
+        }
+        Map<Long, Long> productCounts = new HashMap<>();
+        for (Object[] r : products.countByBranch()) {
+            productCounts.put(((Number) r[0]).longValue(), ((Number) r[1]).longValue());
+        }
+
+        List<DashboardResponse.BranchCard> out = new ArrayList<>();
+        for (Branch b : branches.findAll(Sort.by(Sort.Direction.ASC, "name"))) {
+            out.add(new DashboardResponse.BranchCard(
+                    b.getId(),
+                    b.getName(),
+                    values.getOrDefault(b.getId(), BigDecimal.ZERO),
+                    productCounts.getOrDefault(b.getId(), 0L)));
+        }
+        return out;
+    }
+
+    private <T> Section<T> submit(ExecutorService executor, String name, Supplier<T> work) {
+        AtomicLong millis = new AtomicLong(-1);
+        Future<T> future = executor.submit(() -> {
+            queryPermits.acquire();
+            long t0 = System.nanoTime();
+            try {
+                return work.get();
+            } finally {
+                millis.set(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0));
+                queryPermits.release();
+            }
+        });
+        return new Section<>(name, future, millis);
+    }
+
+    private <T> T await(Section<T> section, long deadline, List<DashboardResponse.SectionTiming> timings) {
+        String error = null;
+        T value = null;
+        try {
+            value = section.future().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            section.future().cancel(true);
+            error = "timeout";
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            section.future().cancel(true);
+            error = "interrupted";
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            error = cause instanceof ResponseStatusException rse ? rse.getReason() : String.valueOf(cause);
+            log.warn("Dashboard section {} failed", section.name(), cause);
+        }
+        timings.add(new DashboardResponse.SectionTiming(section.name(), section.millis().get(), error));
+        return value;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.inventory_system.service;
+
+import java.util.Collection;
+
+/**
+ * Okuma uçlarının ETag'i için veri sürümü. Şube başına bir sayaç (satış, mal kabul, transfer,
+ * stok düzeltme) ve şubeden bağımsız bir genel sayaç (ürün, kategori, şube tanımları) tutulur;
+ * yazma commit olduktan sonra artar. Sürüm değişmediyse o kapsamdaki yanıt da değişmemiştir.
+ */
+public interface DataVersionService {
+
+    /**
+     * ETag değeri (tırnaksız). branchScoped=false ise yalnızca genel sayaç (şube / kategori
+     * listeleri); true ise genel sayaç + branchId'nin sayacı, branchId null ise tüm şubeler.
+     */
+    String tag(boolean branchScoped, Long branchId);
+
+    /** Şubelerin satış / stok verisi değişti. */
+    void branchesChanged(Collection<Long> branchIds);
+
+    /** Şubeden bağımsız tanımlar değişti (ürün, kategori, şube; tüm okumalar etkilenir). */
+    void allChanged();
+}
@@ -0,0 +1,77 @@
+package com.example.inventory_system.service;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sayaçlar bellektedir (tek node). Etiket süreç başına rastgele bir önek taşır: yeniden
+ * başlatmadan önce verilmiş ETag'ler sayaçlar sıfırlandığı için asla eşleşmez. Bugünün tarihi de
+ * etikete girer; SKT uyarıları gibi "bugüne göre" hesaplanan yanıtlar gün dönünce yenilenir.
+ *
+ * Artış commit'ten sonra, aynı transaction'da daha önce kaydedilen rapor cache geçersiz
+ * kılmasından sonra çalışır (kayıt sırası): yeni sürümü gören istek eski cache kaydını görmez.
+ */
+@Service
+public class DataVersionServiceImpl implements DataVersionService {
+
+    private final String boot = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final AtomicLong global = new AtomicLong();
+    private final AtomicLong anyBranch = new AtomicLong();
+    private final Map<Long, AtomicLong> byBranch = new ConcurrentHashMap<>();
+
+    @Override
+    public String tag(boolean branchScoped, Long branchId) {
+        StringBuilder tag = new StringBuilder(boot).append('-').append(global.get());
+        if (branchScoped) {
+            long branchVersion = branchId == null ? anyBranch.get() : branchCounter(branchId).get();
+            tag.append('-').append(branchId == null ? "all" : branchId)
+               .append('.').append(branchVersion)
+               .append('-').append(LocalDate.now().toEpochDay());
+        }
+        return tag.toString();
+    }
+
+    @Override
+    public void branchesChanged(Collection<Long> branchIds) {
+        if (branchIds.isEmpty()) return;
+        Set<Long> touched = Set.copyOf(branchIds);
+        afterCommit(() -> {
+            for (Long branchId : touched) branchCounter(branchId).incrementAndGet();
+            anyBranch.incrementAndGet();
+        });
+    }
+
+    @Override
+    public void allChanged() {
+        afterCommit(global::incrementAndGet);
+    }
+
+    // ========== HELPERS ==========
+
+    private AtomicLong branchCounter(Long branchId) {
+        return byBranch.computeIfAbsent(branchId, id -> new AtomicLong());
+    }
+
+    // aktif transaction yoksa yazma zaten commit edilmiştir
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.inventory_system.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Locale;
+
+/**
+ * Dışa aktarma dosya biçimi (?format=csv|ndjson).
+ */
+public enum ExportFormat {
+    /** Başlık satırı + RFC 4180 kaçışlı değerler. */
+    CSV("text/csv", "csv"),
+    /** Satır başına bir JSON nesnesi. */
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    /** ?format parametresi (büyük / küçük harf duyarsız); bilinmeyen değer 400. */
+    public static ExportFormat parse(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "format must be csv or ndjson");
+        }
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+}
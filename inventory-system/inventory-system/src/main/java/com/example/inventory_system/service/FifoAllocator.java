@@ -0,0 +1,113 @@
+package com.example.inventory_system.service;
+
+import com.example.inventory_system.domain.ProductBatch;
+import com.example.inventory_system.dto.SaleCreateRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Kilitlenmiş batch'ler üzerinde bellekte FIFO/FEFO tüketimi yapar.
+ * Entity'lere dokunmaz; tüketilen miktarlar {@link #consumed()} ile toplu yazılır.
+ */
+final class FifoAllocator {
+
+    // FIFO sırası: SKT (null en sonda), createdAt, id
+    static final Comparator<ProductBatch> FIFO_ORDER = Comparator
+            .comparing(ProductBatch::getExpiryDate, Comparator.nullsLast(Comparator.<LocalDate>naturalOrder()))
+            .thenComparing(ProductBatch::getCreatedAt, Comparator.nullsLast(Comparator.<LocalDateTime>naturalOrder()))
+            .thenComparing(ProductBatch::getId);
+
+    private record Key(Long productId, Long branchId) {}
+
+    private final Map<Key, List<ProductBatch>> layersByKey = new HashMap<>();
+    private final Map<Long, ProductBatch> batchesById = new HashMap<>();
+    private final Map<Long, Integer> remainingByBatch = new HashMap<>();
+    private final Map<Long, Integer> consumedByBatch = new TreeMap<>();
+
+    FifoAllocator(Collection<ProductBatch> batches) {
+        for (ProductBatch b : batches) {
+            int qty = Optional.ofNullable(b.getQuantity()).orElse(0);
+            if (qty <= 0) continue;
+            layersByKey.computeIfAbsent(new Key(b.getProduct().getId(), b.getBranch().getId()),
+                    k -> new ArrayList<>()).add(b);
+            remainingByBatch.put(b.getId(), qty);
+            batchesById.put(b.getId(), b);
+        }
+        layersByKey.values().forEach(l -> l.sort(FIFO_ORDER));
+    }
+
+    /**
+     * Bir satışın satırlarını sırayla tüketir ve satır bazlı COGS listesi döner.
+     * Önce ürün bazında yeterlilik kontrol edilir; stok yetmezse hiçbir şey tüketilmez,
+     * böylece aynı allocator üzerinde sıradaki satışlar etkilenmez.
+     */
+    List<BigDecimal> allocate(Long branchId, List<SaleCreateRequest.Item> items) {
+        Map<Long, Integer> demand = new LinkedHashMap<>();
+        for (SaleCreateRequest.Item item : items) {
+            demand.merge(item.productId(), item.quantity(), Integer::sum);
+        }
+        for (Map.Entry<Long, Integer> e : demand.entrySet()) {
+            if (available(new Key(e.getKey(), branchId)) < e.getValue()) {
+                throw new ResponseStatusException(
+                        HttpStatus.CONFLICT,
+                        "Insufficient stock for product %d at branch %d".formatted(e.getKey(), branchId)
+                );
+            }
+        }
+
+        List<BigDecimal> cogs = new ArrayList<>(items.size());
+        for (SaleCreateRequest.Item item : items) {
+            cogs.add(consume(new Key(item.productId(), branchId), item.quantity()));
+        }
+        return cogs;
+    }
+
+    /** batchId -> bu allocator üzerinden tüketilen toplam adet (id sıralı). */
+    Map<Long, Integer> consumed() {
+        return consumedByBatch;
+    }
+
+    /** Tüketilen batch'lerin okunduğu andaki version'ları (koşullu update için). */
+    Map<Long, Long> consumedVersions() {
+        Map<Long, Long> versions = new HashMap<>();
+        for (ProductBatch b : batchesById.values()) {
+            if (consumedByBatch.containsKey(b.getId())) {
+                versions.put(b.getId(), b.getVersion() != null ? b.getVersion() : 0L);
+            }
+        }
+        return versions;
+    }
+
+    private long available(Key key) {
+        long sum = 0;
+        for (ProductBatch b : layersByKey.getOrDefault(key, List.of())) {
+            sum += remainingByBatch.get(b.getId());
+        }
+        return sum;
+    }
+
+    private BigDecimal consume(Key key, int qty) {
+        int remaining = qty;
+        BigDecimal cogs = BigDecimal.ZERO;
+
+        for (ProductBatch b : layersByKey.getOrDefault(key, List.of())) {
+            if (remaining == 0) break;
+
+            int left = remainingByBatch.get(b.getId());
+            if (left <= 0) continue;
+
+            int use = Math.min(remaining, left);
+            cogs = cogs.add(b.getUnitCost().multiply(BigDecimal.valueOf(use)));
+
+            remainingByBatch.put(b.getId(), left - use);
+            consumedByBatch.merge(b.getId(), use, Integer::sum);
+            remaining -= use;
+        }
+        return cogs;
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.inventory_system.service;
+
+import com.example.inventory_system.dto.SaleCreateRequest;
+import com.example.inventory_system.repository.ProductBatchJdbcRepository;
+import com.example.inventory_system.repository.ProductBatchJdbcRepository.OpenBatchRow;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * LEDGER satış modunda açık batch katmanlarının tek otoritesi: (ürün, şube) başına FIFO/FEFO
+ * sıralı katman listesi bellekte tutulur ve tüketim DB'ye gitmeden yapılır.
+ *
+ * - Her (ürün, şube) anahtarı sabit sayıda kilitten birine (stripe) düşer; çok ürünlü satış
+ *   ilgili stripe'ları artan sırada alır, böylece deadlock olmaz.
+ * - Anahtar ilk kullanıldığında product_batches'tan yüklenir; uygulama çöktükten sonra bellekteki
+ *   durum, write-behind ile yazılmış (commit edilmiş) satışlarla tutarlı olarak yeniden kurulur.
+ * - Yalnızca tek node için geçerlidir: batch'leri bu süreç dışında tüketen bir yazıcı olmamalı.
+ */
+@Component
+class FifoLedger {
+
+    private static final int STRIPES = 256;
+
+    private record Key(Long productId, Long branchId) {}
+
+    private static final class Layer {
+        final long batchId;
+        final LocalDate expiryDate;
+        final LocalDateTime createdAt;
+        final BigDecimal unitCost;
+        int remaining;
+
+        Layer(OpenBatchRow row) {
+            this.batchId = row.id();
+            this.expiryDate = row.expiryDate();
+            this.createdAt = row.createdAt();
+            this.unitCost = row.unitCost();
+            this.remaining = row.quantity();
+        }
+    }
+
+    // FifoAllocator.FIFO_ORDER ile aynı: SKT (null en sonda), createdAt, id
+    private static final Comparator<Layer> LAYER_ORDER = Comparator
+            .comparing((Layer l) -> l.expiryDate, Comparator.nullsLast(Comparator.<LocalDate>naturalOrder()))
+            .thenComparing(l -> l.createdAt, Comparator.nullsLast(Comparator.<LocalDateTime>naturalOrder()))
+            .thenComparingLong(l -> l.batchId);
+
+    /** Bir satışın sonucu: satır bazlı COGS ve batchId -> tüketilen adet. */
+    record Allocation(List<BigDecimal> lineCogs, Map<Long, Integer> consumedByBatch) {}
+
+    private final ProductBatchJdbcRepository batchJdbcRepository;
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    // liste içerikleri yalnızca ilgili stripe kilidi altında değişir
+    private final Map<Key, List<Layer>> layersByKey = new ConcurrentHashMap<>();
+    private volatile boolean active;
+
+    FifoLedger(ProductBatchJdbcRepository batchJdbcRepository) {
+        this.batchJdbcRepository = batchJdbcRepository;
+        for (int i = 0; i < STRIPES; i++) locks[i] = new ReentrantLock();
+    }
+
+    /**
+     * Açılışta tüm açık batch'leri tek sorguda yükler. Bu arada ilk kullanımla yüklenmiş
+     * anahtarların üzerine yazılmaz.
+     */
+    void warmUp() {
+        active = true;
+        Map<Key, List<Layer>> snapshot = new HashMap<>();
+        for (OpenBatchRow row : batchJdbcRepository.findOpenBatches()) {
+            snapshot.computeIfAbsent(new Key(row.productId(), row.branchId()), k -> new ArrayList<>())
+                    .add(new Layer(row));
+        }
+        for (Map.Entry<Key, List<Layer>> e : snapshot.entrySet()) {
+            ReentrantLock lock = lockFor(e.getKey());
+            lock.lock();
+            try {
+                e.getValue().sort(LAYER_ORDER);
+                layersByKey.putIfAbsent(e.getKey(), e.getValue());
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Satışın tüm satırlarını atomik olarak tüketir. Önce ürün bazında yeterlilik kontrol edilir;
+     * stok yetmezse hiçbir katmana dokunulmaz (FifoAllocator ile aynı sözleşme).
+     */
+    Allocation allocate(Long branchId, List<SaleCreateRequest.Item> items) {
+        active = true;
+        Map<Key, Integer> demand = new LinkedHashMap<>();
+        for (SaleCreateRequest.Item item : items) {
+            demand.merge(new Key(item.productId(), branchId), item.quantity(), Integer::sum);
+        }
+
+        SortedSet<Integer> stripes = new TreeSet<>();
+        for (Key key : demand.keySet()) stripes.add(stripe(key));
+        for (int s : stripes) locks[s].lock();
+        try {
+            for (Map.Entry<Key, Integer> e : demand.entrySet()) {
+                if (available(ensureLoaded(e.getKey())) < e.getValue()) {
+                    throw new ResponseStatusException(
+                            HttpStatus.CONFLICT,
+                            "Insufficient stock for product %d at branch %d".formatted(e.getKey().productId(), branchId)
+                    );
+                }
+            }
+
+            Map<Long, Integer> consumed = new TreeMap<>();
+            List<BigDecimal> cogs = new ArrayList<>(items.size());
+            for (SaleCreateRequest.Item item : items) {
+                cogs.add(consume(layersByKey.get(new Key(item.productId(), branchId)), item.quantity(), consumed));
+            }
+            return new Allocation(cogs, consumed);
+        } finally {
+            for (int s : stripes) locks[s].unlock();
+        }
+    }
+
+    /** receiveBatch commit edildikten sonra yeni katmanı ekler. */
+    void addBatch(OpenBatchRow row) {
+        if (!active) return;
+        Key key = new Key(row.productId(), row.branchId());
+        ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            List<Layer> layers = layersByKey.get(key);
+            if (layers == null) {
+                // henüz yüklenmemiş: DB'den okumak bu batch'i de getirir
+                ensureLoaded(key);
+                return;
+            }
+            for (Layer l : layers) {
+                if (l.batchId == row.id()) return;
+            }
+            layers.add(new Layer(row));
+            layers.sort(LAYER_ORDER);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ========== HELPERS ==========
+
+    // çağıran stripe kilidini tutuyor olmalı
+    private List<Layer> ensureLoaded(Key key) {
+        List<Layer> layers = layersByKey.get(key);
+        if (layers != null) return layers;
+
+        layers = new ArrayList<>();
+        for (OpenBatchRow row : batchJdbcRepository.findOpenBatches(key.productId(), key.branchId())) {
+            layers.add(new Layer(row));
+        }
+        layers.sort(LAYER_ORDER);
+        layersByKey.put(key, layers);
+        return layers;
+    }
+
+    private static long available(List<Layer> layers) {
+        long sum = 0;
+        for (Layer l : layers) sum += l.remaining;
+        return sum;
+    }
+
+    private static BigDecimal consume(List<Layer> layers, int qty, Map<Long, Integer> consumed) {
+        int remaining = qty;
+        BigDecimal cogs = BigDecimal.ZERO;
+
+        Iterator<Layer> it = layers.iterator();
+        while (it.hasNext() && remaining > 0) {
+            Layer l = it.next();
+            int use = Math.min(remaining, l.remaining);
+            if (use > 0) {
+                cogs = cogs.add(l.unitCost.multiply(BigDecimal.valueOf(use)));
+                l.remaining -= use;
+                consumed.merge(l.batchId, use, Integer::sum);
+                remaining -= use;
+            }
+            if (l.remaining <= 0) it.remove();
+        }
+        return cogs;
+    }
+
+    private int stripe(Key key) {
+        return Math.floorMod(key.hashCode(), STRIPES);
+    }
+
+    private ReentrantLock lockFor(Key key) {
+        return locks[stripe(key)];
+    }
+}
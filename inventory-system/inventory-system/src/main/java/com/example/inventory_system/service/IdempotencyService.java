@@ -0,0 +1,42 @@
+package com.example.inventory_system.service;
+
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key başlığıyla gelen yazma isteklerini tekilleştirir: aynı anahtarla gelen tekrar,
+ * işlemi yeniden çalıştırmadan ilk başarılı yanıtı döner.
+ */
+public interface IdempotencyService {
+
+    /**
+     * key null ise action doğrudan çalışır. Aynı anahtar farklı bir istekle kullanılırsa 422,
+     * ilk istek hâlâ işleniyorsa ya da commit olup yanıtı kaydedilemediyse 409 döner. Commit
+     * olmadan başarısız olan işlem anahtarı serbest bırakır.
+     *
+     * @param scope   uç nokta adı; istek parmak izine dahil edilir
+     * @param request parmak izi için istek gövdesi
+     */
+    <T> T execute(String key, String scope, Object request, Class<T> responseType, Supplier<T> action);
+
+    /**
+     * execute içindeki işlem, kendi yazma transaction'ında yazmalardan önce çağırır: anahtar bu
+     * transaction'ın commit'inden hemen önce, aynı bağlantıda COMMITTED işaretlenir. Anahtarsız
+     * istekte, transaction dışında ya da salt okunur transaction'da bir şey yapmaz.
+     */
+    void markCommittedWithCurrentTransaction();
+
+    /**
+     * Yazma başka bir thread'e devrediliyorsa (write-behind) execute içindeki işlem çağırır. Yanıt
+     * kaydedilir ama anahtar, yazıcı {@link #markCommitted(Handoff)} ile işaretleyene kadar
+     * tamamlanmış sayılmaz. Anahtarsız istekte null.
+     */
+    Handoff handOff();
+
+    /**
+     * Yazıcının transaction'ı içinde çağrılır. false: anahtar bu arada bir tekrar tarafından
+     * devralınmış, yazma yapılmamalı (tekrar işlemi kendisi uygular).
+     */
+    boolean markCommitted(Handoff handoff);
+
+    record Handoff(String key, String owner) {}
+}
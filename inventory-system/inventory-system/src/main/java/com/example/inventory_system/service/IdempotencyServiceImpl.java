@@ -0,0 +1,252 @@
+package com.example.inventory_system.service;
+
+import com.example.inventory_system.repository.IdempotencyJdbcRepository;
+import com.example.inventory_system.repository.IdempotencyJdbcRepository.KeyRow;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Tamamlanmış yanıtlar önce bellekteki LRU/TTL cache'te, kalıcı olarak idempotency_keys
+ * tablosunda tutulur. Anahtar ilk istek tarafından INSERT ... ON CONFLICT ile sahiplenilir;
+ * eşzamanlı tekrarlar tabloda çakışır ve işlemi ikinci kez çalıştıramaz.
+ *
+ * Satış / mal kabul kodu kendi yazma transaction'ına markCommittedWithCurrentTransaction ile
+ * bir TransactionSynchronization ekler; anahtar o transaction'ın commit'inden hemen önce COMMITTED
+ * işaretlenir. Böylece işlem commit edip yanıt kaydedilmeden süreç ölse de anahtar COMMITTED kalır
+ * ve tekrar 409 alır; işlem ikinci kez çalışmaz. Doğrulama gibi yazmayan transaction'lar anahtara
+ * dokunmaz: reddedilen istek anahtarı bırakır, aynı anahtarla tekrar denenebilir.
+ *
+ * LEDGER modunda yazma write-behind thread'inde olur: işlem handOff ile anahtarı devreder, yanıt
+ * IN_PROGRESS kayda yazılır ve anahtar yazıcının transaction'ında işaretlenir (yanıt varsa doğrudan
+ * COMPLETED). Yazma commit olmadan süreç ölürse anahtar IN_PROGRESS kalır; tekrar devralıp uygular.
+ *
+ * Commit olmadan ölen isteğin anahtarı IN_PROGRESS kalır, in-flight-timeout sonrası gelen tekrar
+ * onu devralıp işlemi çalıştırır. Devralınan anahtarı eski sahibi işaretleyemez, geç kalan
+ * transaction'ı geri alınır.
+ */
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 128;
+
+    private record Cached(String requestHash, Object response, long expiresAt) {}
+
+    private static final class Claim {
+        final String key;
+        final String owner;
+        boolean handedOff;
+
+        Claim(String key, String owner) {
+            this.key = key;
+            this.owner = owner;
+        }
+    }
+
+    // bu thread'de çalışan işlemin anahtarı
+    private final ThreadLocal<Claim> current = new ThreadLocal<>();
+
+    private final IdempotencyJdbcRepository repository;
+    private final ObjectMapper objectMapper;
+    private final long ttlSeconds;
+    private final long inFlightTimeoutSeconds;
+    private final Map<String, Cached> cache;
+    private volatile long lastPurge = System.currentTimeMillis();
+
+    public IdempotencyServiceImpl(IdempotencyJdbcRepository repository,
+                                  ObjectMapper objectMapper,
+                                  @Value("${inventory.idempotency.ttl-hours:24}") long ttlHours,
+                                  @Value("${inventory.idempotency.in-flight-timeout-seconds:60}") long inFlightTimeoutSeconds,
+                                  @Value("${inventory.idempotency.cache-size:10000}") int cacheSize) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.ttlSeconds = TimeUnit.HOURS.toSeconds(Math.max(1, ttlHours));
+        this.inFlightTimeoutSeconds = Math.max(1, inFlightTimeoutSeconds);
+        int maxEntries = Math.max(1, cacheSize);
+        this.cache = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public <T> T execute(String key, String scope, Object request, Class<T> responseType, Supplier<T> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+        String hash = fingerprint(scope, request);
+
+        Cached cached = cacheGet(key);
+        if (cached != null) {
+            requireSameRequest(cached.requestHash(), hash);
+            return responseType.cast(cached.response());
+        }
+
+        purgeIfDue();
+        for (int attempt = 0; attempt < 3; attempt++) {
+            String owner = UUID.randomUUID().toString();
+            if (repository.claim(key, hash, owner)) {
+                return run(new Claim(key, owner), hash, responseType, action);
+            }
+
+            Optional<KeyRow> existing = repository.find(key, ttlSeconds, inFlightTimeoutSeconds);
+            if (existing.isEmpty()) continue;            // bu arada serbest bırakıldı
+            KeyRow row = existing.get();
+            if (row.expired()) {
+                repository.deleteExpired(key, ttlSeconds);
+                continue;
+            }
+            requireSameRequest(row.requestHash(), hash);
+
+            if ("COMPLETED".equals(row.status())) {
+                T response = read(row.responseBody(), responseType);
+                cachePut(key, hash, response);
+                return response;
+            }
+            if ("COMMITTED".equals(row.status()) && row.stale()) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "A request with this Idempotency-Key was applied but its response was not recorded");
+            }
+            if (row.stale() && repository.takeOver(key, hash, owner, inFlightTimeoutSeconds)) {
+                return run(new Claim(key, owner), hash, responseType, action);
+            }
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "A request with this Idempotency-Key is still being processed");
+        }
+        throw new ResponseStatusException(HttpStatus.CONFLICT, "Idempotency-Key is contended, please retry");
+    }
+
+    @Override
+    public void markCommittedWithCurrentTransaction() {
+        Claim claim = current.get();
+        if (claim == null
+                || !TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            // işaret yazılamazsa commit yerine rollback olur
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                if (!repository.markCommitted(claim.key, claim.owner)) {
+                    throw new ResponseStatusException(HttpStatus.CONFLICT,
+                            "Idempotency-Key was taken over by a retry, request was not applied");
+                }
+            }
+        });
+    }
+
+    @Override
+    public Handoff handOff() {
+        Claim claim = current.get();
+        if (claim == null) return null;
+        claim.handedOff = true;
+        return new Handoff(claim.key, claim.owner);
+    }
+
+    @Override
+    public boolean markCommitted(Handoff handoff) {
+        return repository.markCommitted(handoff.key(), handoff.owner());
+    }
+
+    // ========== HELPERS ==========
+
+    private <T> T run(Claim claim, String hash, Class<T> responseType, Supplier<T> action) {
+        T response;
+        current.set(claim);
+        try {
+            response = action.get();
+        } catch (RuntimeException ex) {
+            // commit olmuşsa (COMMITTED) ya da yazma devredilmişse anahtar kalır
+            if (!claim.handedOff) repository.release(claim.key, claim.owner);
+            throw ex;
+        } finally {
+            current.remove();
+        }
+        if (claim.handedOff) {
+            repository.stageResponse(claim.key, claim.owner, write(response));
+        } else {
+            repository.complete(claim.key, claim.owner, write(response));
+        }
+        cachePut(claim.key, hash, response);
+        return response;
+    }
+
+    private static void requireSameRequest(String storedHash, String hash) {
+        if (!storedHash.equals(hash)) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key was already used with a different request");
+        }
+    }
+
+    private synchronized Cached cacheGet(String key) {
+        Cached c = cache.get(key);
+        if (c != null && c.expiresAt() < System.currentTimeMillis()) {
+            cache.remove(key);
+            return null;
+        }
+        return c;
+    }
+
+    private synchronized void cachePut(String key, String hash, Object response) {
+        cache.put(key, new Cached(hash, response, System.currentTimeMillis() + ttlSeconds * 1000));
+    }
+
+    // süresi dolmuş kayıtları en fazla 10 dakikada bir temizle
+    private void purgeIfDue() {
+        long now = System.currentTimeMillis();
+        if (now - lastPurge < 600_000) return;
+        lastPurge = now;
+        repository.purgeExpired(ttlSeconds);
+    }
+
+    private String fingerprint(String scope, Object request) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            sha.update(scope.getBytes(StandardCharsets.UTF_8));
+            sha.update((byte) 0);
+            sha.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(sha.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot fingerprint request", ex);
+        }
+    }
+
+    private String write(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot store idempotent response", ex);
+        }
+    }
+
+    private <T> T read(String body, Class<T> responseType) {
+        try {
+            return body == null ? null : objectMapper.readValue(body, responseType);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot read stored idempotent response", ex);
+        }
+    }
+}
@@ -3,6 +3,10 @@ package com.example.inventory_system.service;
 import com.example.inventory_system.dto.PurchaseRequest;
 import com.example.inventory_system.dto.SaleCreateRequest;
 import com.example.inventory_system.dto.SaleResponse;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 public interface InventoryService {
 
@@ -11,8 +15,24 @@ public interface InventoryService {
      */
     SaleResponse createSale(SaleCreateRequest request);
 
+    /**
+     * createSale ile aynı; satış, sale_item ve stock_movement satırları verilen zamanla yazılır
+     * (kasadan sonradan aktarılan satışlar için). null ise şimdiki zaman.
+     */
+    SaleResponse createSale(SaleCreateRequest request, LocalDateTime createdAt);
+
+    /**
+     * Birden fazla satışı tek transaction'da işler (bulk chunk). Hatalı satışlar reddedilir,
+     * diğerleri yazılır. Dönen liste istek sırasıyla birebir eşleşir.
+     */
+    List<SaleOutcome> createSales(List<SaleCreateRequest> requests);
+
     /**
      * Tek ürünlük purchase isteğine göre batch ekler ve stokları günceller.
      */
     void receiveBatch(PurchaseRequest request);
+
+    record SaleOutcome(SaleResponse sale, ResponseStatusException error) {
+        public boolean accepted() { return error == null; }
+    }
 }
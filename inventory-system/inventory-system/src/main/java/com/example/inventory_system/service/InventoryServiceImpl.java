@@ -5,17 +5,25 @@ import com.example.inventory_system.dto.PurchaseRequest;
 import com.example.inventory_system.dto.SaleCreateRequest;
 import com.example.inventory_system.dto.SaleResponse;
 import com.example.inventory_system.repository.*;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
 
 @Service
 @RequiredArgsConstructor
@@ -25,164 +33,308 @@ public class InventoryServiceImpl implements InventoryService {
     private final BranchRepository branchRepository;
     private final ProductRepository productRepository;
     private final ProductBatchRepository batchRepository;
-    private final SaleRepository saleRepository;
-    private final SaleItemRepository saleItemRepository;
-    private final StockMovementRepository stockMovementRepository;
+    private final ProductBatchJdbcRepository batchJdbcRepository;
+    private final SaleJdbcRepository saleJdbcRepository;
+    private final InventoryLedgerJdbcRepository inventoryLedgerJdbcRepository;
+    private final SalesRollupJdbcRepository salesRollupJdbcRepository;
+    private final StockCounterService stockCounterService;
+    private final InventoryValuationService inventoryValuationService;
+    private final ReportCacheService reportCacheService;
+    private final DataVersionService dataVersionService;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final FifoLedger fifoLedger;
+    private final SaleWriteBehind saleWriteBehind;
+    private final PurchaseService purchaseService;
+    private final IdempotencyService idempotencyService;
+
+    @Value("${inventory.sales.concurrency-mode:PESSIMISTIC}")
+    private SaleConcurrencyMode concurrencyMode;
+
+    @Value("${inventory.sales.optimistic.max-attempts:5}")
+    private int optimisticMaxAttempts;
+
+    @Value("${inventory.sales.optimistic.backoff-ms:5}")
+    private long optimisticBackoffMs;
+
+    @Value("${inventory.sales.optimistic.max-backoff-ms:100}")
+    private long optimisticMaxBackoffMs;
 
     // ========== PUBLIC METHODS ==========
 
+    // LEDGER modunda açık batch'ler trafik gelmeden belleğe alınır
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void warmUpLedger() {
+        if (concurrencyMode == SaleConcurrencyMode.LEDGER) {
+            fifoLedger.warmUp();
+        }
+    }
+
+    // Satış metotları kendi transaction'larını yönetir: optimistic modda çakışan deneme
+    // tamamen geri alınıp yeni bir transaction'da tekrar denenir.
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public SaleResponse createSale(SaleCreateRequest request) {
+        return createSale(request, null);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SaleResponse createSale(SaleCreateRequest request, LocalDateTime createdAt) {
         if (request == null || request.items() == null || request.items().isEmpty()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Sale items cannot be empty");
         }
 
-        Long branchId = request.branchId();
-        Branch branch = branchRepository.findById(branchId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Branch not found: " + branchId));
-
-        // Satış kaydı: toplamı sonra set edeceğiz
-        Sale sale = new Sale(branch, BigDecimal.ZERO);
-        saleRepository.save(sale);
-
-        BigDecimal total = BigDecimal.ZERO;
-        List<SaleResponse.Line> responseLines = new ArrayList<>();
-
-        for (SaleCreateRequest.Item item : request.items()) {
-            Long productId = item.productId();
-            Integer qty = item.quantity();
-            BigDecimal unitPrice = item.unitPrice();
-
-            if (qty == null || qty <= 0) {
-                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Quantity must be > 0");
-            }
+        SaleOutcome outcome = executeSales(List.of(request), createdAt).get(0);
+        if (!outcome.accepted()) {
+            throw outcome.error();
+        }
+        return outcome.sale();
+    }
 
-            Product product = productRepository.findById(productId)
-                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
-                            "Product not found: " + productId));
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<SaleOutcome> createSales(List<SaleCreateRequest> requests) {
+        return executeSales(requests, null);
+    }
 
-            // FIFO batch tüket + COGS hesapla
-            BigDecimal cogs = consumeFifoBatches(productId, branchId, qty);
+    @Override
+    public void receiveBatch(PurchaseRequest request) {
+        if (request == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Request cannot be null");
+        }
 
-            // SaleItem kaydı (entity ctor'unu kullanıyoruz)
-            SaleItem saleItem = new SaleItem(sale, product, qty, unitPrice, cogs);
-            saleItemRepository.save(saleItem);
+        purchaseService.createPurchase(request.branchId(), List.of(new PurchaseService.PurchaseLine(
+                request.productId(),
+                request.quantity() != null ? request.quantity() : 0,
+                request.unitCost(),
+                request.expiryDate())));
+    }
 
-            // toplam ve response line
-            BigDecimal lineTotal = unitPrice.multiply(BigDecimal.valueOf(qty));
-            total = total.add(lineTotal);
+    // ========== HELPERS ==========
 
-            // Stok movement (OUT)
-            recordStockMovement(product, StockMovement.Type.OUT, qty);
+    // createdAt null ise satış anı kullanılır
+    private List<SaleOutcome> executeSales(List<SaleCreateRequest> requests, LocalDateTime createdAt) {
+        if (concurrencyMode == SaleConcurrencyMode.LEDGER) {
+            return ledgerSales(requests, createdAt);
+        }
 
-            // İsteğe bağlı: Product.stock alanı doluysa güncelle
-            Integer currentStock = product.getStock();
-            if (currentStock != null) {
-                product.setStock(currentStock - qty);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        boolean optimistic = concurrencyMode == SaleConcurrencyMode.OPTIMISTIC;
+
+        for (int attempt = 1; ; attempt++) {
+            // OSIV açıkken EntityManager istek boyunca yaşıyor; önceki deneme/chunk'ın
+            // bayat batch/product entity'leri okumayı gölgelemesin.
+            entityManager.clear();
+            try {
+                return tx.execute(status -> processSales(requests, optimistic, createdAt));
+            } catch (OptimisticLockingFailureException ex) {
+                if (!optimistic || attempt >= optimisticMaxAttempts) {
+                    throw new ResponseStatusException(HttpStatus.CONFLICT,
+                            "Stock was modified concurrently, please retry", ex);
+                }
+                backoff(attempt);
             }
-
-            responseLines.add(new SaleResponse.Line(
-                    productId,
-                    qty,
-                    unitPrice,
-                    cogs
-            ));
-        }
-
-        sale.setTotalAmount(total);
-        // createdAt zaten entity içinde now() ile set ediliyor
-        // saleRepository.save(sale); // @Transactional olduğu için zorunlu değil ama sorun da yok
-
-        return new SaleResponse(
-                sale.getId(),
-                branchId,
-                total,
-                sale.getCreatedAt(),
-                responseLines
-        );
+        }
     }
 
-    @Override
-    public void receiveBatch(PurchaseRequest request) {
-        if (request == null) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Request cannot be null");
+    // üstel bekleme + jitter, optimisticMaxBackoffMs ile sınırlı
+    private void backoff(int attempt) {
+        long ceiling = Math.min(optimisticMaxBackoffMs, optimisticBackoffMs << Math.min(attempt - 1, 16));
+        long sleepMs = ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+        try {
+            Thread.sleep(sleepMs);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while retrying sale");
         }
+    }
 
-        Long branchId = request.branchId();
-        Long productId = request.productId();
+    private record PendingSale(int index, SaleCreateRequest request, List<BigDecimal> lineCogs) {}
 
-        Branch branch = branchRepository.findById(branchId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Branch not found: " + branchId));
+    /**
+     * Satış motoru: tüm şube/ürünleri tek sorguda yükler, ilgili tüm batch'leri tek kilitli
+     * sorguda (id sırasıyla) alır, FIFO tüketimini bellekte yapar ve tüm yazmaları JDBC batch ile atar.
+     * Her satış yazmadan önce doğrulanır; reddedilen satış hiçbir şeye dokunmaz.
+     * Optimistic modda batch'ler kilitsiz okunur, yazarken version uyuşmazsa
+     * OptimisticLockingFailureException fırlar ve tüm deneme geri alınır.
+     */
+    private List<SaleOutcome> processSales(List<SaleCreateRequest> requests, boolean optimistic,
+                                           LocalDateTime createdAt) {
+        Set<Long> branchIds = new TreeSet<>();
+        Set<Long> productIds = new TreeSet<>();
+        for (SaleCreateRequest req : requests) {
+            if (req == null) continue;
+            if (req.branchId() != null) branchIds.add(req.branchId());
+            if (req.items() == null) continue;
+            for (SaleCreateRequest.Item item : req.items()) {
+                if (item != null && item.productId() != null) productIds.add(item.productId());
+            }
+        }
 
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found: " + productId));
+        Map<Long, Branch> branchesById = new HashMap<>();
+        branchRepository.findAllById(branchIds).forEach(b -> branchesById.put(b.getId(), b));
+        Map<Long, Product> productsById = new HashMap<>();
+        productRepository.findAllById(productIds).forEach(p -> productsById.put(p.getId(), p));
+
+        FifoAllocator allocator = new FifoAllocator(branchIds.isEmpty() || productIds.isEmpty()
+                ? List.of()
+                : optimistic
+                ? batchRepository.findConsumableBatches(productIds, branchIds)
+                : batchRepository.lockConsumableBatches(productIds, branchIds));
+
+        // 1) Doğrula + bellekte tüket
+        SaleOutcome[] outcomes = new SaleOutcome[requests.size()];
+        List<PendingSale> pending = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            SaleCreateRequest req = requests.get(i);
+            try {
+                validateSale(req, branchesById::containsKey, productsById::containsKey);
+                pending.add(new PendingSale(i, req, allocator.allocate(req.branchId(), req.items())));
+            } catch (ResponseStatusException ex) {
+                outcomes[i] = new SaleOutcome(null, ex);
+            }
+        }
+        if (pending.isEmpty()) {
+            return Arrays.asList(outcomes);
+        }
 
-        Integer qty = request.quantity();
-        if (qty == null || qty <= 0) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Quantity must be > 0");
+        // 2) Tüm yazmalar toplu; Idempotency-Key'li istekte anahtar bu transaction'la işaretlenir
+        idempotencyService.markCommittedWithCurrentTransaction();
+        batchJdbcRepository.decrementQuantities(allocator.consumed(), allocator.consumedVersions());
+
+        LocalDateTime now = createdAt != null ? createdAt : LocalDateTime.now();
+        List<Long> saleIds = saleJdbcRepository.nextSaleIds(pending.size());
+        List<SaleJdbcRepository.SaleRow> saleRows = new ArrayList<>(pending.size());
+        List<SaleJdbcRepository.SaleItemRow> itemRows = new ArrayList<>();
+        Map<Long, Integer> stockDecrements = new TreeMap<>();
+
+        for (int s = 0; s < pending.size(); s++) {
+            PendingSale ps = pending.get(s);
+            SaleRows rows = buildSaleRows(saleIds.get(s), ps.request(), ps.lineCogs(), now);
+            saleRows.add(rows.sale());
+            itemRows.addAll(rows.items());
+            rows.stockDecrements().forEach((id, qty) -> stockDecrements.merge(id, qty, Integer::sum));
+            outcomes[ps.index()] = new SaleOutcome(rows.response(), null);
         }
 
-        // Yeni batch
-        ProductBatch batch = new ProductBatch(
-                product,
-                branch,
-                request.expiryDate(),
-                request.unitCost(),
-                qty
-        );
-        batchRepository.save(batch);
+        saleJdbcRepository.insertSales(saleRows);
+        inventoryLedgerJdbcRepository.appendSales(itemRows, saleJdbcRepository.insertSaleItems(itemRows));
+        salesRollupJdbcRepository.add(itemRows);
+        inventoryValuationService.recordSales(itemRows);
+        reportCacheService.salesCommitted(itemRows);
+        dataVersionService.branchesChanged(itemRows.stream().map(SaleJdbcRepository.SaleItemRow::branchId).toList());
+        stockCounterService.decrementUnchecked(stockDecrements);
 
-        // Stok movement (IN)
-        recordStockMovement(product, StockMovement.Type.IN, qty);
+        return Arrays.asList(outcomes);
+    }
 
-        // Product.stock varsa güncelle
-        Integer currentStock = product.getStock();
-        if (currentStock != null) {
-            product.setStock(currentStock + qty);
+    /**
+     * LEDGER modu: FIFO tüketimi bellekte (FifoLedger) yapılır, yazmalar SaleWriteBehind
+     * kuyruğuna bırakılır. Satış başına DB turu yoktur; şube/ürün varlığı yalnızca
+     * tüketim reddedildiğinde, doğru hata kodunu dönmek için DB'den kontrol edilir.
+     */
+    private List<SaleOutcome> ledgerSales(List<SaleCreateRequest> requests, LocalDateTime createdAt) {
+        List<SaleOutcome> outcomes = new ArrayList<>(requests.size());
+        for (SaleCreateRequest req : requests) {
+            try {
+                outcomes.add(new SaleOutcome(ledgerSale(req, createdAt), null));
+            } catch (ResponseStatusException ex) {
+                outcomes.add(new SaleOutcome(null, ex));
+            }
         }
+        return outcomes;
     }
 
-    // ========== HELPERS ==========
+    private SaleResponse ledgerSale(SaleCreateRequest req, LocalDateTime createdAt) {
+        validateSale(req, id -> true, id -> true);
+
+        // kuyrukta yer yoksa katmanlara dokunmadan 503
+        saleWriteBehind.reserve();
+        boolean submitted = false;
+        try {
+            FifoLedger.Allocation allocation;
+            try {
+                allocation = fifoLedger.allocate(req.branchId(), req.items());
+            } catch (ResponseStatusException ex) {
+                // stok mu yetmedi, şube/ürün mü yok?
+                validateSale(req, branchRepository::existsById, productRepository::existsById);
+                throw ex;
+            }
 
-    /**
-     * FIFO mantığıyla ilgili product + branch için batch tüketir ve toplam COGS döner.
-     */
-    private BigDecimal consumeFifoBatches(Long productId, Long branchId, int sellQty) {
-        if (sellQty <= 0) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Quantity must be > 0");
+            SaleRows rows = buildSaleRows(saleWriteBehind.nextSaleId(), req, allocation.lineCogs(),
+                    createdAt != null ? createdAt : LocalDateTime.now());
+            saleWriteBehind.submit(new SaleWriteBehind.PendingWrite(rows.sale(), rows.items(),
+                    allocation.consumedByBatch(), rows.stockDecrements(), idempotencyService.handOff()));
+            submitted = true;
+            return rows.response();
+        } finally {
+            if (!submitted) saleWriteBehind.cancelReservation();
         }
+    }
 
-        List<ProductBatch> fifo = batchRepository.findFifoBatchesForSale(productId, branchId);
-        int remaining = sellQty;
-        BigDecimal cogs = BigDecimal.ZERO;
+    private record SaleRows(SaleJdbcRepository.SaleRow sale,
+                            List<SaleJdbcRepository.SaleItemRow> items,
+                            Map<Long, Integer> stockDecrements,
+                            SaleResponse response) {}
 
-        for (ProductBatch b : fifo) {
-            if (remaining == 0) break;
+    private SaleRows buildSaleRows(Long saleId, SaleCreateRequest req, List<BigDecimal> lineCogs, LocalDateTime now) {
+        List<SaleCreateRequest.Item> items = req.items();
+        List<SaleJdbcRepository.SaleItemRow> itemRows = new ArrayList<>(items.size());
+        Map<Long, Integer> stockDecrements = new TreeMap<>();
 
-            Integer available = Optional.ofNullable(b.getQuantity()).orElse(0);
-            if (available <= 0) continue;
+        BigDecimal total = BigDecimal.ZERO;
+        List<SaleResponse.Line> responseLines = new ArrayList<>(items.size());
 
-            int use = Math.min(remaining, available);
-            BigDecimal part = b.getUnitCost().multiply(BigDecimal.valueOf(use));
-            cogs = cogs.add(part);
+        for (int i = 0; i < items.size(); i++) {
+            SaleCreateRequest.Item item = items.get(i);
+            Long productId = item.productId();
+            Integer qty = item.quantity();
+            BigDecimal unitPrice = item.unitPrice();
+            BigDecimal cogs = lineCogs.get(i);
 
-            b.setQuantity(available - use);
-            remaining -= use;
-        }
+            itemRows.add(new SaleJdbcRepository.SaleItemRow(saleId, req.branchId(), productId, qty, unitPrice, cogs, now));
 
-        if (remaining > 0) {
-            throw new ResponseStatusException(
-                    HttpStatus.CONFLICT,
-                    "Insufficient stock for product %d at branch %d".formatted(productId, branchId)
-            );
+            // toplam ve response line
+            total = total.add(unitPrice.multiply(BigDecimal.valueOf(qty)));
+
+            stockDecrements.merge(productId, qty, Integer::sum);
+
+            responseLines.add(new SaleResponse.Line(productId, qty, unitPrice, cogs));
         }
 
-        return cogs;
+        Long branchId = req.branchId();
+        return new SaleRows(
+                new SaleJdbcRepository.SaleRow(saleId, branchId, total, now),
+                itemRows,
+                stockDecrements,
+                new SaleResponse(saleId, branchId, total, now, responseLines));
     }
 
-    private void recordStockMovement(Product product, StockMovement.Type type, int qty) {
-        if (stockMovementRepository == null) return;
-        StockMovement mv = new StockMovement(product, type, qty);
-        stockMovementRepository.save(mv);
+    private void validateSale(SaleCreateRequest req,
+                              Predicate<Long> branchExists,
+                              Predicate<Long> productExists) {
+        if (req == null || req.items() == null || req.items().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Sale items cannot be empty");
+        }
+        Long branchId = req.branchId();
+        if (branchId == null || !branchExists.test(branchId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Branch not found: " + branchId);
+        }
+        for (SaleCreateRequest.Item item : req.items()) {
+            if (item == null || item.productId() == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Product id is required");
+            }
+            if (item.quantity() == null || item.quantity() <= 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Quantity must be > 0");
+            }
+            if (item.unitPrice() == null || item.unitPrice().signum() < 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unit price must be >= 0");
+            }
+            if (!productExists.test(item.productId())) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found: " + item.productId());
+            }
+        }
     }
 }
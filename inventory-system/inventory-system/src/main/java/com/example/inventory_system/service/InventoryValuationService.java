@@ -0,0 +1,38 @@
+package com.example.inventory_system.service;
+
+import com.example.inventory_system.dto.BranchValuationResponse;
+import com.example.inventory_system.dto.ValuationCheckResponse;
+import com.example.inventory_system.repository.SaleJdbcRepository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Envanter değeri (kalan batch adedi * birim maliyet). Varsayılan olarak tek bir SQL SUM ile
+ * hesaplanır; inventory.valuation.counter-enabled açıksa şube başına bellekte tutulan sayaçtan
+ * O(1) okunur. Sayaç batch değerini değiştiren her commit'ten sonra güncellenir, periyodik
+ * kontrol işi SQL ile karşılaştırıp sapmayı düzeltir.
+ */
+public interface InventoryValuationService {
+
+    /** branchId null ise tüm şubelerin toplamı. */
+    BigDecimal valuation(Long branchId);
+
+    List<BranchValuationResponse> valuationByBranch();
+
+    /**
+     * Batch değerini değiştiren yazma (mal kabul +, satış COGS -): branchId -> değer farkı.
+     * Aktif transaction varsa commit'ten sonra, yoksa hemen uygulanır.
+     */
+    void recordChange(Map<Long, BigDecimal> deltaByBranch);
+
+    /** Satış kalemlerinin COGS'u kadar (tüketilen batch değeri) şube değerini düşer. */
+    void recordSales(List<SaleJdbcRepository.SaleItemRow> items);
+
+    /** Toplu silme (ürün / şube) gibi farkı hesaplanamayan yazmalardan sonra sayacı yeniden yükler. */
+    void reload();
+
+    /** Sayacı SQL ile karşılaştırır, sapan şubeleri düzeltir. Sayaç kapalıysa boş liste. */
+    List<ValuationCheckResponse> check();
+}
@@ -0,0 +1,227 @@
+package com.example.inventory_system.service;
+
+import com.example.inventory_system.dto.BranchValuationResponse;
+import com.example.inventory_system.dto.ValuationCheckResponse;
+import com.example.inventory_system.repository.ProductBatchRepository;
+import com.example.inventory_system.repository.SaleJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Sayaç ile SQL'in tutarlı karşılaştırılması:
+ * - Her değer farkı beforeCommit'te "pending" sayılır, afterCommit'te (read lock altında) sayaca
+ *   uygulanır, ancak ondan sonra pending'den düşülür.
+ * - Yeniden yükleme / kontrol write lock alır ve SQL'i okur; SQL bittiğinde pending sıfırsa,
+ *   SQL'in gördüğü her commit'in farkı sayaçtadır ve görmediği hiçbir fark henüz uygulanmamıştır.
+ *   pending sıfır değilse bu tur düzeltme yapılmaz (bir sonraki turda tekrar denenir).
+ * - Düzeltme / yeniden yükleme okunan değeri değiştirdiyse o şubelerin veri sürümü artar
+ *   (ETag'li değer okumaları eski yanıtı 304 ile sunmasın).
+ */
+@Slf4j
+@Service
+public class InventoryValuationServiceImpl implements InventoryValuationService {
+
+    private final ProductBatchRepository batchRepository;
+    private final DataVersionService dataVersionService;
+    private final boolean counterEnabled;
+
+    private final Map<Long, BigDecimal> counters = new ConcurrentHashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile boolean loaded;   // false iken okumalar SQL'e gider
+
+    public InventoryValuationServiceImpl(ProductBatchRepository batchRepository,
+                                         DataVersionService dataVersionService,
+                                         @Value("${inventory.valuation.counter-enabled:false}") boolean counterEnabled) {
+        this.batchRepository = batchRepository;
+        this.dataVersionService = dataVersionService;
+        this.counterEnabled = counterEnabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadCounters() {
+        if (counterEnabled) reload();
+    }
+
+    @Scheduled(cron = "${inventory.valuation.check-cron:0 */10 * * * *}")
+    public void scheduledCheck() {
+        if (!counterEnabled) return;
+        try {
+            if (!loaded) {
+                reload();
+            } else {
+                check();
+            }
+        } catch (RuntimeException ex) {
+            log.error("Inventory valuation check failed", ex);
+        }
+    }
+
+    @Override
+    public BigDecimal valuation(Long branchId) {
+        if (counterEnabled && loaded) {
+            if (branchId != null) return counters.getOrDefault(branchId, BigDecimal.ZERO);
+            BigDecimal total = BigDecimal.ZERO;
+            for (BigDecimal v : counters.values()) total = total.add(v);
+            return total;
+        }
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal v : queryValuations(branchId).values()) total = total.add(v);
+        return total;
+    }
+
+    @Override
+    public List<BranchValuationResponse> valuationByBranch() {
+        Map<Long, BigDecimal> values = counterEnabled && loaded ? new TreeMap<>(counters) : queryValuations(null);
+        List<BranchValuationResponse> out = new ArrayList<>(values.size());
+        values.forEach((branchId, value) -> out.add(new BranchValuationResponse(branchId, value)));
+        return out;
+    }
+
+    @Override
+    public void recordChange(Map<Long, BigDecimal> deltaByBranch) {
+        if (!counterEnabled || deltaByBranch.isEmpty()) return;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(deltaByBranch);
+            return;
+        }
+        Map<Long, BigDecimal> delta = Map.copyOf(deltaByBranch);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean counted;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                pending.incrementAndGet();
+                counted = true;
+            }
+
+            @Override
+            public void afterCommit() {
+                apply(delta);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (counted) pending.decrementAndGet();
+            }
+        });
+    }
+
+    @Override
+    public void recordSales(List<SaleJdbcRepository.SaleItemRow> items) {
+        if (!counterEnabled) return;
+        Map<Long, BigDecimal> delta = new HashMap<>();
+        for (SaleJdbcRepository.SaleItemRow item : items) {
+            if (item.cogsAmount() != null) delta.merge(item.branchId(), item.cogsAmount().negate(), BigDecimal::add);
+        }
+        recordChange(delta);
+    }
+
+    @Override
+    public void reload() {
+        if (!counterEnabled) return;
+        for (int attempt = 0; attempt < 20; attempt++) {
+            lock.writeLock().lock();
+            try {
+                Map<Long, BigDecimal> actual = queryValuations(null);
+                if (pending.get() == 0) {
+                    // sayaç kullanılmıyorken okumalar zaten SQL'den geliyordu
+                    List<Long> changed = loaded ? changedBranches(counters, actual) : List.of();
+                    counters.clear();
+                    counters.putAll(actual);
+                    loaded = true;
+                    dataVersionService.branchesChanged(changed);
+                    return;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        // commit'ler hiç durulmadı: sayaç bir sonraki kontrole kadar kullanılmaz
+        loaded = false;
+        log.warn("Inventory valuation counters could not be reloaded, falling back to SQL");
+    }
+
+    @Override
+    public List<ValuationCheckResponse> check() {
+        if (!counterEnabled) return List.of();
+
+        lock.writeLock().lock();
+        try {
+            Map<Long, BigDecimal> actual = queryValuations(null);
+            boolean quiescent = pending.get() == 0;
+
+            Set<Long> branchIds = new TreeSet<>(actual.keySet());
+            branchIds.addAll(counters.keySet());
+            List<ValuationCheckResponse> out = new ArrayList<>(branchIds.size());
+            List<Long> repairedBranches = new ArrayList<>();
+            for (Long branchId : branchIds) {
+                BigDecimal counter = counters.getOrDefault(branchId, BigDecimal.ZERO);
+                BigDecimal real = actual.getOrDefault(branchId, BigDecimal.ZERO);
+                BigDecimal drift = counter.subtract(real);
+                boolean repaired = false;
+                if (drift.signum() != 0 && quiescent) {
+                    log.warn("Inventory valuation drift at branch {}: counter={} actual={}", branchId, counter, real);
+                    if (actual.containsKey(branchId)) counters.put(branchId, real);
+                    else counters.remove(branchId);
+                    repaired = true;
+                    repairedBranches.add(branchId);
+                }
+                out.add(new ValuationCheckResponse(branchId, counter, real, drift, repaired));
+            }
+            dataVersionService.branchesChanged(repairedBranches);
+            return out;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ========== HELPERS ==========
+
+    private static List<Long> changedBranches(Map<Long, BigDecimal> before, Map<Long, BigDecimal> after) {
+        Set<Long> branchIds = new TreeSet<>(before.keySet());
+        branchIds.addAll(after.keySet());
+        List<Long> changed = new ArrayList<>();
+        for (Long branchId : branchIds) {
+            if (before.getOrDefault(branchId, BigDecimal.ZERO).compareTo(after.getOrDefault(branchId, BigDecimal.ZERO)) != 0) {
+                changed.add(branchId);
+            }
+        }
+        return changed;
+    }
+
+    private void apply(Map<Long, BigDecimal> delta) {
+        lock.readLock().lock();
+        try {
+            delta.forEach((branchId, d) -> counters.merge(branchId, d, BigDecimal::add));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, BigDecimal> queryValuations(Long branchId) {
+        Map<Long, BigDecimal> out = new TreeMap<>();
+        for (Object[] r : batchRepository.valuationByBranch(branchId)) {
+            out.put(((Number) r[0]).longValue(), (BigDecimal) r[1]);
+        }
+        return out;
+    }
+}
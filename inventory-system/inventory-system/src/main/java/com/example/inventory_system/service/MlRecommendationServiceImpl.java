@@ -5,7 +5,7 @@ import com.example.inventory_system.dto.MlRecommendationItemResponse;
 import com.example.inventory_system.dto.MlRecommendationResponse;
 import com.example.inventory_system.repository.ProductBatchRepository;
 import com.example.inventory_system.repository.ProductRepository;
-import com.example.inventory_system.repository.SaleItemRepository;
+import com.example.inventory_system.repository.SalesDailyRollupRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -20,36 +20,20 @@ import java.util.*;
 public class MlRecommendationServiceImpl implements MlRecommendationService {
 
     private final ProductRepository products;
-    private final SaleItemRepository saleItems;
+    private final SalesDailyRollupRepository rollups;
     private final ProductBatchRepository batches;
 
     @Override
     public MlRecommendationResponse generate(LocalDate from, LocalDate to, Long branchId, int horizonDays) {
         if (horizonDays <= 0) horizonDays = 30;
 
-        LocalDateTime fromTs = from.atStartOfDay();
-        LocalDateTime toTs = to.plusDays(1).atStartOfDay();
-
         // === 1) Günlük satış serisi ===
-        List<Object[]> rows = saleItems.dailySalesByProduct(fromTs, toTs, branchId);
-
         // productId -> (date -> qty)
         Map<Long, NavigableMap<LocalDate, Long>> seriesByProduct = new HashMap<>();
-        for (Object[] r : rows) {
-            Long pid = (Long) r[0];
-            LocalDate day;
-            Object raw = r[1];
-            if (raw instanceof java.sql.Date d) day = d.toLocalDate();
-            else if (raw instanceof java.sql.Timestamp ts) day = ts.toLocalDateTime().toLocalDate();
-            else if (raw instanceof LocalDate ld) day = ld;
-            else if (raw instanceof LocalDateTime ldt) day = ldt.toLocalDate();
-            else throw new IllegalStateException("Unsupported date type: " + raw.getClass());
-
-            Long qty = (Long) r[2];
-
+        for (SalesDailyRollupRepository.ProductDayQuantity r : rollups.dailySalesByProduct(from, to, branchId)) {
             seriesByProduct
-                    .computeIfAbsent(pid, k -> new TreeMap<>())
-                    .merge(day, qty != null ? qty : 0L, Long::sum);
+                    .computeIfAbsent(r.productId(), k -> new TreeMap<>())
+                    .merge(r.day(), r.quantity() != null ? r.quantity() : 0L, Long::sum);
         }
 
         long totalDays = Math.max(1, ChronoUnit.DAYS.between(from, to) + 1);
@@ -0,0 +1,119 @@
+package com.example.inventory_system.service;
+
+import com.example.inventory_system.domain.Branch;
+import com.example.inventory_system.domain.Product;
+import com.example.inventory_system.domain.ProductBatch;
+import com.example.inventory_system.repository.*;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Çok satırlı mal kabul: şube ve tüm ürünler tek sorguda çözülür, batch ve ledger satırları
+ * Hibernate JDBC batch'i ile (pooled sequence id'leri sayesinde) toplu insert edilir,
+ * Product.stock ürün başına tek satırlık bir JDBC batch ile artırılır.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class PurchaseServiceImpl implements PurchaseService {
+
+    private final BranchRepository branchRepository;
+    private final ProductRepository productRepository;
+    private final ProductBatchRepository batchRepository;
+    private final InventoryLedgerJdbcRepository inventoryLedgerJdbcRepository;
+    private final StockCounterService stockCounterService;
+    private final InventoryValuationService inventoryValuationService;
+    private final ReportCacheService reportCacheService;
+    private final DataVersionService dataVersionService;
+    private final FifoLedger fifoLedger;
+    private final IdempotencyService idempotencyService;
+
+    @Override
+    public void createPurchase(Long branchId, List<PurchaseLine> lines) {
+        if (lines == null || lines.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Purchase lines cannot be empty");
+        }
+        Set<Long> productIds = new TreeSet<>();
+        for (PurchaseLine line : lines) {
+            if (line == null || line.productId() == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Product id is required");
+            }
+            productIds.add(line.productId());
+        }
+
+        Branch branch = (branchId == null ? Optional.<Branch>empty() : branchRepository.findById(branchId))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Branch not found: " + branchId));
+
+        Map<Long, Product> productsById = new HashMap<>();
+        productRepository.findAllById(productIds).forEach(p -> productsById.put(p.getId(), p));
+
+        List<ProductBatch> batches = new ArrayList<>(lines.size());
+        Map<Long, Integer> stockIncrements = new TreeMap<>();
+        BigDecimal value = BigDecimal.ZERO;
+
+        for (PurchaseLine line : lines) {
+            Product product = productsById.get(line.productId());
+            if (product == null) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found: " + line.productId());
+            }
+            if (line.quantity() <= 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Quantity must be > 0");
+            }
+            if (line.unitCost() == null || line.unitCost().signum() < 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unit cost must be >= 0");
+            }
+
+            batches.add(new ProductBatch(product, branch, line.expiry(), line.unitCost(), line.quantity()));
+            stockIncrements.merge(product.getId(), line.quantity(), Integer::sum);
+            value = value.add(line.unitCost().multiply(BigDecimal.valueOf(line.quantity())));
+        }
+
+        idempotencyService.markCommittedWithCurrentTransaction();
+        batchRepository.saveAll(batches);
+        inventoryLedgerJdbcRepository.append(ledgerEntries(branch.getId(), batches));
+        stockCounterService.incrementAll(stockIncrements);
+        inventoryValuationService.recordChange(Map.of(branch.getId(), value));
+        reportCacheService.stockChanged(List.of(branch.getId()));
+        dataVersionService.branchesChanged(List.of(branch.getId()));
+
+        registerLedgerLayers(batches);
+    }
+
+    // id'ler saveAll'da (pooled sequence) atanır
+    private static List<InventoryLedgerJdbcRepository.Entry> ledgerEntries(Long branchId, List<ProductBatch> batches) {
+        List<InventoryLedgerJdbcRepository.Entry> entries = new ArrayList<>(batches.size());
+        for (ProductBatch b : batches) {
+            entries.add(new InventoryLedgerJdbcRepository.Entry(b.getCreatedAt(),
+                    InventoryLedgerJdbcRepository.EntryType.PURCHASE, branchId, b.getProduct().getId(),
+                    b.getQuantity(), b.getUnitCost(), b.getUnitCost().multiply(BigDecimal.valueOf(b.getQuantity())),
+                    InventoryLedgerJdbcRepository.DOC_PRODUCT_BATCH, b.getId()));
+        }
+        return entries;
+    }
+
+    // LEDGER modunda yeni katmanlar commit'ten sonra bellekteki ledger'a eklenir
+    private void registerLedgerLayers(List<ProductBatch> batches) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+
+        List<ProductBatchJdbcRepository.OpenBatchRow> layers = new ArrayList<>(batches.size());
+        for (ProductBatch b : batches) {
+            layers.add(new ProductBatchJdbcRepository.OpenBatchRow(
+                    b.getId(), b.getProduct().getId(), b.getBranch().getId(), b.getExpiryDate(),
+                    b.getCreatedAt(), b.getUnitCost(), b.getQuantity()));
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                layers.forEach(fifoLedger::addBatch);
+            }
+        });
+    }
+}
@@ -4,7 +4,7 @@ import com.example.inventory_system.domain.Product;
 import com.example.inventory_system.dto.RecommendationItemResponse;
 import com.example.inventory_system.repository.ProductBatchRepository;
 import com.example.inventory_system.repository.ProductRepository;
-import com.example.inventory_system.repository.SaleItemRepository;
+import com.example.inventory_system.repository.SalesDailyRollupRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -19,7 +19,7 @@ import java.util.*;
 public class RecommendationServiceImpl implements RecommendationService {
 
     private final ProductRepository products;
-    private final SaleItemRepository saleItems;
+    private final SalesDailyRollupRepository rollups;
     private final ProductBatchRepository batches;
 
     @Override
@@ -35,10 +35,8 @@ public class RecommendationServiceImpl implements RecommendationService {
 
         // 1) Satış adetleri (tarih aralığında)
         Map<Long, Long> soldQty = new HashMap<>();
-        for (Object[] row : saleItems.salesByProduct(fromTs, toTs, branchId)) {
-            Long pid = (Long) row[0];
-            Long qty = (Long) row[1];
-            soldQty.put(pid, qty != null ? qty : 0L);
+        for (SalesDailyRollupRepository.ProductQuantity row : rollups.salesByProduct(from, to, branchId)) {
+            soldQty.put(row.productId(), row.quantity() != null ? row.quantity() : 0L);
         }
 
         // 2) Mevcut stok (batch tablosundan)
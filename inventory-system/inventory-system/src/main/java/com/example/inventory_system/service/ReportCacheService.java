@@ -0,0 +1,53 @@
+package com.example.inventory_system.service;
+
+import com.example.inventory_system.repository.SaleJdbcRepository;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Rapor / öneri sonuçlarının bellekte tutulması. Her kayıt hangi şubeye (null = tüm şubeler) ve
+ * hangi satış günlerine bağlı olduğunu anahtarında taşır; yazmalar commit olduğunda yalnızca
+ * etkilenen şube + gün aralığına düşen kayıtlar silinir. Boyut ve TTL sınırı konfigürasyondan.
+ */
+public interface ReportCacheService {
+
+    /**
+     * @param report        rapor adı
+     * @param branchId      raporun şube filtresi (null = tüm şubeler)
+     * @param from          okunan ilk satış günü (null = sınırsız)
+     * @param to            okunan son satış günü, dahil (null = sınırsız)
+     * @param stockSensitive rapor güncel stok / batch da okuyorsa true (mal kabul, transfer,
+     *                      stok düzeltme de kaydı geçersiz kılar)
+     * @param params        sonucu etkileyen diğer parametreler (null olabilir)
+     */
+    record Key(String report, Long branchId, LocalDate from, LocalDate to,
+               boolean stockSensitive, List<Object> params) {
+
+        public static Key sales(String report, Long branchId, LocalDate from, LocalDate to, Object... params) {
+            return new Key(report, branchId, from, to, false, Arrays.asList(params));
+        }
+
+        public static Key stock(String report, Long branchId, LocalDate from, LocalDate to, Object... params) {
+            return new Key(report, branchId, from, to, true, Arrays.asList(params));
+        }
+    }
+
+    /**
+     * Kayıt varsa bellekten döner, yoksa loader çalışır ve sonuç saklanır. Aynı anahtarın
+     * eşzamanlı iskalamaları tek hesaplamada birleşir (ReportSingleFlight).
+     */
+    <T> T get(Key key, Supplier<T> loader);
+
+    /** Satış kalemleri yazıldı: kalemlerin şube + satış günü çiftlerine dokunan kayıtlar. */
+    void salesCommitted(List<SaleJdbcRepository.SaleItemRow> items);
+
+    /** Şubelerde stok / batch değişti (mal kabul, transfer, stok düzeltme). */
+    void stockChanged(Collection<Long> branchIds);
+
+    /** Kapsamı hesaplanamayan yazmalar (özet yeniden hesaplama, ürün/şube silme). */
+    void invalidateAll();
+}
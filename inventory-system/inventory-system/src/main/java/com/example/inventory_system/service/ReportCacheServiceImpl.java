@@ -0,0 +1,163 @@
+package com.example.inventory_system.service;
+
+import com.example.inventory_system.repository.SaleJdbcRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Geçersiz kılma commit'ten sonra çalışır; commit'ten önce başlamış bir yükleme eski veriyi
+ * okumuş olabilir. Bunun için her geçersiz kılma önce epoch'u artırır, sonra kayıtları tarar;
+ * yükleme sonucunu yalnızca epoch değişmediyse koyar. Tarama koymadan sonra geldiyse zaten
+ * kaydı görür.
+ *
+ * Iskalamada hesaplama ReportSingleFlight üzerinden yapılır: aynı anahtarın eşzamanlı
+ * iskalamaları tek sorguda birleşir.
+ *
+ * Metrikler: cache.gets{cache=reports,result=hit|miss}, cache.size, cache.evictions ve
+ * geçersiz kılınan kayıt sayısı reports.cache.invalidations{cause=sale|stock|all}.
+ */
+@Service
+public class ReportCacheServiceImpl implements ReportCacheService {
+
+    private record BranchDay(Long branchId, LocalDate day) {}
+
+    private final ReportSingleFlight singleFlight;
+    private final boolean enabled;
+    private final Cache<Key, Object> cache;
+    private final AtomicLong epoch = new AtomicLong();
+    private final Counter saleInvalidations;
+    private final Counter stockInvalidations;
+    private final Counter fullInvalidations;
+
+    public ReportCacheServiceImpl(ReportSingleFlight singleFlight,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${inventory.reports.cache.enabled:true}") boolean enabled,
+                                  @Value("${inventory.reports.cache.max-size:5000}") long maxSize,
+                                  @Value("${inventory.reports.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.singleFlight = singleFlight;
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(Math.max(1, maxSize))
+                .expireAfterWrite(Duration.ofSeconds(Math.max(1, ttlSeconds)))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "reports");
+        this.saleInvalidations = invalidationCounter(meterRegistry, "sale");
+        this.stockInvalidations = invalidationCounter(meterRegistry, "stock");
+        this.fullInvalidations = invalidationCounter(meterRegistry, "all");
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Key key, Supplier<T> loader) {
+        if (!enabled) return singleFlight.execute(key, loader);
+
+        Object cached = cache.getIfPresent(key);
+        if (cached != null) return (T) cached;
+
+        return singleFlight.execute(key, () -> {
+            // önceki lider biz beklemeden hemen önce koymuş olabilir (istatistiğe sayılmaz)
+            Object justLoaded = cache.asMap().get(key);
+            if (justLoaded != null) return (T) justLoaded;
+
+            long seen = epoch.get();
+            T value = loader.get();
+            if (value != null) {
+                // epoch kontrolü ile koyma aynı anahtar kilidi altında: geçersiz kılma başladıktan
+                // sonra eski sonuç bir an bile görünmez (ETag'ler yeni sürümü gösterirken)
+                cache.asMap().compute(key, (k, current) -> epoch.get() == seen ? value : current);
+            }
+            return value;
+        });
+    }
+
+    @Override
+    public void salesCommitted(List<SaleJdbcRepository.SaleItemRow> items) {
+        if (items.isEmpty()) return;
+        Set<BranchDay> touched = new HashSet<>();
+        for (SaleJdbcRepository.SaleItemRow item : items) {
+            touched.add(new BranchDay(item.branchId(), item.createdAt().toLocalDate()));
+        }
+        afterCommit(() -> invalidate(saleInvalidations, key -> {
+            for (BranchDay t : touched) {
+                if (coversBranch(key, t.branchId()) && (key.stockSensitive() || coversDay(key, t.day()))) {
+                    return true;
+                }
+            }
+            return false;
+        }));
+    }
+
+    @Override
+    public void stockChanged(Collection<Long> branchIds) {
+        if (branchIds.isEmpty()) return;
+        Set<Long> touched = Set.copyOf(branchIds);
+        afterCommit(() -> invalidate(stockInvalidations, key ->
+                key.stockSensitive() && (key.branchId() == null || touched.contains(key.branchId()))));
+    }
+
+    @Override
+    public void invalidateAll() {
+        afterCommit(() -> invalidate(fullInvalidations, key -> true));
+    }
+
+    // ========== HELPERS ==========
+
+    private void invalidate(Counter counter, Predicate<Key> affected) {
+        singleFlight.forget(affected);
+        if (!enabled) return;
+        epoch.incrementAndGet();
+        int removed = 0;
+        for (Iterator<Key> it = cache.asMap().keySet().iterator(); it.hasNext(); ) {
+            if (affected.test(it.next())) {
+                it.remove();
+                removed++;
+            }
+        }
+        counter.increment(removed);
+    }
+
+    private static boolean coversBranch(Key key, Long branchId) {
+        return key.branchId() == null || key.branchId().equals(branchId);
+    }
+
+    private static boolean coversDay(Key key, LocalDate day) {
+        return (key.from() == null || !day.isBefore(key.from()))
+                && (key.to() == null || !day.isAfter(key.to()));
+    }
+
+    // aktif transaction yoksa yazma zaten commit edilmiştir
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static Counter invalidationCounter(MeterRegistry registry, String cause) {
+        return Counter.builder("reports.cache.invalidations")
+                .description("Report cache entries removed because of a committed write")
+                .tag("cause", cause)
+                .register(registry);
+    }
+}
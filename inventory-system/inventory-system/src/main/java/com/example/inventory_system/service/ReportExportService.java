@@ -0,0 +1,22 @@
+package com.example.inventory_system.service;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+
+/**
+ * Büyük tarih aralıkları için rapor dışa aktarma. Yanıt satır satır yazılır; bellek kullanımı
+ * aralığın büyüklüğünden bağımsızdır. gzip=true ile dosya .gz olarak sıkıştırılmış iner.
+ */
+public interface ReportExportService {
+
+    ResponseEntity<StreamingResponseBody> productMargins(LocalDate from, LocalDate to, Long branchId,
+                                                         ExportFormat format, boolean gzip);
+
+    ResponseEntity<StreamingResponseBody> salesTrend(LocalDate from, LocalDate to, Long branchId,
+                                                     ExportFormat format, boolean gzip);
+
+    ResponseEntity<StreamingResponseBody> transactions(LocalDate from, LocalDate to, Long branchId,
+                                                       ExportFormat format, boolean gzip);
+}
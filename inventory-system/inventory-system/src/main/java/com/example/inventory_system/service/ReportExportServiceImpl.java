@@ -0,0 +1,169 @@
+package com.example.inventory_system.service;
+
+import com.example.inventory_system.repository.ReportExportJdbcRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Yanıt gövdesi MVC'nin async thread'inde yazılır: sorgu orada kendi read-only transaction'ında
+ * açılır, imleçten okunan her satır hemen yazıcıya geçer. Bellekte yalnızca fetch-size kadar
+ * satır ve yazma tamponu bulunur.
+ *
+ * İstemci bağlantıyı keserse yazma IOException'ı ile sorgu yarıda kalır, transaction geri alınır
+ * ve imleç kapanır.
+ */
+@Service
+public class ReportExportServiceImpl implements ReportExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+
+    private final ReportExportJdbcRepository repository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTx;
+
+    public ReportExportServiceImpl(ReportExportJdbcRepository repository,
+                                   ObjectMapper objectMapper,
+                                   PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    @Override
+    public ResponseEntity<StreamingResponseBody> productMargins(LocalDate from, LocalDate to, Long branchId,
+                                                                ExportFormat format, boolean gzip) {
+        return export("product-margins", from, to, format, gzip,
+                extractor -> repository.productMargins(from, to, branchId, extractor));
+    }
+
+    @Override
+    public ResponseEntity<StreamingResponseBody> salesTrend(LocalDate from, LocalDate to, Long branchId,
+                                                            ExportFormat format, boolean gzip) {
+        return export("sales-trend", from, to, format, gzip,
+                extractor -> repository.salesTrend(from, to, branchId, extractor));
+    }
+
+    @Override
+    public ResponseEntity<StreamingResponseBody> transactions(LocalDate from, LocalDate to, Long branchId,
+                                                              ExportFormat format, boolean gzip) {
+        return export("transactions", from, to, format, gzip,
+                extractor -> repository.transactions(from, to, branchId, extractor));
+    }
+
+    // ========== HELPERS ==========
+
+    private ResponseEntity<StreamingResponseBody> export(String name, LocalDate from, LocalDate to,
+                                                         ExportFormat format, boolean gzip,
+                                                         Consumer<ResultSetExtractor<Void>> query) {
+        if (from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must not be after to");
+        }
+
+        StreamingResponseBody body = out -> {
+            GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+            Writer writer = new BufferedWriter(
+                    new OutputStreamWriter(compressed != null ? compressed : out, StandardCharsets.UTF_8),
+                    BUFFER_SIZE);
+            readOnlyTx.executeWithoutResult(status -> query.accept(rs -> {
+                try {
+                    if (format == ExportFormat.CSV) writeCsv(rs, writer);
+                    else writeNdjson(rs, writer);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+                return null;
+            }));
+            writer.flush();
+            if (compressed != null) compressed.finish();
+        };
+
+        String filename = name + "_" + from + "_" + to + "." + format.extension() + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+                .contentType(gzip ? GZIP : new MediaType(MediaType.parseMediaType(format.contentType()),
+                        StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
+    private static void writeCsv(ResultSet rs, Writer writer) throws SQLException, IOException {
+        ResultSetMetaData meta = rs.getMetaData();
+        int columns = meta.getColumnCount();
+        for (int i = 1; i <= columns; i++) {
+            if (i > 1) writer.write(',');
+            writer.write(csvEscape(meta.getColumnLabel(i)));
+        }
+        writer.write("\r\n");
+
+        while (rs.next()) {
+            for (int i = 1; i <= columns; i++) {
+                if (i > 1) writer.write(',');
+                Object value = value(rs, i);
+                if (value == null) continue;
+                writer.write(csvEscape(value instanceof BigDecimal bd ? bd.toPlainString() : value.toString()));
+            }
+            writer.write("\r\n");
+        }
+    }
+
+    private void writeNdjson(ResultSet rs, Writer writer) throws SQLException, IOException {
+        ResultSetMetaData meta = rs.getMetaData();
+        int columns = meta.getColumnCount();
+        String[] labels = new String[columns + 1];
+        for (int i = 1; i <= columns; i++) labels[i] = meta.getColumnLabel(i);
+
+        // yazıcıyı kapatmasın: gzip bitişi ve flush gövdede yapılır
+        JsonGenerator json = objectMapper.getFactory().createGenerator(writer)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        json.setRootValueSeparator(null);
+        while (rs.next()) {
+            json.writeStartObject();
+            for (int i = 1; i <= columns; i++) {
+                json.writeFieldName(labels[i]);
+                json.writeObject(value(rs, i));
+            }
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+        json.flush();
+    }
+
+    // JSON'da ISO tarih, CSV'de ISO metin olsun diye java.time'a çevrilir
+    private static Object value(ResultSet rs, int column) throws SQLException {
+        Object v = rs.getObject(column);
+        if (v instanceof java.sql.Date d) return d.toLocalDate();
+        if (v instanceof Timestamp ts) return ts.toLocalDateTime();
+        return v;
+    }
+
+    private static String csvEscape(String s) {
+        if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0) {
+            return s;
+        }
+        return '"' + s.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.inventory_system.service;
+
+import com.example.inventory_system.dto.ReportJobPageResponse;
+import com.example.inventory_system.dto.ReportJobRequest;
+import com.example.inventory_system.dto.ReportJobResponse;
+
+/**
+ * Uzun tarih aralıklı raporların arka planda, sınırlı bir işçi havuzunda hesaplanması. Sonuç
+ * report_job_chunks'a parça parça yazılır ve sayfa sayfa okunur.
+ */
+public interface ReportJobService {
+
+    /**
+     * İşi kuyruğa alır. Aynı rapor + parametrelerle bekleyen / çalışan iş ya da taze sonuç
+     * varsa yeni iş açılmaz, o iş döner (reused = true). Kuyruk doluysa 503.
+     */
+    ReportJobResponse submit(ReportJobRequest request);
+
+    ReportJobResponse get(long id);
+
+    /** Yalnızca SUCCEEDED iş için; sayfa = sonuç parçası. */
+    ReportJobPageResponse page(long id, int page);
+}
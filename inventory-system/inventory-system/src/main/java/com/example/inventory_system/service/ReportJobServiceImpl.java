@@ -0,0 +1,411 @@
+package com.example.inventory_system.service;
+
+import com.example.inventory_system.dto.MlRecommendationResponse;
+import com.example.inventory_system.dto.ReportJobPageResponse;
+import com.example.inventory_system.dto.ReportJobRequest;
+import com.example.inventory_system.dto.ReportJobResponse;
+import com.example.inventory_system.repository.ReportJobJdbcRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * İşler rapor uçlarıyla aynı ReportQueryService'i çağırır (DashboardServiceImpl gibi): hesaplama,
+ * cache ve single-flight tek yerde kalır. Parametreler gönderimde ayrıştırılır; hatalı / bilinmeyen
+ * parametre kuyruğa girmeden 400 döner.
+ *
+ * - İşçi sayısı ve kuyruk kapasitesi sabittir (workers, queue-capacity); kuyruk doluysa 503.
+ * - Aynı işin tekrarı: bekleyen / çalışan iş DB'de kısmi unique index ile tekildir, başarılı
+ *   sonuç fresh-seconds boyunca yeniden kullanılır.
+ * - Sonuç satırları chunk-size'lık JSON parçaları halinde yazılır. progress gerçek adımları izler:
+ *   hesaplama bitince COMPUTED_PROGRESS, sonra yazılan parça oranıyla 100'e çıkar. Hesaplamanın
+ *   kendisi (tek sorgu / cache) bölünemediği için arada ara değer yoktur.
+ * - Kuyruk bellektedir (tek node): açılışta önceki süreçten kalan bitmemiş işler FAILED olur.
+ *
+ * Metrikler: reports.jobs.queued, reports.jobs.finished{report,status}.
+ */
+@Slf4j
+@Service
+public class ReportJobServiceImpl implements ReportJobService {
+
+    private static final List<String> REPORTS = List.of(
+            "bestsellers", "slow-movers", "sales-trend", "category-sales", "product-margins",
+            "income-statement", "time-to-empty", "branch-matrix", "inventory-valuation",
+            "recommendations", "recommendations-ml");
+
+    /** Hesaplama bittiğinde, parçalar yazılmadan önceki ilerleme. */
+    static final int COMPUTED_PROGRESS = 50;
+
+    /** Gönderimde hazırlanan iş: normalize parametreler ve hesaplama. */
+    private record Prepared(String report, String params, String paramsHash, Supplier<Object> work) {}
+
+    private final ReportQueryService reports;
+    private final InventoryValuationService valuationService;
+    private final ReportJobJdbcRepository repository;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor executor;
+    private final int chunkSize;
+    private final long freshSeconds;
+    private final long retentionSeconds;
+
+    public ReportJobServiceImpl(ReportQueryService reports,
+                                InventoryValuationService valuationService,
+                                ReportJobJdbcRepository repository,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${inventory.report-jobs.workers:2}") int workers,
+                                @Value("${inventory.report-jobs.queue-capacity:100}") int queueCapacity,
+                                @Value("${inventory.report-jobs.chunk-size:500}") int chunkSize,
+                                @Value("${inventory.report-jobs.fresh-seconds:600}") long freshSeconds,
+                                @Value("${inventory.report-jobs.retention-seconds:86400}") long retentionSeconds) {
+        this.reports = reports;
+        this.valuationService = valuationService;
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.freshSeconds = Math.max(0, freshSeconds);
+        this.retentionSeconds = Math.max(0, retentionSeconds);
+        int threads = Math.max(1, workers);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                new CustomizableThreadFactory("report-job-"));
+        Gauge.builder("reports.jobs.queued", executor, e -> e.getQueue().size())
+                .description("Report jobs waiting for a worker")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void failOrphanedJobs() {
+        int orphaned = repository.failUnfinished("Interrupted by restart");
+        if (orphaned > 0) log.warn("Marked {} unfinished report jobs as failed after restart", orphaned);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public ReportJobResponse submit(ReportJobRequest request) {
+        Prepared job = prepare(request.report(), request.params() != null ? request.params() : Map.of());
+
+        // çalışan iş bu arada bitmiş olabilir: ekleme ile arama arasındaki yarış için birkaç deneme
+        for (int attempt = 0; attempt < 3; attempt++) {
+            Optional<ReportJobJdbcRepository.JobRow> existing = repository.findReusable(job.paramsHash());
+            if (existing.isPresent()) return toResponse(existing.get(), true);
+
+            Optional<Long> id = repository.insertQueued(job.report(), job.params(), job.paramsHash());
+            if (id.isPresent()) {
+                enqueue(id.get(), job);
+                return toResponse(load(id.get()), false);
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Could not queue report job, please retry");
+    }
+
+    @Override
+    public ReportJobResponse get(long id) {
+        return toResponse(load(id), false);
+    }
+
+    @Override
+    public ReportJobPageResponse page(long id, int page) {
+        ReportJobJdbcRepository.JobRow job = load(id);
+        if (!"SUCCEEDED".equals(job.status())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Report job is " + job.status());
+        }
+        int pages = job.chunkCount();
+        if (page < 0 || (page >= pages && !(page == 0 && pages == 0))) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Page " + page + " not found");
+        }
+        String rows = pages == 0 ? "[]" : repository.findChunk(id, page)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Page " + page + " not found"));
+        return new ReportJobPageResponse(id, page, pages, job.rowCount(), rows);
+    }
+
+    @Scheduled(cron = "${inventory.report-jobs.purge-cron:0 */10 * * * *}")
+    public void purgeExpired() {
+        try {
+            int purged = repository.purgeExpired(retentionSeconds);
+            if (purged > 0) log.info("Purged {} expired report jobs", purged);
+        } catch (RuntimeException ex) {
+            log.error("Report job purge failed", ex);
+        }
+    }
+
+    // ========== HELPERS ==========
+
+    private void enqueue(long id, Prepared job) {
+        try {
+            executor.execute(() -> run(id, job));
+        } catch (RejectedExecutionException ex) {
+            repository.markFailed(id, "Queue is full");
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Report job queue is full, please retry");
+        }
+    }
+
+    private void run(long id, Prepared job) {
+        if (!repository.markRunning(id)) return;
+        try {
+            Object result = job.work().get();
+            repository.updateProgress(id, COMPUTED_PROGRESS);
+
+            List<?> rows;
+            String summary = null;
+            if (result instanceof List<?> list) {
+                rows = list;
+            } else if (result instanceof MlRecommendationResponse ml) {
+                rows = ml.items();
+                Map<String, Object> fields = new LinkedHashMap<>();
+                fields.put("from", ml.from());
+                fields.put("to", ml.to());
+                fields.put("branchId", ml.branchId());
+                fields.put("horizonDays", ml.horizonDays());
+                fields.put("rmse", ml.rmse());
+                fields.put("mape", ml.mape());
+                fields.put("sampleCount", ml.sampleCount());
+                summary = json(fields);
+            } else {
+                rows = result != null ? List.of(result) : List.of();
+            }
+
+            int chunks = (rows.size() + chunkSize - 1) / chunkSize;
+            for (int i = 0; i < chunks; i++) {
+                repository.insertChunk(id, i, json(rows.subList(i * chunkSize, Math.min(rows.size(), (i + 1) * chunkSize))));
+                if (i + 1 < chunks) {
+                    repository.updateProgress(id, COMPUTED_PROGRESS + (i + 1) * (100 - COMPUTED_PROGRESS) / chunks);
+                }
+            }
+            repository.markSucceeded(id, rows.size(), chunks, summary, freshSeconds);
+            finished(job.report(), "succeeded");
+        } catch (RuntimeException ex) {
+            log.warn("Report job {} ({}) failed", id, job.report(), ex);
+            repository.markFailed(id, ex instanceof ResponseStatusException rse && rse.getReason() != null
+                    ? rse.getReason() : String.valueOf(ex.getMessage()));
+            finished(job.report(), "failed");
+        }
+    }
+
+    private Prepared prepare(String report, Map<String, Object> raw) {
+        Params p = new Params(raw);
+        Supplier<Object> work = switch (report) {
+            case "bestsellers" -> {
+                LocalDate from = p.date("from"), to = p.date("to");
+                Long branchId = p.optionalLong("branchId");
+                int limit = p.intOr("limit", 10);
+                yield () -> reports.bestsellers(from, to, branchId, limit);
+            }
+            case "slow-movers" -> {
+                LocalDate from = p.date("from"), to = p.date("to");
+                Long branchId = p.optionalLong("branchId");
+                long threshold = p.longOr("threshold", 3);
+                yield () -> reports.slowMovers(from, to, branchId, threshold);
+            }
+            case "sales-trend" -> {
+                LocalDate from = p.date("from"), to = p.date("to");
+                Long branchId = p.optionalLong("branchId");
+                yield () -> reports.salesTrend(from, to, branchId);
+            }
+            case "category-sales" -> {
+                LocalDate from = p.date("from"), to = p.date("to");
+                Long branchId = p.optionalLong("branchId");
+                yield () -> reports.categorySales(from, to, branchId);
+            }
+            case "product-margins" -> {
+                LocalDate from = p.date("from"), to = p.date("to");
+                Long branchId = p.optionalLong("branchId");
+                int limit = p.intOr("limit", 50);
+                yield () -> reports.productMargins(from, to, branchId, limit);
+            }
+            case "income-statement" -> {
+                LocalDate from = p.date("from"), to = p.date("to");
+                Long branchId = p.optionalLong("branchId");
+                yield () -> reports.incomeStatement(from, to, branchId);
+            }
+            case "time-to-empty" -> {
+                Long productId = p.requiredLong("productId");
+                int windowDays = p.intOr("windowDays", 30);
+                Long branchId = p.optionalLong("branchId");
+                yield () -> reports.timeToEmpty(productId, windowDays, branchId);
+            }
+            case "branch-matrix" -> {
+                LocalDate from = p.date("from"), to = p.date("to");
+                boolean compare = p.boolOr("compare", false);
+                int expiringWithinDays = p.intOr("expiringWithinDays", 30);
+                yield () -> reports.branchMatrix(from, to, compare, expiringWithinDays);
+            }
+            case "inventory-valuation" -> {
+                Long branchId = p.optionalLong("branchId");
+                yield () -> valuationService.valuation(branchId);
+            }
+            case "recommendations" -> {
+                LocalDate from = p.date("from"), to = p.date("to");
+                Long branchId = p.optionalLong("branchId");
+                int tteWindowDays = p.intOr("tteWindowDays", 30);
+                int expiryWindowDays = p.intOr("expiryWindowDays", 30);
+                yield () -> reports.recommendations(from, to, branchId, tteWindowDays, expiryWindowDays);
+            }
+            case "recommendations-ml" -> {
+                LocalDate from = p.date("from"), to = p.date("to");
+                Long branchId = p.optionalLong("branchId");
+                int horizonDays = p.intOr("horizonDays", 30);
+                yield () -> reports.mlRecommendations(from, to, branchId, horizonDays);
+            }
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Unknown report '" + report + "', expected one of " + REPORTS);
+        };
+        p.rejectUnknown();
+
+        String params = json(p.normalized);
+        return new Prepared(report, params, fingerprint(report, params), work);
+    }
+
+    private ReportJobJdbcRepository.JobRow load(long id) {
+        return repository.find(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Report job " + id + " not found"));
+    }
+
+    private static ReportJobResponse toResponse(ReportJobJdbcRepository.JobRow r, boolean reused) {
+        return new ReportJobResponse(r.id(), r.report(), r.params(), r.status(), r.progress(),
+                r.rowCount(), r.chunkCount(), r.summary(), r.error(),
+                r.createdAt(), r.startedAt(), r.finishedAt(), r.expiresAt(), reused);
+    }
+
+    private void finished(String report, String status) {
+        Counter.builder("reports.jobs.finished")
+                .description("Report jobs that finished, by outcome")
+                .tag("report", report)
+                .tag("status", status)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static String fingerprint(String report, String params) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            sha.update(report.getBytes(StandardCharsets.UTF_8));
+            sha.update((byte) 0);
+            sha.update(params.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(sha.digest());
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("Cannot fingerprint report job", ex);
+        }
+    }
+
+    private String json(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot serialize report job data", ex);
+        }
+    }
+
+    /**
+     * İstek parametreleri: okunan her değer normalized'a (sıralı) yazılır, böylece aynı anlamdaki
+     * istekler ("limit": "10" ile "limit": 10, verilmemiş varsayılanlar) aynı parmak izini alır.
+     */
+    private static final class Params {
+
+        private final Map<String, Object> raw;
+        private final SortedMap<String, Object> normalized = new TreeMap<>();
+
+        Params(Map<String, Object> raw) {
+            this.raw = raw;
+        }
+
+        LocalDate date(String name) {
+            Object v = raw.get(name);
+            if (v == null) throw bad(name + " is required");
+            try {
+                LocalDate d = LocalDate.parse(v.toString());
+                normalized.put(name, d.toString());
+                return d;
+            } catch (DateTimeParseException ex) {
+                throw bad(name + " must be an ISO date (yyyy-MM-dd)");
+            }
+        }
+
+        Long requiredLong(String name) {
+            Long v = optionalLong(name);
+            if (v == null) throw bad(name + " is required");
+            return v;
+        }
+
+        Long optionalLong(String name) {
+            Object v = raw.get(name);
+            Long value = v == null ? null : parseLong(name, v);
+            normalized.put(name, value);
+            return value;
+        }
+
+        long longOr(String name, long defaultValue) {
+            Object v = raw.get(name);
+            long value = v == null ? defaultValue : parseLong(name, v);
+            normalized.put(name, value);
+            return value;
+        }
+
+        int intOr(String name, int defaultValue) {
+            long value = longOr(name, defaultValue);
+            if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) throw bad(name + " is out of range");
+            return (int) value;
+        }
+
+        boolean boolOr(String name, boolean defaultValue) {
+            Object v = raw.get(name);
+            boolean value;
+            if (v == null) value = defaultValue;
+            else if (v instanceof Boolean b) value = b;
+            else if ("true".equalsIgnoreCase(v.toString()) || "false".equalsIgnoreCase(v.toString()))
+                value = Boolean.parseBoolean(v.toString());
+            else throw bad(name + " must be true or false");
+            normalized.put(name, value);
+            return value;
+        }
+
+        void rejectUnknown() {
+            for (String name : raw.keySet()) {
+                if (!normalized.containsKey(name)) throw bad("Unknown parameter " + name);
+            }
+        }
+
+        private static long parseLong(String name, Object v) {
+            if (v instanceof Integer || v instanceof Long) return ((Number) v).longValue();
+            try {
+                return Long.parseLong(v.toString().trim());
+            } catch (NumberFormatException ex) {
+                throw bad(name + " must be an integer");
+            }
+        }
+
+        private static ResponseStatusException bad(String reason) {
+            return new ResponseStatusException(HttpStatus.BAD_REQUEST, reason);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.inventory_system.service;
+
+import com.example.inventory_system.dto.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rapor ve öneri hesaplamaları, ReportCacheService (cache + single-flight) üzerinden.
+ * Rapor uçları, yönetici paneli ve arka plan rapor işleri aynı sonucu ve aynı cache girdisini
+ * kullansın diye hepsi buradan çağırır. Geçersiz parametre 400 (ResponseStatusException) döner.
+ */
+public interface ReportQueryService {
+
+    /** En çok satanlar (adet bazlı); limit pozitif olmalı. */
+    List<BestSellerResponse> bestsellers(LocalDate from, LocalDate to, Long branchId, int limit);
+
+    /** Dönemde threshold adetten az satanlar. */
+    List<SlowMoverResponse> slowMovers(LocalDate from, LocalDate to, Long branchId, long threshold);
+
+    /** Gün bazlı ciro, COGS ve brüt kâr. */
+    List<SalesTrendPointResponse> salesTrend(LocalDate from, LocalDate to, Long branchId);
+
+    List<CategorySalesResponse> categorySales(LocalDate from, LocalDate to, Long branchId);
+
+    /** Ciroya göre ilk limit ürünün kâr marjı; limit pozitif olmalı. */
+    List<ProductMarginResponse> productMargins(LocalDate from, LocalDate to, Long branchId, int limit);
+
+    /** Son windowDays günün ortalama satışına göre stoğun tükenme süresi; ürün yoksa 404. */
+    TimeToEmptyResponse timeToEmpty(Long productId, int windowDays, Long branchId);
+
+    /** Ciro, COGS, brüt kâr ve toplam adet (AdminDashboard alan adlarıyla). */
+    Map<String, Object> incomeStatement(LocalDate from, LocalDate to, Long branchId);
+
+    /** Tüm şubeler tek sorguda; compare=true ise önceki eş uzunluktaki döneme göre farklar. */
+    List<BranchMatrixRowResponse> branchMatrix(LocalDate from, LocalDate to, boolean compare, int expiringWithinDays);
+
+    List<RecommendationItemResponse> recommendations(LocalDate from, LocalDate to, Long branchId,
+                                                     int tteWindowDays, int expiryWindowDays);
+
+    MlRecommendationResponse mlRecommendations(LocalDate from, LocalDate to, Long branchId, int horizonDays);
+}
@@ -0,0 +1,249 @@
+package com.example.inventory_system.service;
+
+import com.example.inventory_system.domain.Product;
+import com.example.inventory_system.dto.*;
+import com.example.inventory_system.repository.BranchMatrixJdbcRepository;
+import com.example.inventory_system.repository.ProductRepository;
+import com.example.inventory_system.repository.SalesDailyRollupRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+@Service
+@RequiredArgsConstructor
+public class ReportQueryServiceImpl implements ReportQueryService {
+
+    private final SalesDailyRollupRepository rollups;
+    private final ProductRepository products;
+    private final BranchMatrixJdbcRepository branchMatrix;
+    private final RecommendationService recommendationService;
+    private final MlRecommendationService mlRecommendationService;
+    private final ReportCacheService reportCache;
+
+    @Override
+    public List<BestSellerResponse> bestsellers(LocalDate from, LocalDate to, Long branchId, int limit) {
+        requirePositive(limit);
+        return reportCache.get(ReportCacheService.Key.sales("bestsellers", branchId, from, to, limit), () -> {
+            List<BestSellerResponse> out = new ArrayList<>();
+            for (SalesDailyRollupRepository.ProductSales r : rollups.topSellers(from, to, branchId, Limit.of(limit))) {
+                out.add(new BestSellerResponse(
+                        r.productId(),
+                        nameOrDeleted(r.productName()),
+                        r.quantity(),
+                        orZero(r.revenue())
+                ));
+            }
+            return out;
+        });
+    }
+
+    @Override
+    public List<SlowMoverResponse> slowMovers(LocalDate from, LocalDate to, Long branchId, long threshold) {
+        return reportCache.get(ReportCacheService.Key.sales("slow-movers", branchId, from, to, threshold), () -> {
+            List<SlowMoverResponse> out = new ArrayList<>();
+            for (SalesDailyRollupRepository.ProductSales r : rollups.slowSellers(from, to, branchId, threshold)) {
+                // daysSinceLastSale şimdilik hesaplanmıyor, null geçiyoruz
+                out.add(new SlowMoverResponse(
+                        r.productId(),
+                        nameOrDeleted(r.productName()),
+                        r.sku(),
+                        r.quantity(),
+                        null
+                ));
+            }
+            return out;
+        });
+    }
+
+    @Override
+    public List<SalesTrendPointResponse> salesTrend(LocalDate from, LocalDate to, Long branchId) {
+        return reportCache.get(ReportCacheService.Key.sales("sales-trend", branchId, from, to), () -> {
+            List<SalesTrendPointResponse> out = new ArrayList<>();
+            for (SalesDailyRollupRepository.DayTotals r : rollups.salesTrend(from, to, branchId)) {
+                BigDecimal revenue = orZero(r.revenue());
+                BigDecimal cogs    = orZero(r.cogs());
+                out.add(new SalesTrendPointResponse(r.day(), revenue, cogs, revenue.subtract(cogs)));
+            }
+            return out;
+        });
+    }
+
+    @Override
+    public List<CategorySalesResponse> categorySales(LocalDate from, LocalDate to, Long branchId) {
+        return reportCache.get(ReportCacheService.Key.sales("category-sales", branchId, from, to), () -> {
+            List<CategorySalesResponse> out = new ArrayList<>();
+            for (SalesDailyRollupRepository.CategoryTotals r : rollups.categoryBreakdown(from, to, branchId)) {
+                BigDecimal revenue = orZero(r.revenue());
+                BigDecimal cogs    = orZero(r.cogs());
+                BigDecimal gross   = revenue.subtract(cogs);
+
+                out.add(new CategorySalesResponse(
+                        r.categoryId(),
+                        r.categoryName(),
+                        revenue,
+                        cogs,
+                        gross,
+                        marginPercent(gross, revenue)
+                ));
+            }
+            return out;
+        });
+    }
+
+    @Override
+    public List<ProductMarginResponse> productMargins(LocalDate from, LocalDate to, Long branchId, int limit) {
+        requirePositive(limit);
+        return reportCache.get(ReportCacheService.Key.sales("product-margins", branchId, from, to, limit), () -> {
+            List<ProductMarginResponse> out = new ArrayList<>();
+            for (SalesDailyRollupRepository.ProductSales r : rollups.productMargins(from, to, branchId, Limit.of(limit))) {
+                BigDecimal revenue = orZero(r.revenue());
+                BigDecimal cogs    = orZero(r.cogs());
+                BigDecimal profit  = revenue.subtract(cogs);
+
+                out.add(new ProductMarginResponse(
+                        r.productId(),
+                        r.productName(),
+                        r.sku(),
+                        revenue,
+                        cogs,
+                        profit,
+                        marginPercent(profit, revenue)
+                ));
+            }
+            return out;
+        });
+    }
+
+    @Override
+    public TimeToEmptyResponse timeToEmpty(Long productId, int windowDays, Long branchId) {
+        // stok ürünün kendi şubesinden, satışlar branchId'den okunur: kapsam tüm şubeler
+        LocalDate since = LocalDate.now().minusDays(windowDays);
+        var key = ReportCacheService.Key.stock("time-to-empty", null, since, null, productId, windowDays, branchId);
+        return reportCache.get(key, () -> {
+            Product p = products.findById(productId)
+                    .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Product not found"));
+
+            long sum = Optional.ofNullable(rollups.sumQtySince(productId, since, branchId)).orElse(0L);
+            double avgDaily = (double) sum / windowDays;
+
+            Integer currentStock = p.getTotalStock(); // hot ürünlerde parçalar dahil
+            Double days = (avgDaily > 0) ? currentStock / avgDaily : null;
+
+            return new TimeToEmptyResponse(
+                    p.getId(), p.getName(), currentStock, avgDaily, days
+            );
+        });
+    }
+
+    @Override
+    public Map<String, Object> incomeStatement(LocalDate from, LocalDate to, Long branchId) {
+        return reportCache.get(ReportCacheService.Key.sales("income-statement", branchId, from, to), () -> {
+
+            // adet, ciro ve COGS tek sorguda (günlük özet, iki uç dahil)
+            SalesDailyRollupRepository.PeriodTotals totals = rollups.periodTotals(from, to, branchId);
+            BigDecimal revenue = orZero(totals.revenue());
+            BigDecimal cogs    = orZero(totals.cogs());
+            BigDecimal gross   = revenue.subtract(cogs);
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("from", from.toString());
+            result.put("to", to.toString());
+            result.put("branchId", branchId);
+            result.put("revenue", revenue.toPlainString());
+            result.put("cogs", cogs.toPlainString());
+            result.put("grossProfit", gross.toPlainString());
+            result.put("totalQuantity", totals.quantity()); // <-- AdminDashboard buradan okuyacak
+            return result;
+        });
+    }
+
+    @Override
+    public List<BranchMatrixRowResponse> branchMatrix(LocalDate from, LocalDate to, boolean compare,
+                                                      int expiringWithinDays) {
+        if (from.isAfter(to)) {
+            throw new ResponseStatusException(BAD_REQUEST, "from must not be after to");
+        }
+        LocalDate previousFrom = compare ? from.minusDays(ChronoUnit.DAYS.between(from, to) + 1) : from;
+        LocalDate expiringUntil = LocalDate.now().plusDays(expiringWithinDays);
+
+        var key = ReportCacheService.Key.stock("branch-matrix", null, previousFrom, to, compare, expiringUntil);
+        return reportCache.get(key, () -> branchMatrix.matrix(previousFrom, from, to, expiringUntil).stream()
+                .map(row -> toMatrixRow(row, compare))
+                .toList());
+    }
+
+    @Override
+    public List<RecommendationItemResponse> recommendations(LocalDate from, LocalDate to, Long branchId,
+                                                            int tteWindowDays, int expiryWindowDays) {
+        // güncel batch stoğu ve SKT de okunur: mal kabul / stok değişimi de geçersiz kılar
+        var key = ReportCacheService.Key.stock("recommendations", branchId, from, to, tteWindowDays, expiryWindowDays);
+        return reportCache.get(key, () -> recommendationService.generate(from, to, branchId, tteWindowDays, expiryWindowDays));
+    }
+
+    @Override
+    public MlRecommendationResponse mlRecommendations(LocalDate from, LocalDate to, Long branchId, int horizonDays) {
+        var key = ReportCacheService.Key.stock("recommendations-ml", branchId, from, to, horizonDays);
+        return reportCache.get(key, () -> mlRecommendationService.generate(from, to, branchId, horizonDays));
+    }
+
+    // ========== HELPERS ==========
+
+    private static BranchMatrixRowResponse toMatrixRow(BranchMatrixJdbcRepository.Row r, boolean compare) {
+        Double revenueDeltaPercent = null;
+        if (compare && r.previousRevenue().signum() > 0) {
+            revenueDeltaPercent = r.revenueDelta()
+                    .multiply(BigDecimal.valueOf(100))
+                    .divide(r.previousRevenue(), 2, RoundingMode.HALF_UP)
+                    .doubleValue();
+        }
+        return new BranchMatrixRowResponse(
+                r.branchId(),
+                r.branchName(),
+                r.revenue(),
+                r.cogs(),
+                r.revenue().subtract(r.cogs()),
+                r.units(),
+                r.inventoryValue(),
+                r.expiringQuantity(),
+                r.expiringValue(),
+                compare ? r.previousRevenue() : null,
+                compare ? r.revenueDelta() : null,
+                revenueDeltaPercent,
+                compare ? r.grossProfitDelta() : null,
+                compare ? r.unitsDelta() : null
+        );
+    }
+
+    private static void requirePositive(int limit) {
+        if (limit <= 0) {
+            throw new ResponseStatusException(BAD_REQUEST, "limit must be positive");
+        }
+    }
+
+    // özet satırı kalır, ürün silinmiş olabilir
+    private static String nameOrDeleted(String productName) {
+        return productName != null ? productName : "(deleted)";
+    }
+
+    private static Double marginPercent(BigDecimal profit, BigDecimal revenue) {
+        if (revenue.compareTo(BigDecimal.ZERO) <= 0) return null;
+        return profit
+                .multiply(BigDecimal.valueOf(100))
+                .divide(revenue, 2, RoundingMode.HALF_UP)
+                .doubleValue();
+    }
+
+    private static BigDecimal orZero(BigDecimal v) {
+        return v != null ? v : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.inventory_system.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Aynı anahtarla eşzamanlı gelen rapor hesaplamalarını tek çalıştırmada birleştirir: ilk gelen
+ * (lider) hesaplamayı kendi thread'inde yapar, sonra gelenler onun sonucunu bekler.
+ *
+ * - Bekleme süresi rapor başına: inventory.reports.single-flight.timeouts-ms.&lt;rapor&gt;, yoksa
+ *   timeout-ms. Süre dolan bekleyen 503 alır; lider hesaplamaya devam eder, DB'ye ikinci sorgu
+ *   gitmez.
+ * - Liderin hatası bekleyenlere aynen iletilir.
+ * - Bayatlık eklemez: geçersiz kılınan anahtarların uçuştaki hesaplaması haritadan çıkarılır,
+ *   commit'ten sonra gelen çağrı commit'ten önce başlamış hesaplamaya katılmaz.
+ *
+ * Metrikler: reports.single-flight.calls{report,role=leader|follower},
+ * reports.single-flight.timeouts{report}, reports.single-flight.in-flight.
+ */
+@Component
+public class ReportSingleFlight {
+
+    private final Map<ReportCacheService.Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Long> timeoutByReport = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final Environment environment;
+    private final long defaultTimeoutMs;
+
+    public ReportSingleFlight(MeterRegistry meterRegistry,
+                              Environment environment,
+                              @Value("${inventory.reports.single-flight.timeout-ms:30000}") long defaultTimeoutMs) {
+        this.meterRegistry = meterRegistry;
+        this.environment = environment;
+        this.defaultTimeoutMs = Math.max(1, defaultTimeoutMs);
+        Gauge.builder("reports.single-flight.in-flight", inFlight, Map::size)
+                .description("Report computations currently running")
+                .register(meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(ReportCacheService.Key key, Supplier<T> loader) {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            calls(key, "follower").increment();
+            return (T) await(key, running);
+        }
+
+        calls(key, "leader").increment();
+        try {
+            T value = loader.get();
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error ex) {
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /** Etkilenen anahtarların uçuştaki hesaplamalarına yeni katılımı keser. */
+    public void forget(Predicate<ReportCacheService.Key> affected) {
+        inFlight.keySet().removeIf(affected);
+    }
+
+    // ========== HELPERS ==========
+
+    private Object await(ReportCacheService.Key key, CompletableFuture<Object> running) {
+        try {
+            return running.get(timeoutMs(key.report()), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            Counter.builder("reports.single-flight.timeouts")
+                    .tag("report", key.report())
+                    .register(meterRegistry)
+                    .increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Report is still being computed, please retry", ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while waiting for report", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException re) throw re;
+            if (ex.getCause() instanceof Error err) throw err;
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    private long timeoutMs(String report) {
+        return timeoutByReport.computeIfAbsent(report, r -> Math.max(1, environment.getProperty(
+                "inventory.reports.single-flight.timeouts-ms." + r, Long.class, defaultTimeoutMs)));
+    }
+
+    private Counter calls(ReportCacheService.Key key, String role) {
+        return Counter.builder("reports.single-flight.calls")
+                .description("Report calls that ran the computation (leader) or joined one (follower)")
+                .tag("report", key.report())
+                .tag("role", role)
+                .register(meterRegistry);
+    }
+}
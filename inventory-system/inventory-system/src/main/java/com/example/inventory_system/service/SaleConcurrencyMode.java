@@ -0,0 +1,18 @@
+package com.example.inventory_system.service;
+
+/**
+ * Satış yolunda FIFO katmanlarına eşzamanlı erişim stratejisi
+ * (inventory.sales.concurrency-mode).
+ */
+public enum SaleConcurrencyMode {
+    /** Batch satırları SELECT ... FOR UPDATE ile kilitlenir; çakışmada bekler. */
+    PESSIMISTIC,
+    /** Kilit alınmaz; yazarken version kontrol edilir, çakışmada transaction baştan denenir. */
+    OPTIMISTIC,
+    /**
+     * Açık batch katmanları bellekte tutulur (FifoLedger), tüketim DB'ye gitmeden yapılır ve
+     * yazmalar arka planda group commit ile atılır (SaleWriteBehind). Yalnızca tek node içindir;
+     * çalışırken başka moda geçilmemelidir.
+     */
+    LEDGER
+}
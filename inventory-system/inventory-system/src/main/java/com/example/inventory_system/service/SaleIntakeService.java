@@ -0,0 +1,19 @@
+package com.example.inventory_system.service;
+
+import com.example.inventory_system.dto.SaleCreateRequest;
+import com.example.inventory_system.dto.SaleStatusResponse;
+
+import java.util.Optional;
+
+/**
+ * Asenkron satış alımı: istek kuyruğa yazılır ve hemen bir handle döner,
+ * satış arka planda gruplar halinde işlenir.
+ */
+public interface SaleIntakeService {
+
+    /** Satışı kuyruğa ekler ve PENDING durumunu döner; kuyruk doluysa 503. */
+    SaleStatusResponse submit(SaleCreateRequest request);
+
+    /** Handle bilinmiyorsa (ya da saklama süresi dolmuşsa) boş döner. */
+    Optional<SaleStatusResponse> status(String handle);
+}
@@ -0,0 +1,173 @@
+package com.example.inventory_system.service;
+
+import com.example.inventory_system.dto.SaleCreateRequest;
+import com.example.inventory_system.dto.SaleStatusResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * İstekler sabit kapasiteli bir halka tampona (ArrayBlockingQueue) yazılır; Tomcat thread'i
+ * FIFO hesabını ve DB bağlantısını beklemez. Küçük bir yazıcı havuzu kuyruğu gruplar halinde
+ * boşaltır ve her grubu InventoryService.createSales ile tek transaction'da işler (group commit).
+ * Sonuçlar handle ile sorgulanır; sınırlı bir Caffeine cache'inde tamamlandıktan sonra retention
+ * süresi kadar saklanır (boyut sınırı aşılırsa en az kullanılanlar erken düşer, sorgu 404 döner).
+ */
+@Slf4j
+@Service
+public class SaleIntakeServiceImpl implements SaleIntakeService {
+
+    private static final class Ticket {
+        final String handle;
+        final SaleCreateRequest request;
+        volatile SaleStatusResponse result;
+
+        Ticket(String handle, SaleCreateRequest request) {
+            this.handle = handle;
+            this.request = request;
+        }
+    }
+
+    private final InventoryService inventoryService;
+    private final BlockingQueue<Ticket> queue;
+    private final Cache<String, Ticket> tickets;
+    private final int writerCount;
+    private final int maxGroupSize;
+
+    private final List<Thread> writers = new ArrayList<>();
+    private volatile boolean running;
+
+    public SaleIntakeServiceImpl(InventoryService inventoryService,
+                                 @Value("${inventory.sales.async.queue-capacity:20000}") int queueCapacity,
+                                 @Value("${inventory.sales.async.writers:2}") int writerCount,
+                                 @Value("${inventory.sales.async.max-group-size:200}") int maxGroupSize,
+                                 @Value("${inventory.sales.async.retention-minutes:60}") long retentionMinutes,
+                                 @Value("${inventory.sales.async.max-tickets:100000}") long maxTickets) {
+        this.inventoryService = inventoryService;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.writerCount = Math.max(1, writerCount);
+        this.maxGroupSize = Math.max(1, maxGroupSize);
+        // süre son yazmadan sayılır: bilet tamamlanınca yeniden konur, retention sonuçtan itibaren işler
+        this.tickets = Caffeine.newBuilder()
+                .maximumSize(Math.max(queueCapacity, maxTickets))
+                .expireAfterWrite(Duration.ofMinutes(Math.max(1, retentionMinutes)))
+                .build();
+    }
+
+    @Override
+    public SaleStatusResponse submit(SaleCreateRequest request) {
+        startIfNeeded();
+        Ticket ticket = new Ticket(UUID.randomUUID().toString(), request);
+        tickets.put(ticket.handle, ticket);
+        if (!queue.offer(ticket)) {
+            tickets.invalidate(ticket.handle);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Sale intake queue is full, please retry");
+        }
+        return toResponse(ticket);
+    }
+
+    @Override
+    public Optional<SaleStatusResponse> status(String handle) {
+        Ticket ticket = tickets.getIfPresent(handle);
+        return ticket == null ? Optional.empty() : Optional.of(toResponse(ticket));
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        List<Thread> toJoin;
+        synchronized (this) {
+            running = false;
+            toJoin = List.copyOf(writers);
+        }
+        for (Thread t : toJoin) t.join(30_000);
+    }
+
+    // ========== HELPERS ==========
+
+    private synchronized void startIfNeeded() {
+        if (!writers.isEmpty()) return;
+        running = true;
+        for (int i = 0; i < writerCount; i++) {
+            Thread t = new Thread(this::run, "sale-intake-" + i);
+            t.setDaemon(true);
+            t.start();
+            writers.add(t);
+        }
+    }
+
+    private void run() {
+        List<Ticket> group = new ArrayList<>(maxGroupSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Ticket first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                group.add(first);
+            } catch (InterruptedException ex) {
+                running = false;
+            }
+            queue.drainTo(group, maxGroupSize - group.size());
+            if (!group.isEmpty()) {
+                process(group);
+                group.clear();
+            }
+        }
+    }
+
+    private void process(List<Ticket> group) {
+        List<SaleCreateRequest> requests = new ArrayList<>(group.size());
+        for (Ticket t : group) requests.add(t.request);
+
+        try {
+            complete(group, inventoryService.createSales(requests));
+        } catch (RuntimeException groupFailure) {
+            // grup bütün olarak yazılamadı (ör. optimistic çakışma): satışları tek tek dene
+            for (Ticket t : group) {
+                try {
+                    complete(List.of(t), inventoryService.createSales(List.of(t.request)));
+                } catch (RuntimeException ex) {
+                    log.warn("Async sale {} failed", t.handle, ex);
+                    finish(t, rejected(t, ex instanceof ResponseStatusException rse
+                            ? rse : new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Sale could not be recorded")));
+                }
+            }
+        }
+    }
+
+    private void complete(List<Ticket> group, List<InventoryService.SaleOutcome> outcomes) {
+        for (int i = 0; i < group.size(); i++) {
+            Ticket t = group.get(i);
+            InventoryService.SaleOutcome o = outcomes.get(i);
+            finish(t, o.accepted()
+                    ? new SaleStatusResponse(t.handle, "ACCEPTED", o.sale(), null, null)
+                    : rejected(t, o.error()));
+        }
+    }
+
+    private void finish(Ticket t, SaleStatusResponse result) {
+        t.result = result;
+        tickets.put(t.handle, t);
+    }
+
+    private static SaleStatusResponse rejected(Ticket t, ResponseStatusException ex) {
+        return new SaleStatusResponse(t.handle, "REJECTED", null, ex.getStatusCode().value(), ex.getReason());
+    }
+
+    private static SaleStatusResponse toResponse(Ticket t) {
+        SaleStatusResponse result = t.result;
+        return result != null ? result : new SaleStatusResponse(t.handle, "PENDING", null, null, null);
+    }
+}
@@ -0,0 +1,312 @@
+package com.example.inventory_system.service;
+
+import com.example.inventory_system.repository.InventoryLedgerJdbcRepository;
+import com.example.inventory_system.repository.ProductBatchJdbcRepository;
+import com.example.inventory_system.repository.SaleJdbcRepository;
+import com.example.inventory_system.repository.SalesRollupJdbcRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LEDGER modunda kabul edilen satışları arka planda kalıcılaştırır (group commit):
+ * tek yazıcı thread kuyrukta biriken satışları toplar ve batch düşümleri, sale / sale_item /
+ * inventory_ledger insert'leri, günlük satış özeti ve Product.stock güncellemesini tek transaction'da yazar.
+ *
+ * Bir grubun tamamı ya yazılır ya yazılmaz; çökme sonrası ledger product_batches'tan yeniden
+ * yüklendiğinde yazılmış satışlarla tutarlıdır. Kuyrukta kalan (henüz commit edilmemiş) satışlar
+ * çökmede kaybolur; write-behind'ın bedeli budur.
+ *
+ * Yazılamayan grup satış satış denenir; max-attempts denemeden sonra hâlâ yazılamayan satış
+ * sale_dead_letters'a bırakılır (sales.write-behind.dead-letters sayacı), yazıcı tıkanmaz.
+ * Kuyruk doluysa istek offer-timeout-ms sonra 503 alır.
+ *
+ * Idempotency-Key'li satışın anahtarı (handoff) yazma transaction'ında işaretlenir; anahtar bu
+ * arada bir tekrar tarafından devralınmışsa satış yazılmaz, tekrar onu kendisi uygular.
+ */
+@Slf4j
+@Component
+class SaleWriteBehind {
+
+    record PendingWrite(SaleJdbcRepository.SaleRow sale,
+                        List<SaleJdbcRepository.SaleItemRow> items,
+                        Map<Long, Integer> consumedByBatch,
+                        Map<Long, Integer> stockDecrements,
+                        IdempotencyService.Handoff handoff) {}
+
+    private static final int SALE_ID_BLOCK = 50;
+
+    private final ProductBatchJdbcRepository batchJdbcRepository;
+    private final SaleJdbcRepository saleJdbcRepository;
+    private final InventoryLedgerJdbcRepository inventoryLedgerJdbcRepository;
+    private final SalesRollupJdbcRepository salesRollupJdbcRepository;
+    private final StockCounterService stockCounterService;
+    private final InventoryValuationService inventoryValuationService;
+    private final ReportCacheService reportCacheService;
+    private final DataVersionService dataVersionService;
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate tx;
+    private final BlockingQueue<PendingWrite> queue;
+    private final Semaphore slots;       // kuyruktaki + yazılmakta olan satış başına bir izin
+    private final Counter deadLetters;
+    private final int maxGroupSize;
+    private final long lingerMs;
+    private final long offerTimeoutMs;
+    private final int maxAttempts;
+
+    private final Deque<Long> saleIds = new ArrayDeque<>();
+    private Thread writer;
+    private volatile boolean running;
+    private long inFlight;   // kuyruğa girip henüz commit edilmemiş satış sayısı (this üzerinde korunur)
+
+    SaleWriteBehind(ProductBatchJdbcRepository batchJdbcRepository,
+                    SaleJdbcRepository saleJdbcRepository,
+                    InventoryLedgerJdbcRepository inventoryLedgerJdbcRepository,
+                    SalesRollupJdbcRepository salesRollupJdbcRepository,
+                    StockCounterService stockCounterService,
+                    InventoryValuationService inventoryValuationService,
+                    ReportCacheService reportCacheService,
+                    DataVersionService dataVersionService,
+                    IdempotencyService idempotencyService,
+                    ObjectMapper objectMapper,
+                    MeterRegistry meterRegistry,
+                    PlatformTransactionManager transactionManager,
+                    @Value("${inventory.sales.ledger.queue-capacity:10000}") int queueCapacity,
+                    @Value("${inventory.sales.ledger.max-group-size:500}") int maxGroupSize,
+                    @Value("${inventory.sales.ledger.linger-ms:2}") long lingerMs,
+                    @Value("${inventory.sales.ledger.offer-timeout-ms:1000}") long offerTimeoutMs,
+                    @Value("${inventory.sales.ledger.max-attempts:5}") int maxAttempts) {
+        this.batchJdbcRepository = batchJdbcRepository;
+        this.saleJdbcRepository = saleJdbcRepository;
+        this.inventoryLedgerJdbcRepository = inventoryLedgerJdbcRepository;
+        this.salesRollupJdbcRepository = salesRollupJdbcRepository;
+        this.stockCounterService = stockCounterService;
+        this.inventoryValuationService = inventoryValuationService;
+        this.reportCacheService = reportCacheService;
+        this.dataVersionService = dataVersionService;
+        this.idempotencyService = idempotencyService;
+        this.objectMapper = objectMapper;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.slots = new Semaphore(Math.max(1, queueCapacity));
+        this.maxGroupSize = Math.max(1, maxGroupSize);
+        this.lingerMs = Math.max(0, lingerMs);
+        this.offerTimeoutMs = Math.max(0, offerTimeoutMs);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.deadLetters = Counter.builder("sales.write-behind.dead-letters")
+                .description("LEDGER sales that could not be written and were moved to sale_dead_letters")
+                .register(meterRegistry);
+        Gauge.builder("sales.write-behind.queued", queue, Collection::size)
+                .description("LEDGER sales waiting for the write-behind writer")
+                .register(meterRegistry);
+    }
+
+    /** Sale id'leri sequence'tan blok blok alınır; satış başına DB turu olmaz. */
+    synchronized long nextSaleId() {
+        if (saleIds.isEmpty()) {
+            saleIds.addAll(saleJdbcRepository.nextSaleIds(SALE_ID_BLOCK));
+        }
+        return saleIds.poll();
+    }
+
+    /**
+     * Kuyrukta yer ayırır; offer-timeout-ms içinde yer açılmazsa 503 (backpressure). FIFO
+     * tüketiminden önce çağrılır, reddedilen satış bellekteki katmanlara dokunmamış olur.
+     * Ayrılan yer submit ya da cancelReservation ile kullanılır.
+     */
+    void reserve() {
+        startIfNeeded();
+        boolean acquired;
+        try {
+            acquired = slots.tryAcquire(offerTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Sale write queue is full, please retry");
+        }
+    }
+
+    void cancelReservation() {
+        slots.release();
+    }
+
+    /** reserve ile ayrılmış yere koyar; kuyruk dolu olamaz. */
+    void submit(PendingWrite write) {
+        synchronized (this) {
+            inFlight++;
+        }
+        queue.add(write);
+    }
+
+    /** Kuyruktaki tüm satışlar commit edilene kadar bekler. */
+    synchronized void awaitFlushed() throws InterruptedException {
+        while (inFlight > 0) wait();
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        Thread t;
+        synchronized (this) {
+            running = false;
+            t = writer;
+        }
+        if (t != null) t.join(30_000);
+    }
+
+    // ========== HELPERS ==========
+
+    private synchronized void startIfNeeded() {
+        if (writer != null) return;
+        running = true;
+        writer = new Thread(this::run, "sale-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    private void run() {
+        List<PendingWrite> group = new ArrayList<>(maxGroupSize);
+        while (running || !queue.isEmpty() || !group.isEmpty()) {
+            try {
+                if (group.isEmpty()) {
+                    PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) continue;
+                    group.add(first);
+                    // kısa bekleme: eşzamanlı satışlar aynı commit'e binsin
+                    if (lingerMs > 0 && queue.size() < maxGroupSize - 1) {
+                        Thread.sleep(lingerMs);
+                    }
+                }
+                queue.drainTo(group, maxGroupSize - group.size());
+            } catch (InterruptedException ex) {
+                // kapanış: kuyruğu boşaltmaya devam et
+                running = false;
+            }
+            if (group.isEmpty()) continue;
+
+            writeGroup(group);
+            synchronized (this) {
+                inFlight -= group.size();
+                notifyAll();
+            }
+            slots.release(group.size());
+            group.clear();
+        }
+    }
+
+    // grup tek transaction'da; olmazsa satışlar tek tek (SaleIntakeServiceImpl ile aynı)
+    private void writeGroup(List<PendingWrite> group) {
+        if (group.size() > 1) {
+            try {
+                tx.executeWithoutResult(status -> write(group));
+                return;
+            } catch (RuntimeException ex) {
+                log.warn("Write-behind group of {} sales failed, writing them one by one", group.size(), ex);
+            }
+        }
+        for (PendingWrite w : group) {
+            writeOne(w);
+        }
+    }
+
+    // geçici hatada (bağlantı, deadlock) sınırlı yeniden deneme; kısıt / FK ihlali tekrar denenmez
+    private void writeOne(PendingWrite w) {
+        RuntimeException failure = null;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                tx.executeWithoutResult(status -> write(List.of(w)));
+                return;
+            } catch (NonTransientDataAccessException ex) {
+                failure = ex;
+                break;
+            } catch (RuntimeException ex) {
+                failure = ex;
+                log.warn("Write-behind sale {} failed (attempt {})", w.sale().id(), attempt, ex);
+                if (attempt < maxAttempts) backoff(attempt);
+            }
+        }
+        deadLetter(w, failure);
+    }
+
+    /*
+     * Bellekteki katmanlar geri verilmez: tüketim DB'ye yazılmadığından bir sonraki açılışta
+     * product_batches'tan yüklenince geri gelir; o zamana kadar stok eksik görünür, fazla satış olmaz.
+     * Anahtar dead letter ile birlikte işaretlenir: istemci yanıtını almıştı, tekrar satışı yeniden
+     * uygulamaz (dead letter elle işlenir).
+     */
+    private void deadLetter(PendingWrite w, RuntimeException cause) {
+        deadLetters.increment();
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(w);
+        } catch (JsonProcessingException ex) {
+            payload = w.toString();
+        }
+        log.error("Write-behind sale {} could not be written, moving to dead letters: {}", w.sale().id(), payload, cause);
+
+        String sale = payload;
+        try {
+            tx.executeWithoutResult(status -> {
+                saleJdbcRepository.insertDeadLetter(w.sale().id(), w.sale().branchId(), sale, String.valueOf(cause));
+                if (w.handoff() != null) idempotencyService.markCommitted(w.handoff());
+            });
+        } catch (RuntimeException ex) {
+            log.error("Dead letter for sale {} could not be stored; payload is only in the log above", w.sale().id(), ex);
+        }
+    }
+
+    private void backoff(int attempt) {
+        try {
+            Thread.sleep(Math.min(5_000L, 50L << Math.min(attempt, 6)));
+        } catch (InterruptedException ie) {
+            running = false;
+        }
+    }
+
+    private void write(List<PendingWrite> group) {
+        Map<Long, Integer> consumed = new TreeMap<>();
+        Map<Long, Integer> stockDecrements = new TreeMap<>();
+        List<SaleJdbcRepository.SaleRow> sales = new ArrayList<>(group.size());
+        List<SaleJdbcRepository.SaleItemRow> items = new ArrayList<>();
+
+        for (PendingWrite w : group) {
+            if (w.handoff() != null && !idempotencyService.markCommitted(w.handoff())) {
+                log.warn("Write-behind sale {} skipped: its Idempotency-Key was taken over by a retry", w.sale().id());
+                continue;
+            }
+            w.consumedByBatch().forEach((id, qty) -> consumed.merge(id, qty, Integer::sum));
+            w.stockDecrements().forEach((id, qty) -> stockDecrements.merge(id, qty, Integer::sum));
+            sales.add(w.sale());
+            items.addAll(w.items());
+        }
+        if (sales.isEmpty()) return;
+
+        batchJdbcRepository.decrementQuantities(consumed);
+        saleJdbcRepository.insertSales(sales);
+        inventoryLedgerJdbcRepository.appendSales(items, saleJdbcRepository.insertSaleItems(items));
+        salesRollupJdbcRepository.add(items);
+        inventoryValuationService.recordSales(items);
+        reportCacheService.salesCommitted(items);
+        dataVersionService.branchesChanged(items.stream().map(SaleJdbcRepository.SaleItemRow::branchId).toList());
+        stockCounterService.decrementUnchecked(stockDecrements);
+    }
+}
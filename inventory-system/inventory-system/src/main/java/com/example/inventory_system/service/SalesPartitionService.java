@@ -0,0 +1,17 @@
+package com.example.inventory_system.service;
+
+import com.example.inventory_system.dto.SalesPartitionResponse;
+
+import java.util.List;
+
+/**
+ * sales / sale_items aylık partition bakımı: ileri ayları önceden açar, saklama süresini
+ * aşan ayları ayırır (detach). Açılışta ve her gece çalışır.
+ */
+public interface SalesPartitionService {
+
+    /** Eksik ileri ay partition'larını açar, süresi dolanları ayırır; güncel listeyi döner. */
+    List<SalesPartitionResponse> maintain();
+
+    List<SalesPartitionResponse> list();
+}
@@ -0,0 +1,78 @@
+package com.example.inventory_system.service;
+
+import com.example.inventory_system.dto.SalesPartitionResponse;
+import com.example.inventory_system.repository.SalesPartitionJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Her ay ayrı transaction'da açılır / ayrılır; DDL parent tabloyu yalnızca o ayın süresince kilitler.
+ */
+@Slf4j
+@Service
+public class SalesPartitionServiceImpl implements SalesPartitionService {
+
+    private final SalesPartitionJdbcRepository repository;
+    private final TransactionTemplate tx;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    public SalesPartitionServiceImpl(SalesPartitionJdbcRepository repository,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${inventory.sales.partitions.months-ahead:3}") int monthsAhead,
+                                     @Value("${inventory.sales.partitions.retention-months:0}") int retentionMonths) {
+        this.repository = repository;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.monthsAhead = Math.max(1, monthsAhead);
+        this.retentionMonths = Math.max(0, retentionMonths);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${inventory.sales.partitions.maintenance-cron:0 15 3 * * *}")
+    public void scheduledMaintain() {
+        try {
+            maintain();
+        } catch (RuntimeException ex) {
+            log.error("Sales partition maintenance failed", ex);
+        }
+    }
+
+    @Override
+    public synchronized List<SalesPartitionResponse> maintain() {
+        if (!repository.isPartitioned()) return List.of();
+
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            tx.executeWithoutResult(status -> repository.createMonth(month));
+        }
+
+        // saklama: 0 = hiçbir ay ayrılmaz
+        if (retentionMonths > 0) {
+            YearMonth cutoff = current.minusMonths(retentionMonths);
+            for (YearMonth m = repository.oldestAttachedMonth(); m != null && m.isBefore(cutoff);
+                 m = repository.oldestAttachedMonth()) {
+                YearMonth month = m;
+                tx.executeWithoutResult(status -> repository.detachMonth(month));
+                log.info("Detached sales partitions for {}", month);
+            }
+        }
+        return list();
+    }
+
+    @Override
+    public List<SalesPartitionResponse> list() {
+        return repository.partitions().stream()
+                .map(p -> new SalesPartitionResponse(p.parent(), p.table(), p.bounds(), p.estimatedRows()))
+                .toList();
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.inventory_system.service;
+
+import com.example.inventory_system.dto.SalesRollupRebuildResponse;
+
+import java.time.LocalDate;
+
+/**
+ * sales_daily_rollup bakımı. Satışlar özeti kendi transaction'larında günceller;
+ * bu servis yalnızca ilk doldurma ve onarım (sale_items'tan yeniden hesaplama) içindir.
+ */
+public interface SalesRollupService {
+
+    /** [from, to] günlerini yeniden hesaplar; null uçlar mevcut verinin ilk / son gününe açılır. */
+    SalesRollupRebuildResponse rebuild(LocalDate from, LocalDate to);
+}
@@ -0,0 +1,58 @@
+package com.example.inventory_system.service;
+
+import com.example.inventory_system.dto.SalesRollupRebuildResponse;
+import com.example.inventory_system.repository.SalesRollupJdbcRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Yeniden hesaplama ay ay, her ay ayrı transaction'da yapılır: özet tablosu kilidi
+ * (ve dolayısıyla satışların bekletilmesi) bir aylık sorgu süresiyle sınırlı kalır.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class SalesRollupServiceImpl implements SalesRollupService {
+
+    private final SalesRollupJdbcRepository rollupJdbcRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ReportCacheService reportCacheService;
+    private final DataVersionService dataVersionService;
+
+    @Override
+    public SalesRollupRebuildResponse rebuild(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            Optional<SalesRollupJdbcRepository.DayRange> range = rollupJdbcRepository.dataRange();
+            if (range.isEmpty()) {
+                return new SalesRollupRebuildResponse(from, to, 0);
+            }
+            if (from == null) from = range.get().first();
+            if (to == null) to = range.get().last();
+        }
+        if (from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must not be after to");
+        }
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        int rows = 0;
+        for (LocalDate start = from; !start.isAfter(to); ) {
+            LocalDate monthEnd = start.withDayOfMonth(start.lengthOfMonth());
+            LocalDate end = monthEnd.isBefore(to) ? monthEnd : to;
+            LocalDate chunkFrom = start;
+            rows += tx.execute(status -> rollupJdbcRepository.rebuild(chunkFrom, end));
+            start = end.plusDays(1);
+        }
+        reportCacheService.invalidateAll();
+        dataVersionService.allChanged();
+        return new SalesRollupRebuildResponse(from, to, rows);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.inventory_system.service;
+
+import com.example.inventory_system.dto.SaleCreateRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Çok satırlı satış: InventoryService'in set-based satış motoruna (tek sorguda şube/ürün/batch,
+ * bellekte FIFO, JDBC batch insert) verilen zamanla devredilir.
+ */
+@Service
+@RequiredArgsConstructor
+public class SalesServiceImpl implements SalesService {
+
+    private final InventoryService inventoryService;
+
+    @Override
+    public Long createSale(Long branchId, List<SaleLine> lines, LocalDateTime createdAt) {
+        if (lines == null || lines.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Sale items cannot be empty");
+        }
+        List<SaleCreateRequest.Item> items = new ArrayList<>(lines.size());
+        for (SaleLine line : lines) {
+            if (line == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Product id is required");
+            }
+            items.add(new SaleCreateRequest.Item(line.productId(), line.quantity(), line.unitPrice()));
+        }
+        return inventoryService.createSale(new SaleCreateRequest(branchId, items), createdAt).id();
+    }
+}
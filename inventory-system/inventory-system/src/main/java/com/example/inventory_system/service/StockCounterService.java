@@ -0,0 +1,37 @@
+package com.example.inventory_system.service;
+
+import com.example.inventory_system.dto.HotProductResponse;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Product stok sayacı. Cold ürünlerde doğrudan products.stock güncellenir; hot ürünlerde
+ * yazmalar rastgele bir product_stock_shards satırına dağıtılarak tek satır çekişmesi önlenir.
+ * Okuma tarafında Product.getTotalStock() her zaman kesin toplamı verir.
+ */
+public interface StockCounterService {
+
+    /** Stok ekler; ürün yoksa false. */
+    boolean increment(Long productId, int qty);
+
+    /** Toplam stok yeterliyse düşer; ürün yoksa ya da stok yetersizse false. */
+    boolean decrement(Long productId, int qty);
+
+    /**
+     * Satış yolu: yeterlilik FIFO batch'lerinden zaten kontrol edildiği için koşulsuz,
+     * toplu düşüm (productId -> adet).
+     */
+    void decrementUnchecked(Map<Long, Integer> qtyByProductId);
+
+    /** Toplu mal kabul: productId -> eklenecek adet, tek batch. */
+    void incrementAll(Map<Long, Integer> qtyByProductId);
+
+    /** Ürünü N parçaya böler (zaten hot ise önce toplanıp yeniden bölünür). */
+    HotProductResponse markHot(Long productId, int shards);
+
+    /** Parçaları products.stock'a geri toplar. */
+    HotProductResponse markCold(Long productId);
+
+    List<HotProductResponse> listHot();
+}
@@ -0,0 +1,201 @@
+package com.example.inventory_system.service;
+
+import com.example.inventory_system.dto.HotProductResponse;
+import com.example.inventory_system.repository.ProductJdbcRepository;
+import com.example.inventory_system.repository.ProductRepository;
+import com.example.inventory_system.repository.ProductStockShardJdbcRepository;
+import com.example.inventory_system.repository.ProductStockShardJdbcRepository.Shard;
+import com.example.inventory_system.repository.ProductStockShardJdbcRepository.ShardDelta;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Hangi ürünlerin hot olduğu bellekte tutulur (productId -> parça sayısı). Bu bilgi
+ * instance başınadır ve bayat olabilir; doğruluk buna bağlı değildir:
+ * - cache hot diyor ama parçalar silinmiş: parça update'i 0 satır döner, products.stock'a düşülür;
+ * - cache cold diyor ama ürün hot: yazma products.stock'a gider, toplam yine doğrudur.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class StockCounterServiceImpl implements StockCounterService {
+
+    static final int MAX_SHARDS = 64;
+
+    private final ProductRepository productRepository;
+    private final ProductJdbcRepository productJdbcRepository;
+    private final ProductStockShardJdbcRepository shardRepository;
+
+    private final Map<Long, Integer> hotShards = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadHotProducts() {
+        hotShards.putAll(shardRepository.shardCounts());
+    }
+
+    @Override
+    public boolean increment(Long productId, int qty) {
+        Integer shards = hotShards.get(productId);
+        if (shards != null && shardRepository.add(productId, pick(shards), qty) == 1) {
+            return true;
+        }
+        return productRepository.incrementStock(productId, qty) == 1;
+    }
+
+    @Override
+    public boolean decrement(Long productId, int qty) {
+        Integer shards = hotShards.get(productId);
+        if (shards != null && shardRepository.take(productId, pick(shards), qty) == 1) {
+            return true;
+        }
+        if (productRepository.decrementStock(productId, qty) == 1) {
+            return true;
+        }
+        // tek satır/parça yetmedi: toplam üzerinden karar ver
+        return decrementAcrossShards(productId, qty);
+    }
+
+    @Override
+    public void decrementUnchecked(Map<Long, Integer> qtyByProductId) {
+        productJdbcRepository.decrementStocks(applyToHotShards(qtyByProductId, -1));
+    }
+
+    @Override
+    public void incrementAll(Map<Long, Integer> qtyByProductId) {
+        productJdbcRepository.incrementStocks(applyToHotShards(qtyByProductId, 1));
+    }
+
+    @Override
+    public HotProductResponse markHot(Long productId, int shards) {
+        if (shards < 1 || shards > MAX_SHARDS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "shards must be between 1 and " + MAX_SHARDS);
+        }
+        // kilit sırası satış yoluyla aynı: önce parçalar, sonra ürün satırı
+        shardRepository.lockShards(productId);
+        Integer base = productJdbcRepository.lockStock(productId);
+        if (base == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
+        }
+
+        // mevcut parçalar dahil toplamı yeni parçalara eşit dağıt, products.stock'u sıfırla
+        int total = base + shardRepository.deleteShards(productId);
+        int[] stocks = new int[shards];
+        for (int i = 0; i < shards; i++) {
+            stocks[i] = Math.floorDiv(total, shards) + (i < Math.floorMod(total, shards) ? 1 : 0);
+        }
+        shardRepository.createShards(productId, stocks);
+        productJdbcRepository.addStock(productId, -base);
+
+        afterCommit(() -> hotShards.put(productId, shards));
+        return new HotProductResponse(productId, shards, total);
+    }
+
+    @Override
+    public HotProductResponse markCold(Long productId) {
+        shardRepository.lockShards(productId);
+        Integer base = productJdbcRepository.lockStock(productId);
+        if (base == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
+        }
+        int folded = shardRepository.deleteShards(productId);
+        productJdbcRepository.addStock(productId, folded);
+
+        afterCommit(() -> hotShards.remove(productId));
+        return new HotProductResponse(productId, 0, (long) base + folded);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<HotProductResponse> listHot() {
+        return shardRepository.hotProducts().stream()
+                .map(r -> new HotProductResponse(r.productId(), r.shards(), r.stock()))
+                .toList();
+    }
+
+    // ========== HELPERS ==========
+
+    /**
+     * Hot ürünlerin payını rastgele parçalara tek batch'te yazar; products.stock'a
+     * uygulanması gereken kalanı (cold ürünler + bu arada cold yapılmışlar) döner.
+     */
+    private Map<Long, Integer> applyToHotShards(Map<Long, Integer> qtyByProductId, int sign) {
+        Map<Long, Integer> cold = new TreeMap<>();
+        if (qtyByProductId == null || qtyByProductId.isEmpty()) return cold;
+
+        List<ShardDelta> hot = new ArrayList<>();
+        for (Map.Entry<Long, Integer> e : new TreeMap<>(qtyByProductId).entrySet()) {
+            Integer shards = hotShards.get(e.getKey());
+            if (shards == null) {
+                cold.put(e.getKey(), e.getValue());
+            } else {
+                hot.add(new ShardDelta(e.getKey(), pick(shards), sign * e.getValue()));
+            }
+        }
+
+        int[] counts = shardRepository.addAll(hot);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                cold.put(hot.get(i).productId(), sign * hot.get(i).delta());
+            }
+        }
+        return cold;
+    }
+
+    /**
+     * Yavaş yol: tüm parçalar ve ürün satırı (satış yolundaki gibi bu sırayla) kilitlenir,
+     * toplam yeterliyse miktar önce products.stock'tan sonra pozitif parçalardan karşılanır.
+     */
+    private boolean decrementAcrossShards(Long productId, int qty) {
+        List<Shard> shards = shardRepository.lockShards(productId);
+        Integer base = productJdbcRepository.lockStock(productId);
+        if (base == null) return false;
+
+        long total = base;
+        for (Shard s : shards) total += s.stock();
+        if (total < qty) return false;
+
+        int remaining = qty;
+        int fromBase = Math.min(Math.max(base, 0), remaining);
+        if (fromBase > 0) {
+            productJdbcRepository.addStock(productId, -fromBase);
+            remaining -= fromBase;
+        }
+        for (Shard s : shards) {
+            if (remaining == 0) break;
+            int take = Math.min(Math.max(s.stock(), 0), remaining);
+            if (take > 0) {
+                shardRepository.add(productId, s.shard(), -take);
+                remaining -= take;
+            }
+        }
+        return true;
+    }
+
+    private static int pick(int shards) {
+        return ThreadLocalRandom.current().nextInt(shards);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.inventory_system.service;
+
+import com.example.inventory_system.dto.StockAsOfResponse;
+
+import java.time.LocalDate;
+
+/**
+ * Geçmiş tarihli stok / değer sorguları: inventory_ledger'dan her gece gün sonu görüntüsü
+ * üretilir; sorgu en yakın önceki görüntüden başlayıp yalnızca aradaki hareketleri toplar.
+ */
+public interface StockSnapshotService {
+
+    /** Eksik gün sonu görüntülerini (dün dahil) üretir, saklama süresi dolanları siler; üretilen gün sayısı. */
+    int maintain();
+
+    StockAsOfResponse asOf(LocalDate date, Long branchId);
+}
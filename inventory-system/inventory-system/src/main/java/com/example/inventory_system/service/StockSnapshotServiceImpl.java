@@ -0,0 +1,127 @@
+package com.example.inventory_system.service;
+
+import com.example.inventory_system.dto.StockAsOfResponse;
+import com.example.inventory_system.repository.StockSnapshotJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+/**
+ * Son daily-retention-days gün için günlük, daha eskisi için yalnızca ay sonu görüntüsü tutulur;
+ * bir sorgu en fazla ~1 aylık hareketi toplar. Her gün ayrı transaction'da, bir önceki günün
+ * görüntüsü + o günün hareketleriyle üretilir.
+ */
+@Slf4j
+@Service
+public class StockSnapshotServiceImpl implements StockSnapshotService {
+
+    /** Plan bayatlarsa (geçmiş tarihli yazım) bir bakım çalışmasında en fazla bu kadar yeniden kurulur. */
+    private static final int MAX_PLAN_ATTEMPTS = 3;
+
+    private final StockSnapshotJdbcRepository repository;
+    private final TransactionTemplate tx;
+    private final int dailyRetentionDays;
+
+    public StockSnapshotServiceImpl(StockSnapshotJdbcRepository repository,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${inventory.stock-snapshots.daily-retention-days:90}") int dailyRetentionDays) {
+        this.repository = repository;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.dailyRetentionDays = Math.max(1, dailyRetentionDays);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${inventory.stock-snapshots.cron:0 20 0 * * *}")
+    public void scheduledMaintain() {
+        try {
+            maintain();
+        } catch (RuntimeException ex) {
+            log.error("Stock snapshot maintenance failed", ex);
+        }
+    }
+
+    @Override
+    public synchronized int maintain() {
+        LocalDate windowStart = LocalDate.now().minusDays(dailyRetentionDays);
+
+        // geçmiş tarihli yazım üretim sırasında görüntü silerse plan en son kalan görüntüden yeniden kurulur
+        int built = 0;
+        boolean complete = false;
+        for (int attempt = 0; attempt < MAX_PLAN_ATTEMPTS && !complete; attempt++) {
+            complete = true;
+            LocalDate previous = repository.latestRun().orElse(null);
+            for (LocalDate day : missingDays(previous, windowStart)) {
+                LocalDate prev = previous;
+                int rows = tx.execute(status -> repository.build(day, prev));
+                if (rows == StockSnapshotJdbcRepository.STALE) {
+                    complete = false;
+                    break;
+                }
+                log.debug("Built stock snapshot for {} ({} rows)", day, rows);
+                built++;
+                previous = day;
+            }
+        }
+        if (!complete) log.warn("Stock snapshots kept being invalidated, continuing on the next run");
+
+        int purged = tx.execute(status -> repository.purgeDailyBefore(windowStart));
+        if (built > 0 || purged > 0) {
+            log.info("Stock snapshots: built {} day(s), purged {}", built, purged);
+        }
+        return built;
+    }
+
+    @Override
+    public StockAsOfResponse asOf(LocalDate date, Long branchId) {
+        if (date.isAfter(LocalDate.now())) {
+            throw new ResponseStatusException(BAD_REQUEST, "date must not be in the future");
+        }
+        List<StockAsOfResponse.Line> lines = repository.balancesAsOf(date, branchId).stream()
+                .map(r -> new StockAsOfResponse.Line(r.branchId(), r.branchName(), r.productId(),
+                        r.productName(), r.quantity(), r.value()))
+                .toList();
+        long totalQuantity = 0;
+        BigDecimal totalValue = BigDecimal.ZERO;
+        for (StockAsOfResponse.Line line : lines) {
+            totalQuantity += line.quantity();
+            totalValue = totalValue.add(line.value());
+        }
+        // yalnızca bilgi amaçlı; hesap aynı görüntüyü kendi sorgusunda seçer
+        LocalDate snapshotDate = repository.latestRunOnOrBefore(date).orElse(null);
+        return new StockAsOfResponse(date, branchId, snapshotDate, totalQuantity, totalValue, lines);
+    }
+
+    // ========== HELPERS ==========
+
+    /** latest'ten sonra dünü de içeren eksik günler; hiç görüntü yoksa pencere öncesi ay sonları. */
+    private List<LocalDate> missingDays(LocalDate latest, LocalDate windowStart) {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        List<LocalDate> days = new ArrayList<>();
+        if (latest == null) {
+            LocalDate earliest = repository.earliestLedgerDay().orElse(null);
+            if (earliest == null) return days;
+            for (YearMonth m = YearMonth.from(earliest); m.atEndOfMonth().isBefore(windowStart); m = m.plusMonths(1)) {
+                days.add(m.atEndOfMonth());
+            }
+            latest = (earliest.isAfter(windowStart) ? earliest : windowStart).minusDays(1);
+        }
+        for (LocalDate d = latest.plusDays(1); !d.isAfter(yesterday); d = d.plusDays(1)) {
+            days.add(d);
+        }
+        return days;
+    }
+}
@@ -0,0 +1,22 @@
+-- V10: raporlar için (gün, şube, ürün) bazında artımlı tutulan satış özeti
+-- Satış yazan transaction aynı anda upsert eder; raporlar sale_items yerine buradan okur.
+CREATE TABLE IF NOT EXISTS sales_daily_rollup (
+    day        DATE          NOT NULL,
+    branch_id  BIGINT        NOT NULL REFERENCES branches(id),
+    product_id BIGINT        NOT NULL REFERENCES products(id),
+    qty        BIGINT        NOT NULL DEFAULT 0,
+    revenue    NUMERIC(19,2) NOT NULL DEFAULT 0,
+    cogs       NUMERIC(19,2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (day, branch_id, product_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_sales_daily_rollup_product_day ON sales_daily_rollup (product_id, day);
+
+-- mevcut satışlardan ilk doldurma
+INSERT INTO sales_daily_rollup (day, branch_id, product_id, qty, revenue, cogs)
+SELECT CAST(s.created_at AS DATE), s.branch_id, si.product_id,
+       SUM(si.quantity), SUM(si.unit_price * si.quantity), SUM(COALESCE(si.cogs_amount, 0))
+FROM sale_items si
+JOIN sales s ON s.id = si.sale_id
+GROUP BY CAST(s.created_at AS DATE), s.branch_id, si.product_id
+ON CONFLICT (day, branch_id, product_id) DO NOTHING;
@@ -0,0 +1,25 @@
+-- V11: satış kalemlerine satışın zamanı, günü ve şubesi kopyalanır
+-- Satır bazlı toplamalar (özet tablosunun yeniden hesaplanması vb.) sales'e join yapmadan,
+-- düz sütun üzerinden gruplayarak ve yalnızca index okuyarak (index-only scan) çalışır.
+ALTER TABLE sale_items
+    ADD COLUMN IF NOT EXISTS sale_created_at TIMESTAMP,
+    ADD COLUMN IF NOT EXISTS sale_date       DATE,
+    ADD COLUMN IF NOT EXISTS branch_id       BIGINT REFERENCES branches(id);
+
+UPDATE sale_items si
+SET sale_created_at = s.created_at,
+    sale_date       = CAST(s.created_at AS DATE),
+    branch_id       = s.branch_id
+FROM sales s
+WHERE s.id = si.sale_id
+  AND si.sale_date IS NULL;
+
+ALTER TABLE sale_items
+    ALTER COLUMN sale_created_at SET NOT NULL,
+    ALTER COLUMN sale_date       SET NOT NULL,
+    ALTER COLUMN branch_id       SET NOT NULL;
+
+-- gün aralığı (+ opsiyonel şube) taraması; toplanan sütunlar INCLUDE ile index'te
+CREATE INDEX IF NOT EXISTS idx_sale_items_date_branch_product
+    ON sale_items (sale_date, branch_id, product_id)
+    INCLUDE (quantity, unit_price, cogs_amount);
@@ -0,0 +1,73 @@
+-- V12: sales ve sale_items aylık RANGE partition'a geçer
+-- sales      : created_at üzerinden, PK (id, created_at)
+-- sale_items : sale_date üzerinden (raporların filtrelediği sütun -> partition pruning), PK (id, sale_date)
+-- sale_items -> sales FK'sı partition anahtarını içermek zorunda: (sale_id, sale_created_at) -> (id, created_at)
+-- Partition adları: sales_pYYYY_MM / sale_items_pYYYY_MM; aralık dışı satırlar *_default'a düşer.
+-- İleri ayların partition'larını SalesPartitionService açar, eskileri ayırır (detach).
+
+ALTER TABLE sale_items RENAME TO sale_items_legacy;
+ALTER TABLE sales RENAME TO sales_legacy;
+
+CREATE TABLE sales (
+    id           BIGINT        NOT NULL,
+    branch_id    BIGINT        NOT NULL REFERENCES branches(id),
+    total_amount NUMERIC(12,2) NOT NULL,
+    created_at   TIMESTAMP     NOT NULL DEFAULT now()
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE sale_items (
+    id              BIGINT        NOT NULL,
+    sale_id         BIGINT        NOT NULL,
+    product_id      BIGINT        NOT NULL REFERENCES products(id),
+    quantity        INT           NOT NULL CHECK (quantity > 0),
+    unit_price      NUMERIC(12,2) NOT NULL,
+    cogs_amount     NUMERIC(12,2),
+    created_at      TIMESTAMP     NOT NULL DEFAULT now(),
+    sale_created_at TIMESTAMP     NOT NULL,
+    sale_date       DATE          NOT NULL,
+    branch_id       BIGINT        NOT NULL REFERENCES branches(id)
+) PARTITION BY RANGE (sale_date);
+
+CREATE TABLE sales_default PARTITION OF sales DEFAULT;
+CREATE TABLE sale_items_default PARTITION OF sale_items DEFAULT;
+
+-- mevcut verinin ilk ayından bu ay + 3'e kadar aylık partition'lar
+DO $$
+DECLARE
+    m    date;
+    last date := CAST(date_trunc('month', now()) + INTERVAL '3 months' AS date);
+BEGIN
+    SELECT CAST(date_trunc('month', COALESCE(MIN(created_at), now())) AS date) INTO m FROM sales_legacy;
+    WHILE m <= last LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF sales FOR VALUES FROM (%L) TO (%L)',
+                       'sales_p' || to_char(m, 'YYYY_MM'),
+                       CAST(m AS timestamp), CAST(m + INTERVAL '1 month' AS timestamp));
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF sale_items FOR VALUES FROM (%L) TO (%L)',
+                       'sale_items_p' || to_char(m, 'YYYY_MM'),
+                       m, CAST(m + INTERVAL '1 month' AS date));
+        m := CAST(m + INTERVAL '1 month' AS date);
+    END LOOP;
+END $$;
+
+INSERT INTO sales (id, branch_id, total_amount, created_at)
+SELECT id, branch_id, total_amount, created_at FROM sales_legacy;
+
+INSERT INTO sale_items (id, sale_id, product_id, quantity, unit_price, cogs_amount, created_at,
+                        sale_created_at, sale_date, branch_id)
+SELECT id, sale_id, product_id, quantity, unit_price, cogs_amount, created_at,
+       sale_created_at, sale_date, branch_id
+FROM sale_items_legacy;
+
+DROP TABLE sale_items_legacy;
+DROP TABLE sales_legacy;
+
+ALTER TABLE sales ADD CONSTRAINT sales_pkey PRIMARY KEY (id, created_at);
+ALTER TABLE sale_items ADD CONSTRAINT sale_items_pkey PRIMARY KEY (id, sale_date);
+ALTER TABLE sale_items ADD CONSTRAINT fk_sale_items_sale
+    FOREIGN KEY (sale_id, sale_created_at) REFERENCES sales (id, created_at) ON DELETE CASCADE;
+
+CREATE INDEX IF NOT EXISTS idx_sale_items_sale ON sale_items (sale_id);
+CREATE INDEX IF NOT EXISTS idx_sale_items_product_created ON sale_items (product_id, created_at);
+CREATE INDEX IF NOT EXISTS idx_sale_items_date_branch_product
+    ON sale_items (sale_date, branch_id, product_id)
+    INCLUDE (quantity, unit_price, cogs_amount);
@@ -0,0 +1,35 @@
+-- V13: uzun süren raporlar için arka plan işleri (POST /api/v1/report-jobs)
+-- status: QUEUED -> RUNNING -> SUCCEEDED | FAILED
+-- params_hash: rapor adı + normalize parametrelerin SHA-256'sı; aynı işin tekrar gönderimi
+-- bekleyen / çalışan işe ya da taze (süresi dolmamış) sonuca bağlanır.
+CREATE TABLE IF NOT EXISTS report_jobs (
+    id          BIGSERIAL    PRIMARY KEY,
+    report      VARCHAR(64)  NOT NULL,
+    params      TEXT         NOT NULL,
+    params_hash VARCHAR(64)  NOT NULL,
+    status      VARCHAR(16)  NOT NULL,
+    progress    INT          NOT NULL DEFAULT 0,
+    row_count   INT,
+    chunk_count INT,
+    summary     TEXT,
+    error       TEXT,
+    created_at  TIMESTAMP    NOT NULL DEFAULT now(),
+    started_at  TIMESTAMP,
+    finished_at TIMESTAMP,
+    expires_at  TIMESTAMP
+);
+
+-- aynı parametrelerle en fazla bir bekleyen / çalışan iş
+CREATE UNIQUE INDEX IF NOT EXISTS ux_report_jobs_active
+    ON report_jobs (params_hash) WHERE status IN ('QUEUED', 'RUNNING');
+
+CREATE INDEX IF NOT EXISTS idx_report_jobs_hash_finished ON report_jobs (params_hash, finished_at DESC);
+CREATE INDEX IF NOT EXISTS idx_report_jobs_expires_at ON report_jobs (expires_at);
+
+-- sonuç satırları sabit boyutlu parçalar halinde (JSON dizisi); sayfa = parça
+CREATE TABLE IF NOT EXISTS report_job_chunks (
+    job_id   BIGINT NOT NULL REFERENCES report_jobs(id) ON DELETE CASCADE,
+    chunk_no INT    NOT NULL,
+    rows     TEXT   NOT NULL,
+    PRIMARY KEY (job_id, chunk_no)
+);
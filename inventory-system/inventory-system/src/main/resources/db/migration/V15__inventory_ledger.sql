@@ -0,0 +1,73 @@
+-- V15: stok hareketlerinin tek kaynağı, yalnızca eklenir (güncelleme / silme yok).
+-- Satış, mal kabul, transfer ve stok düzeltme kendi transaction'ında buraya da yazar;
+-- işlem geçmişi, ürün hareketleri ve denetim okumaları kaynak tabloları birleştirmez.
+--
+-- quantity işaretlidir (+ giriş, - çıkış). cost_amount stok değerindeki değişimdir
+-- (mal kabulde +miktar*maliyet, satışta -SMM); transfer / düzeltme batch'lere dokunmadığı
+-- için boştur. unit_price satışta satış fiyatı, mal kabulde birim maliyettir.
+-- doc_type / doc_id kaynağı gösterir: sale_item, product_batch, branch_transfer (düzeltmede boş).
+-- branch / product'a FK yok: silinen ürün ve şubenin geçmişi kalır.
+CREATE TABLE IF NOT EXISTS inventory_ledger (
+    id          BIGSERIAL     PRIMARY KEY,
+    created_at  TIMESTAMP     NOT NULL,
+    entry_type  VARCHAR(16)   NOT NULL
+        CHECK (entry_type IN ('PURCHASE', 'SALE', 'TRANSFER_OUT', 'TRANSFER_IN', 'ADJUSTMENT')),
+    branch_id   BIGINT        NOT NULL,
+    product_id  BIGINT        NOT NULL,
+    quantity    INTEGER       NOT NULL CHECK (quantity <> 0),
+    unit_price  NUMERIC(19,4),
+    cost_amount NUMERIC(19,4),
+    doc_type    VARCHAR(16),
+    doc_id      BIGINT
+);
+
+-- mevcut geçmiş, zaman sırasıyla (BRIN blok aralıkları dar kalsın). Mal kabulde batch'in
+-- kalan miktarı yazılır (ilk miktar tutulmuyordu); eski stock_movements düzeltmeleri kaynağı
+-- belli olmadığı için taşınmaz.
+INSERT INTO inventory_ledger (created_at, entry_type, branch_id, product_id, quantity,
+                              unit_price, cost_amount, doc_type, doc_id)
+SELECT created_at, entry_type, branch_id, product_id, quantity, unit_price, cost_amount, doc_type, doc_id
+FROM (
+    SELECT pb.created_at, 'PURCHASE' AS entry_type, pb.branch_id, pb.product_id, pb.quantity,
+           pb.unit_cost AS unit_price, pb.unit_cost * pb.quantity AS cost_amount,
+           'product_batch' AS doc_type, pb.id AS doc_id
+    FROM product_batches pb
+    WHERE pb.quantity > 0
+    UNION ALL
+    SELECT si.sale_created_at, 'SALE', si.branch_id, si.product_id, -si.quantity,
+           si.unit_price, -COALESCE(si.cogs_amount, 0), 'sale_item', si.id
+    FROM sale_items si
+    WHERE si.quantity > 0
+    UNION ALL
+    SELECT bt.created_at, 'TRANSFER_OUT', bt.source_branch_id, bt.product_id, -bt.quantity,
+           NULL, NULL, 'branch_transfer', bt.id
+    FROM branch_transfer bt
+    WHERE bt.quantity > 0
+    UNION ALL
+    SELECT bt.created_at, 'TRANSFER_IN', bt.target_branch_id, tp.id, bt.quantity,
+           NULL, NULL, 'branch_transfer', bt.id
+    FROM branch_transfer bt
+    JOIN products sp ON sp.id = bt.product_id
+    JOIN LATERAL (
+        SELECT MIN(p.id) AS id FROM products p
+        WHERE p.branch_id = bt.target_branch_id AND lower(p.sku) = lower(sp.sku)
+    ) tp ON tp.id IS NOT NULL
+    WHERE bt.quantity > 0
+) history
+ORDER BY created_at, doc_type, doc_id;
+
+-- denetim / dışa aktarma: zaman aralığı taraması (satırlar eklenme sırasıyla, BRIN yeterli)
+CREATE INDEX IF NOT EXISTS brin_inventory_ledger_created ON inventory_ledger USING BRIN (created_at);
+-- ürün hareketleri
+CREATE INDEX IF NOT EXISTS idx_inventory_ledger_product_created ON inventory_ledger (product_id, created_at, id);
+-- GET /api/v1/transactions keyset sayfalaması (yalnızca mal kabul + satış)
+CREATE INDEX IF NOT EXISTS idx_inventory_ledger_tx_created ON inventory_ledger (created_at, id)
+    WHERE entry_type IN ('PURCHASE', 'SALE');
+CREATE INDEX IF NOT EXISTS idx_inventory_ledger_tx_branch_created ON inventory_ledger (branch_id, created_at, id)
+    WHERE entry_type IN ('PURCHASE', 'SALE');
+
+-- V14'ün kaynak tablo index'leri: akış artık buradan okunuyor
+DROP INDEX IF EXISTS idx_batches_created_id;
+DROP INDEX IF EXISTS idx_batches_branch_created_id;
+DROP INDEX IF EXISTS idx_sale_items_sale_created_id;
+DROP INDEX IF EXISTS idx_sale_items_branch_sale_created_id;
@@ -0,0 +1,21 @@
+-- V16: gün sonu stok / değer anlık görüntüleri (GET /api/v1/stock/as-of)
+-- Bir gün (snapshot_date) o günün sonundaki bakiyedir: önceki görüntü + aradaki ledger satırları.
+-- Tarih D sorgusu D'den önceki en yakın görüntüyü alır ve yalnızca sonrasını ledger'dan ekler.
+-- Son daily-retention-days gün günlük, daha eskisi ay sonu olarak saklanır.
+--
+-- Geçmiş tarihli ledger satırı (ör. tarihli satış aktarımı) o günden sonraki görüntüleri siler
+-- (run satırı, cascade ile görüntü satırları); bakım işi eksik günleri yeniden üretir.
+CREATE TABLE IF NOT EXISTS stock_snapshot_runs (
+    snapshot_date DATE      PRIMARY KEY,
+    created_at    TIMESTAMP NOT NULL DEFAULT now()
+);
+
+-- value: ledger cost_amount toplamı (mal kabul maliyeti - satış SMM); sıfır bakiyeler yazılmaz
+CREATE TABLE IF NOT EXISTS stock_snapshots (
+    snapshot_date DATE          NOT NULL REFERENCES stock_snapshot_runs(snapshot_date) ON DELETE CASCADE,
+    branch_id     BIGINT        NOT NULL,
+    product_id    BIGINT        NOT NULL,
+    quantity      BIGINT        NOT NULL,
+    value         NUMERIC(19,4) NOT NULL,
+    PRIMARY KEY (snapshot_date, branch_id, product_id)
+);
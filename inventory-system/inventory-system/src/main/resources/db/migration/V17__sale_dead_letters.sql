@@ -0,0 +1,14 @@
+-- V17: LEDGER modunda kabul edilip write-behind ile yazılamayan satışlar.
+-- Grup tek tek denendikten ve sınırlı yeniden denemeden sonra hâlâ yazılamayan satış
+-- (ör. kuyruktayken ürünü silinen satış) yazıcıyı tıkamak yerine buraya bırakılır.
+-- payload: satır, kalemler, batch tüketimi ve stok düşümleri (JSON); elle incelenip işlenir.
+CREATE TABLE IF NOT EXISTS sale_dead_letters (
+    id         BIGSERIAL   PRIMARY KEY,
+    sale_id    BIGINT      NOT NULL,
+    branch_id  BIGINT      NOT NULL,
+    payload    TEXT        NOT NULL,
+    error      TEXT,
+    failed_at  TIMESTAMP   NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_sale_dead_letters_failed_at ON sale_dead_letters (failed_at);
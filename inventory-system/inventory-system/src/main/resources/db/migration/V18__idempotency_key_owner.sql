@@ -0,0 +1,5 @@
+-- V18: idempotency_keys sahiplik belirteci ve COMMITTED durumu
+-- owner: anahtarı sahiplenen / devralan isteğin belirteci; yalnızca sahibi işaretleyip tamamlayabilir.
+-- COMMITTED: işlemin transaction'ı commit oldu (aynı transaction'da yazılır), yanıt henüz kaydedilmedi.
+-- COMMITTED anahtar devralınmaz: yanıt kaydedilmeden süreç ölse de işlem ikinci kez çalışmaz.
+ALTER TABLE idempotency_keys ADD COLUMN IF NOT EXISTS owner VARCHAR(36);
@@ -0,0 +1,53 @@
+-- V19: V15 backfill'ini bugünkü stoğa eşitleyen açılış bakiyesi.
+-- V15 mal kabulde batch'in kalan miktarını yazdı (ilk miktar tutulmuyordu), satışları ise tam
+-- miktarıyla; satılan adet iki kez düşülmüş oldu ve ledger toplamı bugünkü stoğu vermiyordu.
+-- (şube, ürün) başına, ledger'ın en eski satırından önce bir ADJUSTMENT / opening_balance satırı
+-- adedi bugünkü stoğa (products.stock + parçalar), maliyeti bugünkü batch değerine tamamlar.
+-- Fark yoksa satır yazılmaz; bu yüzden tekrar çalışması zararsızdır.
+--
+-- Sınır: açılış tek bir ana yazılır. Satışların hangi batch'ten düştüğü tutulmadığı için eksik
+-- adet batch'lere (ve tarihlerine) dağıtılamaz; backfill edilen dönemde as-of sonucu, D'den
+-- sonra gelen batch'lerden satılan adet kadar fazla çıkabilir. Canlı ledger döneminde kesindir.
+ALTER TABLE inventory_ledger DROP CONSTRAINT IF EXISTS inventory_ledger_quantity_check;
+ALTER TABLE inventory_ledger ADD CONSTRAINT inventory_ledger_quantity_check
+    CHECK (quantity <> 0 OR doc_type = 'opening_balance');
+
+WITH replayed AS (
+    SELECT branch_id, product_id, SUM(quantity) AS quantity, SUM(COALESCE(cost_amount, 0)) AS value
+    FROM inventory_ledger
+    GROUP BY branch_id, product_id
+),
+current_state AS (
+    SELECT branch_id, product_id, SUM(quantity) AS quantity, SUM(value) AS value
+    FROM (
+        SELECT p.branch_id, p.id AS product_id, COALESCE(p.stock, 0) AS quantity, 0 AS value
+        FROM products p
+        UNION ALL
+        SELECT p.branch_id, p.id, s.stock, 0
+        FROM product_stock_shards s
+        JOIN products p ON p.id = s.product_id
+        UNION ALL
+        SELECT pb.branch_id, pb.product_id, 0, pb.quantity * pb.unit_cost
+        FROM product_batches pb
+        WHERE pb.quantity > 0
+    ) t
+    GROUP BY branch_id, product_id
+),
+opening AS (
+    SELECT (SELECT COALESCE(MIN(created_at), LOCALTIMESTAMP) FROM inventory_ledger) - interval '1 second' AS created_at,
+           COALESCE(c.branch_id, r.branch_id) AS branch_id,
+           COALESCE(c.product_id, r.product_id) AS product_id,
+           CAST(COALESCE(c.quantity, 0) - COALESCE(r.quantity, 0) AS INTEGER) AS quantity,
+           COALESCE(c.value, 0) - COALESCE(r.value, 0) AS cost_amount
+    FROM current_state c
+    FULL JOIN replayed r ON r.branch_id = c.branch_id AND r.product_id = c.product_id
+)
+INSERT INTO inventory_ledger (created_at, entry_type, branch_id, product_id, quantity,
+                              unit_price, cost_amount, doc_type, doc_id)
+SELECT created_at, 'ADJUSTMENT', branch_id, product_id, quantity, NULL, cost_amount, 'opening_balance', NULL
+FROM opening
+WHERE quantity <> 0 OR cost_amount <> 0
+ORDER BY branch_id, product_id;
+
+-- mevcut gün sonu görüntüleri açılış satırları olmadan üretildi; bakım işi yeniden üretir
+DELETE FROM stock_snapshot_runs;
@@ -0,0 +1,22 @@
+-- V6: IDENTITY yerine pooled sequence (INCREMENT BY 50 = entity'lerdeki allocationSize)
+-- IDENTITY kullanan entity'lerde Hibernate insert batch'leyemiyor; sequence ile id'ler önceden ayrılıyor.
+CREATE SEQUENCE IF NOT EXISTS products_seq        START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS product_batches_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS sales_seq           START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS sale_items_seq      START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS stock_movements_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS branch_transfer_seq START WITH 1 INCREMENT BY 50;
+
+-- Mevcut veriyle çakışmasın: pooled optimizer nextval'i bloğun üst sınırı sayar,
+-- bu yüzden sequence'ı MAX(id)'ye çekmek bir sonraki bloğu MAX(id)+1'den başlatır.
+DO $$
+DECLARE
+    t text;
+BEGIN
+    FOREACH t IN ARRAY ARRAY['products', 'product_batches', 'sales', 'sale_items', 'stock_movements', 'branch_transfer']
+    LOOP
+        IF to_regclass(t) IS NOT NULL THEN
+            EXECUTE format('SELECT setval(%L, GREATEST((SELECT COALESCE(MAX(id), 0) FROM %I), 1))', t || '_seq', t);
+        END IF;
+    END LOOP;
+END $$;
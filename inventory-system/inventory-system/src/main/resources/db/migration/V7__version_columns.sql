@@ -0,0 +1,3 @@
+-- V7: optimistic concurrency için version kolonları (Product, ProductBatch @Version)
+ALTER TABLE products        ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE product_batches ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,9 @@
+-- V8: hot ürünler için parçalı (sharded) stok sayacı
+-- Ürün başına N satır; yazanlar rastgele bir parçayı günceller, okuyanlar toplar.
+-- Gerçek stok = products.stock + SUM(product_stock_shards.stock)
+CREATE TABLE IF NOT EXISTS product_stock_shards (
+    product_id BIGINT  NOT NULL REFERENCES products(id) ON DELETE CASCADE,
+    shard      INTEGER NOT NULL,
+    stock      INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (product_id, shard)
+);
@@ -0,0 +1,11 @@
+-- V9: satış / mal kabul yazmaları için Idempotency-Key kayıtları
+-- IN_PROGRESS: istek işleniyor (anahtar sahiplenildi), COMPLETED: response_body tekrar için saklandı
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    idempotency_key VARCHAR(128) PRIMARY KEY,
+    request_hash    VARCHAR(64)  NOT NULL,
+    status          VARCHAR(16)  NOT NULL,
+    response_body   TEXT,
+    created_at      TIMESTAMP    NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_created_at ON idempotency_keys (created_at);
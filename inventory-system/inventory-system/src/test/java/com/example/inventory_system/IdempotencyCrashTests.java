@@ -0,0 +1,172 @@
+package com.example.inventory_system;
+
+import com.example.inventory_system.dto.SaleCreateRequest;
+import com.example.inventory_system.dto.SaleResponse;
+import com.example.inventory_system.repository.IdempotencyJdbcRepository;
+import com.example.inventory_system.service.IdempotencyService;
+import com.example.inventory_system.service.InventoryService;
+import com.example.inventory_system.service.PurchaseService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+
+/**
+ * İşlem commit olup yanıt kaydedilmeden süreç ölürse (complete hiç çalışmaz) aynı anahtarla
+ * gelen tekrar, zaman aşımından sonra bile işlemi ikinci kez çalıştırmamalı. Commit olmadan
+ * ölen isteğin anahtarı ise devralınıp işlem bir kez çalışmalı. Stok yetmediği için reddedilen
+ * satış anahtarı bırakmalı; stok gelince aynı anahtarla tekrar uygulanabilmeli. İşlemler gerçek
+ * transaction'da commit olduğundan test transaction'sızdır; satırlar sonda silinir.
+ */
+@SpringBootTest
+class IdempotencyCrashTests {
+
+    private static final String SCOPE = "POST /api/v1/purchases/orders";
+    private static final String SCOPE_SALE = "POST /api/v1/sales";
+
+    @Autowired IdempotencyService idempotencyService;
+    @Autowired PurchaseService purchaseService;
+    @Autowired InventoryService inventoryService;
+    @Autowired JdbcTemplate jdbc;
+    @SpyBean IdempotencyJdbcRepository repository;
+
+    private String suffix;
+    private String key;
+    private Long branchId;
+    private Long categoryId;
+    private Long productId;
+
+    @BeforeEach
+    void seed() {
+        suffix = Long.toString(System.nanoTime());
+        key = "crash-test-" + suffix;
+        branchId = jdbc.queryForObject("""
+                INSERT INTO branches (name, address, phone, created_at)
+                VALUES (?, 'test', '000', now()) RETURNING id
+                """, Long.class, "idempotency-" + suffix);
+        categoryId = jdbc.queryForObject("""
+                INSERT INTO categories (name, created_at) VALUES (?, now()) RETURNING id
+                """, Long.class, "idempotency-" + suffix);
+        productId = jdbc.queryForObject("""
+                INSERT INTO products (id, name, sku, price, stock, branch_id, category_id, created_at)
+                SELECT COALESCE(MAX(id), 0) + 1, 'idempotency', ?, 10, 0, ?, ?, now() FROM products
+                RETURNING id
+                """, Long.class, "IDEM-" + suffix, branchId, categoryId);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbc.update("DELETE FROM idempotency_keys WHERE idempotency_key = ?", key);
+        List<Long> saleIds = jdbc.queryForList("SELECT sale_id FROM sale_items WHERE product_id = ?", Long.class, productId);
+        jdbc.update("DELETE FROM sale_items WHERE product_id = ?", productId);
+        saleIds.forEach(id -> jdbc.update("DELETE FROM sales WHERE id = ?", id));
+        jdbc.update("DELETE FROM sales_daily_rollup WHERE product_id = ?", productId);
+        jdbc.update("DELETE FROM inventory_ledger WHERE product_id = ?", productId);
+        jdbc.update("DELETE FROM product_batches WHERE product_id = ?", productId);
+        jdbc.update("DELETE FROM products WHERE id = ?", productId);
+        jdbc.update("DELETE FROM categories WHERE id = ?", categoryId);
+        jdbc.update("DELETE FROM branches WHERE id = ?", branchId);
+    }
+
+    @Test
+    void crashBetweenCommitAndCompleteDoesNotReapply() {
+        doThrow(new IllegalStateException("simulated crash"))
+                .when(repository).complete(eq(key), any(), any());
+
+        assertThatThrownBy(this::receive).hasMessageContaining("simulated crash");
+        assertThat(batchCount()).isEqualTo(1);
+        assertThat(status()).isEqualTo("COMMITTED");
+
+        // süreç öldü: in-flight-timeout geçti, tekrar geliyor
+        jdbc.update("UPDATE idempotency_keys SET created_at = now() - interval '1 hour' WHERE idempotency_key = ?", key);
+        assertThatThrownBy(this::receive)
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        ex -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+        assertThat(batchCount()).isEqualTo(1);
+    }
+
+    @Test
+    void staleKeyWithoutCommitIsTakenOverAndAppliedOnce() {
+        // önceki istek commit etmeden öldü: Error release'i atlar, anahtar IN_PROGRESS kalır
+        assertThatThrownBy(() -> idempotencyService.execute(key, SCOPE, suffix, Void.class, () -> {
+            throw new AssertionError("simulated crash before commit");
+        })).isInstanceOf(AssertionError.class);
+        assertThat(status()).isEqualTo("IN_PROGRESS");
+        jdbc.update("UPDATE idempotency_keys SET created_at = now() - interval '1 hour' WHERE idempotency_key = ?", key);
+
+        receive();
+        receive();
+
+        assertThat(batchCount()).isEqualTo(1);
+        assertThat(status()).isEqualTo("COMPLETED");
+    }
+
+    @Test
+    void rejectedSaleReleasesKeyAndRetryIsApplied() {
+        assertThatThrownBy(() -> sell(SCOPE_SALE))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        ex -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+        assertThat(keyCount()).isZero();
+
+        // stok geldi, kasa aynı anahtarla tekrar deniyor
+        purchaseService.createPurchase(branchId, List.of(
+                new PurchaseService.PurchaseLine(productId, 10, new BigDecimal("2.50"), null)));
+        SaleResponse sale = sell(SCOPE_SALE);
+        SaleResponse replay = sell(SCOPE_SALE);
+
+        assertThat(replay.id()).isEqualTo(sale.id());
+        assertThat(status()).isEqualTo("COMPLETED");
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM sale_items WHERE product_id = ?", Integer.class, productId))
+                .isEqualTo(1);
+        assertThat(jdbc.queryForObject("SELECT stock FROM products WHERE id = ?", Integer.class, productId))
+                .isEqualTo(5);
+    }
+
+    // ========== HELPERS ==========
+
+    private SaleResponse sell(String scope) {
+        SaleCreateRequest request = new SaleCreateRequest(branchId,
+                List.of(new SaleCreateRequest.Item(productId, 5, BigDecimal.TEN)));
+        return idempotencyService.execute(key, scope, request, SaleResponse.class,
+                () -> inventoryService.createSale(request));
+    }
+
+    private int keyCount() {
+        Integer n = jdbc.queryForObject("SELECT COUNT(*) FROM idempotency_keys WHERE idempotency_key = ?",
+                Integer.class, key);
+        return n != null ? n : 0;
+    }
+
+    private void receive() {
+        idempotencyService.execute(key, SCOPE, suffix, Void.class, () -> {
+            purchaseService.createPurchase(branchId, List.of(
+                    new PurchaseService.PurchaseLine(productId, 10, new BigDecimal("2.50"), null)));
+            return null;
+        });
+    }
+
+    private int batchCount() {
+        Integer n = jdbc.queryForObject("SELECT COUNT(*) FROM product_batches WHERE product_id = ?",
+                Integer.class, productId);
+        return n != null ? n : 0;
+    }
+
+    private String status() {
+        return jdbc.queryForObject("SELECT status FROM idempotency_keys WHERE idempotency_key = ?",
+                String.class, key);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.inventory_system;
+
+import com.example.inventory_system.domain.Branch;
+import com.example.inventory_system.domain.Product;
+import com.example.inventory_system.dto.PurchaseRequest;
+import com.example.inventory_system.dto.SaleCreateRequest;
+import com.example.inventory_system.repository.BranchRepository;
+import com.example.inventory_system.repository.ProductRepository;
+import com.example.inventory_system.service.InventoryService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Yazma yolu için kaba throughput ölçümü (rows/s). Normal build'de çalışmaz:
+ *
+ *   mvn test -Dtest=InventoryWriteBenchmarkTests -Dbench=true
+ *
+ * docker-compose'daki Postgres'e karşı koşar ve kendi şube/ürünlerini oluşturur.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "bench", matches = "true")
+class InventoryWriteBenchmarkTests {
+
+    private static final int PRODUCTS = 20;
+    private static final int PURCHASES = 2_000;
+    private static final int SALES = 500;
+
+    @Autowired InventoryService inventoryService;
+    @Autowired BranchRepository branches;
+    @Autowired ProductRepository products;
+
+    @Test
+    void receiveBatchAndCreateSaleThroughput() {
+        String tag = UUID.randomUUID().toString().substring(0, 8);
+        Branch branch = branches.save(new Branch("bench-" + tag, "benchmark address", "02120000000"));
+        List<Product> ps = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            ps.add(products.save(new Product("bench " + i, "B-" + tag + "-" + i,
+                    BigDecimal.TEN, 0, branch)));
+        }
+
+        // receiveBatch: her çağrı 1 batch + 1 movement insert + 1 product update
+        long t0 = System.nanoTime();
+        for (int i = 0; i < PURCHASES; i++) {
+            Product p = ps.get(i % PRODUCTS);
+            inventoryService.receiveBatch(new PurchaseRequest(p.getId(), branch.getId(), 10,
+                    BigDecimal.ONE, LocalDate.now().plusDays(30 + i % 60)));
+        }
+        report("receiveBatch", PURCHASES * 3L, System.nanoTime() - t0);
+
+        // createSale: her çağrı 1 sale + PRODUCTS item + PRODUCTS movement insert
+        List<SaleCreateRequest.Item> basket = ps.stream()
+                .map(p -> new SaleCreateRequest.Item(p.getId(), 1, BigDecimal.TEN))
+                .toList();
+        long t1 = System.nanoTime();
+        for (int i = 0; i < SALES; i++) {
+            inventoryService.createSale(new SaleCreateRequest(branch.getId(), basket));
+        }
+        report("createSale", SALES * (1L + 2L * PRODUCTS), System.nanoTime() - t1);
+    }
+
+    private static void report(String name, long rows, long nanos) {
+        double seconds = nanos / 1e9;
+        System.out.printf("[bench] %-12s rows=%d time=%.2fs rows/s=%.0f%n", name, rows, seconds, rows / seconds);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.inventory_system;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * V15 backfill + V19 açılış bakiyesi, ledger olmadan yazılmış geçmiş üzerinde (LedgerFixtures):
+ * batch'lerde yalnızca kalan miktar, tükenmiş batch ve satışlar var. Ürünün ledger toplamı
+ * bugünkü stoğa, maliyet toplamı bugünkü batch değerine eşit olmalı.
+ */
+@SpringBootTest
+@Transactional
+class LedgerBackfillTests {
+
+    @Autowired JdbcTemplate jdbc;
+
+    private final LocalDateTime t0 = LocalDate.now().minusDays(1).atTime(8, 0);
+
+    @BeforeEach
+    void migrateFixture() {
+        LedgerFixtures.useIsolatedSchema(jdbc);
+        LedgerFixtures.seedPreLedgerHistory(jdbc, t0);
+        LedgerFixtures.migrate(jdbc);
+    }
+
+    @Test
+    void backfillReconcilesToCurrentStockAndBatchValue() {
+        assertThat(totals()).containsEntry("quantity", 40L);
+        assertThat((BigDecimal) totals().get("value")).isEqualByComparingTo("80.00");
+
+        // açılış satırı ürünün geçmişinden önce
+        Map<String, Object> opening = jdbc.queryForMap("""
+                SELECT quantity, cost_amount, created_at < ? AS before_history
+                FROM inventory_ledger WHERE product_id = ? AND doc_type = 'opening_balance'
+                """, t0, LedgerFixtures.PRODUCT_ID);
+        assertThat(opening.get("quantity")).isEqualTo(80);
+        assertThat((BigDecimal) opening.get("cost_amount")).isEqualByComparingTo("180.00");
+        assertThat(opening.get("before_history")).isEqualTo(true);
+    }
+
+    @Test
+    void openingBalanceIsNotAddedTwice() {
+        long rows = ledgerRows();
+
+        LedgerFixtures.runMigration(jdbc, "V19__ledger_opening_balance.sql");
+
+        assertThat(ledgerRows()).isEqualTo(rows);
+        assertThat(totals()).containsEntry("quantity", 40L);
+    }
+
+    private Map<String, Object> totals() {
+        return jdbc.queryForMap("""
+                SELECT SUM(quantity) AS quantity, SUM(COALESCE(cost_amount, 0)) AS value
+                FROM inventory_ledger WHERE product_id = ?
+                """, LedgerFixtures.PRODUCT_ID);
+    }
+
+    private long ledgerRows() {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM inventory_ledger", Long.class);
+    }
+}
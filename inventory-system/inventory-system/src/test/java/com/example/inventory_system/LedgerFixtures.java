@@ -0,0 +1,92 @@
+package com.example.inventory_system;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Ledger'dan önce yazılmış geçmiş üzerinde ledger migration'ları (V15 backfill, V16, V19 açılış).
+ * Kaynak tablolar public'tekilerin kopyası olarak (FK'sız) ayrı bir şemada, test transaction'ı
+ * içinde oluşturulur; search_path o şemaya çevrildiği için migration'lar ve servisler canlı
+ * tablolara dokunmaz, rollback şemayı da siler. Çağıran test @Transactional olmalıdır.
+ */
+final class LedgerFixtures {
+
+    static final String SCHEMA = "ledger_fixture";
+    static final long BRANCH_ID = 1;
+    static final long PRODUCT_ID = 1;
+
+    private static final List<String> SOURCE_TABLES = List.of(
+            "branches", "products", "product_stock_shards", "product_batches", "sale_items", "branch_transfer");
+
+    private static final List<String> MIGRATIONS = List.of(
+            "V15__inventory_ledger.sql", "V16__stock_snapshots.sql", "V19__ledger_opening_balance.sql");
+
+    private LedgerFixtures() {}
+
+    /** Şemayı kurar; transaction'ın kalanında tablo adları bu şemaya çözülür. */
+    static void useIsolatedSchema(JdbcTemplate jdbc) {
+        jdbc.execute("CREATE SCHEMA " + SCHEMA);
+        for (String table : SOURCE_TABLES) {
+            jdbc.execute("CREATE TABLE %s.%s (LIKE public.%s INCLUDING DEFAULTS)".formatted(SCHEMA, table, table));
+        }
+        jdbc.execute("SET LOCAL search_path TO " + SCHEMA);
+    }
+
+    /**
+     * t0'dan başlayan geçmiş: 100 alındı, 60 satıldı (batch'te kalan 40); 20'lik ikinci batch
+     * alındı, tamamı satıldı. Ürünün bugünkü stoğu 40, batch değeri 80.
+     */
+    static void seedPreLedgerHistory(JdbcTemplate jdbc, LocalDateTime t0) {
+        jdbc.update("""
+                INSERT INTO branches (id, name, address, phone, created_at)
+                VALUES (?, 'ledger-fixture', 'test', '000', ?)
+                """, BRANCH_ID, t0);
+        jdbc.update("""
+                INSERT INTO products (id, name, sku, price, stock, branch_id, created_at)
+                VALUES (?, 'ledger-fixture', 'LF-1', 10, 40, ?, ?)
+                """, PRODUCT_ID, BRANCH_ID, t0);
+        insertBatch(jdbc, 1, 40, "2.00", t0);
+        insertBatch(jdbc, 2, 0, "3.00", t0.plusHours(1));
+        insertSaleItem(jdbc, 1, 60, "120.00", t0.plusHours(2));
+        insertSaleItem(jdbc, 2, 20, "60.00", t0.plusHours(2));
+    }
+
+    /** Ledger migration'ları Flyway sırasıyla. */
+    static void migrate(JdbcTemplate jdbc) {
+        for (String migration : MIGRATIONS) {
+            runMigration(jdbc, migration);
+        }
+    }
+
+    static void runMigration(JdbcTemplate jdbc, String migration) {
+        jdbc.execute((ConnectionCallback<Void>) con -> {
+            ScriptUtils.executeSqlScript(con, new EncodedResource(
+                    new ClassPathResource("db/migration/" + migration), StandardCharsets.UTF_8));
+            return null;
+        });
+    }
+
+    private static void insertBatch(JdbcTemplate jdbc, long id, int quantity, String unitCost, LocalDateTime createdAt) {
+        jdbc.update("""
+                INSERT INTO product_batches (id, product_id, branch_id, quantity, unit_cost, created_at)
+                VALUES (?, ?, ?, ?, ?, ?)
+                """, id, PRODUCT_ID, BRANCH_ID, quantity, new BigDecimal(unitCost), createdAt);
+    }
+
+    private static void insertSaleItem(JdbcTemplate jdbc, long id, int quantity, String cogs, LocalDateTime saleCreatedAt) {
+        jdbc.update("""
+                INSERT INTO sale_items (id, sale_id, branch_id, product_id, quantity, unit_price, cogs_amount,
+                                        created_at, sale_created_at, sale_date)
+                VALUES (?, 1, ?, ?, ?, 10, ?, ?, ?, ?)
+                """, id, BRANCH_ID, PRODUCT_ID, quantity, new BigDecimal(cogs),
+                saleCreatedAt, saleCreatedAt, saleCreatedAt.toLocalDate());
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.inventory_system;
+
+import com.example.inventory_system.controller.ReportController;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Satış raporlarının her biri tek SQL ifadesiyle çalışmalı: ürün adı / SKU join'le gelir
+ * (satır başına findById yok), limit veritabanına iner. Sayım Hibernate istatistiklerinden
+ * (hazırlanan statement sayısı); raporlar cache'e takılmasın diye cache kapalı.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "inventory.reports.cache.enabled=false"
+})
+@Transactional
+class ReportQueryCountTests {
+
+    private final LocalDate from = LocalDate.of(2001, 1, 1);
+    private final LocalDate to = LocalDate.of(2001, 1, 31);
+
+    @Autowired ReportController reports;
+    @Autowired JdbcTemplate jdbc;
+    @Autowired EntityManagerFactory entityManagerFactory;
+
+    private Long branchId;
+
+    // ürün id'leri Hibernate'in pooled sequence'ından; test satırları çakışmasın diye MAX + 1 (rollback olur)
+    @BeforeEach
+    void seed() {
+        String suffix = Long.toString(System.nanoTime());
+        branchId = jdbc.queryForObject("""
+                INSERT INTO branches (name, address, phone, created_at)
+                VALUES (?, 'test', '000', now()) RETURNING id
+                """, Long.class, "query-count-" + suffix);
+        Long categoryId = jdbc.queryForObject("""
+                INSERT INTO categories (name, created_at) VALUES (?, now()) RETURNING id
+                """, Long.class, "query-count-" + suffix);
+        for (int i = 0; i < 5; i++) {
+            Long productId = jdbc.queryForObject("""
+                    INSERT INTO products (id, name, sku, price, stock, branch_id, category_id, created_at)
+                    SELECT COALESCE(MAX(id), 0) + 1, ?, ?, 10, 100, ?, ?, now() FROM products
+                    RETURNING id
+                    """, Long.class, "product-" + i, "QC-" + suffix + "-" + i, branchId, categoryId);
+            for (int d = 0; d < 3; d++) {
+                jdbc.update("""
+                        INSERT INTO sales_daily_rollup (day, branch_id, product_id, qty, revenue, cogs)
+                        VALUES (?, ?, ?, ?, ?, ?)
+                        """, from.plusDays(d), branchId, productId, i + 1, 10 * (i + 1), 6 * (i + 1));
+            }
+        }
+    }
+
+    @Test
+    void bestsellersRunsOneStatementAndLimitsInSql() {
+        var rows = countOne(() -> reports.bestsellers(from, to, branchId, 2));
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0).productName()).isEqualTo("product-4");
+    }
+
+    @Test
+    void slowMoversRunsOneStatement() {
+        assertThat(countOne(() -> reports.slowMovers(from, to, branchId, 6))).hasSize(2);
+    }
+
+    @Test
+    void salesTrendRunsOneStatement() {
+        assertThat(countOne(() -> reports.salesTrend(from, to, branchId))).hasSize(3);
+    }
+
+    @Test
+    void categorySalesRunsOneStatement() {
+        assertThat(countOne(() -> reports.categorySales(from, to, branchId))).hasSize(1);
+    }
+
+    @Test
+    void productMarginsRunsOneStatementAndLimitsInSql() {
+        var rows = countOne(() -> reports.productMargins(from, to, branchId, 3));
+        assertThat(rows).hasSize(3);
+        assertThat(rows.get(0).sku()).endsWith("-4");
+    }
+
+    @Test
+    void incomeStatementRunsOneStatement() {
+        var result = countOne(() -> reports.incomeStatement(from, to, branchId));
+        assertThat(result.get("totalQuantity")).isEqualTo(45L);
+        assertThat(new BigDecimal((String) result.get("revenue"))).isEqualByComparingTo("450");
+    }
+
+    private <T> T countOne(Supplier<T> report) {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        T result = report.get();
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+        return result;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.inventory_system;
+
+import com.example.inventory_system.domain.Branch;
+import com.example.inventory_system.domain.Product;
+import com.example.inventory_system.dto.PurchaseRequest;
+import com.example.inventory_system.dto.SaleCreateRequest;
+import com.example.inventory_system.repository.BranchRepository;
+import com.example.inventory_system.repository.ProductRepository;
+import com.example.inventory_system.service.InventoryService;
+import com.example.inventory_system.service.SaleConcurrencyMode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Aynı ürüne eşzamanlı satışta PESSIMISTIC, OPTIMISTIC ve LEDGER modların karşılaştırması.
+ * LEDGER en sonda koşar: ledger ürünü ilk kullanımda DB'den yükler, önceki modların tüketimini görür.
+ * Normal build'de çalışmaz:
+ *
+ *   mvn test -Dtest=SaleContentionBenchmarkTests -Dbench=true
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "bench", matches = "true")
+class SaleContentionBenchmarkTests {
+
+    private static final int[] CONCURRENCY = {1, 8, 32, 128};
+    private static final int CHECKOUTS_PER_LEVEL = 1_000;
+
+    @Autowired InventoryService inventoryService;
+    @Autowired BranchRepository branches;
+    @Autowired ProductRepository products;
+    @Autowired ApplicationContext context;
+
+    @Test
+    void sameProductContention() throws Exception {
+        String tag = UUID.randomUUID().toString().substring(0, 8);
+        Branch branch = branches.save(new Branch("contention-" + tag, "benchmark address", "02120000000"));
+        Product hot = products.save(new Product("hot " + tag, "H-" + tag, BigDecimal.TEN, 0, branch));
+        for (int i = 0; i < 3; i++) {
+            inventoryService.receiveBatch(new PurchaseRequest(hot.getId(), branch.getId(), 1_000_000,
+                    BigDecimal.ONE, null));
+        }
+        SaleCreateRequest sale = new SaleCreateRequest(branch.getId(),
+                List.of(new SaleCreateRequest.Item(hot.getId(), 1, BigDecimal.TEN)));
+
+        // JIT ısınması: ilk ölçülen mod dezavantajlı olmasın
+        for (int i = 0; i < 300; i++) {
+            inventoryService.createSale(sale);
+        }
+
+        Object target = AopTestUtils.getTargetObject(inventoryService);
+        try {
+            for (SaleConcurrencyMode mode : SaleConcurrencyMode.values()) {
+                ReflectionTestUtils.setField(target, "concurrencyMode", mode);
+                for (int threads : CONCURRENCY) {
+                    run(mode, threads, sale);
+                }
+            }
+        } finally {
+            ReflectionTestUtils.setField(target, "concurrencyMode", SaleConcurrencyMode.PESSIMISTIC);
+        }
+    }
+
+    private void run(SaleConcurrencyMode mode, int threads, SaleCreateRequest sale) throws Exception {
+        AtomicInteger failed = new AtomicInteger();
+        List<Long> latencies = new CopyOnWriteArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < CHECKOUTS_PER_LEVEL; i++) {
+            tasks.add(() -> {
+                long t = System.nanoTime();
+                try {
+                    inventoryService.createSale(sale);
+                } catch (ResponseStatusException ex) {
+                    failed.incrementAndGet();
+                }
+                latencies.add(System.nanoTime() - t);
+                return null;
+            });
+        }
+
+        long t0 = System.nanoTime();
+        for (Future<Void> f : pool.invokeAll(tasks)) f.get();
+        long elapsed = System.nanoTime() - t0;
+        pool.shutdown();
+
+        List<Long> sorted = latencies.stream().sorted().toList();
+        double p99 = sorted.get((int) Math.floor(sorted.size() * 0.99) - 1) / 1e6;
+        double p50 = sorted.get(sorted.size() / 2) / 1e6;
+        System.out.printf("[bench] %-11s threads=%-3d checkouts/s=%.0f p50=%.2fms p99=%.1fms failed=%d%n",
+                mode, threads, CHECKOUTS_PER_LEVEL / (elapsed / 1e9), p50, p99, failed.get());
+
+        if (mode == SaleConcurrencyMode.LEDGER) {
+            // kabul edilen satışların DB'ye inmesini ayrıca ölç
+            Object writeBehind = context.getBean(
+                    Class.forName("com.example.inventory_system.service.SaleWriteBehind"));
+            long f0 = System.nanoTime();
+            ReflectionTestUtils.invokeMethod(writeBehind, "awaitFlushed");
+            System.out.printf("[bench] %-11s threads=%-3d write-behind drained in %.1fms%n",
+                    mode, threads, (System.nanoTime() - f0) / 1e6);
+        }
+    }
+}
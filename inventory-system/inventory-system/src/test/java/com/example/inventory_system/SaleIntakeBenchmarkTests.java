@@ -0,0 +1,100 @@
+package com.example.inventory_system;
+
+import com.example.inventory_system.domain.Branch;
+import com.example.inventory_system.domain.Product;
+import com.example.inventory_system.dto.PurchaseRequest;
+import com.example.inventory_system.dto.SaleCreateRequest;
+import com.example.inventory_system.dto.SaleStatusResponse;
+import com.example.inventory_system.repository.BranchRepository;
+import com.example.inventory_system.repository.ProductRepository;
+import com.example.inventory_system.service.InventoryService;
+import com.example.inventory_system.service.SaleIntakeService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+/**
+ * Senkron createSale ile asenkron intake (202 + group commit) karşılaştırması:
+ * aynı POS patlaması (THREADS eşzamanlı kasa, PRODUCTS ürün) iki yoldan da gönderilir.
+ * Normal build'de çalışmaz:
+ *
+ *   mvn test -Dtest=SaleIntakeBenchmarkTests -Dbench=true
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "bench", matches = "true")
+class SaleIntakeBenchmarkTests {
+
+    private static final int PRODUCTS = 20;
+    private static final int THREADS = 64;
+    private static final int SALES = 4_000;
+
+    @Autowired InventoryService inventoryService;
+    @Autowired SaleIntakeService saleIntakeService;
+    @Autowired BranchRepository branches;
+    @Autowired ProductRepository products;
+
+    @Test
+    void syncVersusAsyncIntake() throws Exception {
+        String tag = UUID.randomUUID().toString().substring(0, 8);
+        Branch branch = branches.save(new Branch("intake-" + tag, "benchmark address", "02120000000"));
+        List<SaleCreateRequest> sales = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product p = products.save(new Product("intake " + i, "I-" + tag + "-" + i, BigDecimal.TEN, 0, branch));
+            inventoryService.receiveBatch(new PurchaseRequest(p.getId(), branch.getId(), 1_000_000, BigDecimal.ONE, null));
+            sales.add(new SaleCreateRequest(branch.getId(),
+                    List.of(new SaleCreateRequest.Item(p.getId(), 1, BigDecimal.TEN))));
+        }
+
+        // ısınma
+        for (int i = 0; i < 300; i++) inventoryService.createSale(sales.get(i % PRODUCTS));
+
+        run("sync ", sales, req -> inventoryService.createSale(req));
+
+        List<String> handles = new CopyOnWriteArrayList<>();
+        long t0 = System.nanoTime();
+        run("async", sales, req -> handles.add(saleIntakeService.submit(req).handle()));
+        int accepted = 0;
+        for (String h : handles) {
+            SaleStatusResponse s;
+            while ((s = saleIntakeService.status(h).orElseThrow()).status().equals("PENDING")) {
+                Thread.sleep(1);
+            }
+            if (s.status().equals("ACCEPTED")) accepted++;
+        }
+        double seconds = (System.nanoTime() - t0) / 1e9;
+        System.out.printf("[bench] async end-to-end: %d/%d accepted, committed sales/s=%.0f%n",
+                accepted, SALES, SALES / seconds);
+    }
+
+    private void run(String name, List<SaleCreateRequest> sales, java.util.function.Consumer<SaleCreateRequest> call)
+            throws Exception {
+        List<Long> latencies = new CopyOnWriteArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < SALES; i++) {
+            SaleCreateRequest req = sales.get(i % PRODUCTS);
+            tasks.add(() -> {
+                long t = System.nanoTime();
+                call.accept(req);
+                latencies.add(System.nanoTime() - t);
+                return null;
+            });
+        }
+        long t0 = System.nanoTime();
+        for (Future<Void> f : pool.invokeAll(tasks)) f.get();
+        long elapsed = System.nanoTime() - t0;
+        pool.shutdown();
+
+        List<Long> sorted = latencies.stream().sorted().toList();
+        System.out.printf("[bench] %s intake: requests/s=%.0f p50=%.2fms p99=%.1fms%n", name,
+                SALES / (elapsed / 1e9), sorted.get(sorted.size() / 2) / 1e6,
+                sorted.get((int) (sorted.size() * 0.99) - 1) / 1e6);
+    }
+}
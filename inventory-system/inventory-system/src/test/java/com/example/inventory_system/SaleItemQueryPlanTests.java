@@ -0,0 +1,69 @@
+package com.example.inventory_system;
+
+import com.example.inventory_system.repository.SalesPartitionJdbcRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Satır bazlı satış toplamalarının planını doğrular: gün aralığı yalnızca ilgili aylık
+ * partition'a iner (pruning) ve (sale_date, branch_id, product_id) covering index'i ile
+ * yalnızca index okunur (heap'e ve sales'e gitmeden). Küçük test verisinde planner seq scan'i
+ * seçmesin diye seq/bitmap scan transaction boyunca kapatılır.
+ */
+@SpringBootTest
+@Transactional
+class SaleItemQueryPlanTests {
+
+    // bakım işi bu ayın partition'ını açılışta garanti eder
+    private final YearMonth month = YearMonth.now();
+    private final LocalDate from = month.atDay(1);
+    private final LocalDate to = month.atEndOfMonth();
+
+    @Autowired JdbcTemplate jdbc;
+
+    @Test
+    void dailyRollupRebuildIsIndexOnlyOnOnePartition() {
+        assertPrunedIndexOnly("""
+                SELECT sale_date, branch_id, product_id,
+                       SUM(quantity), SUM(unit_price * quantity), SUM(COALESCE(cogs_amount, 0))
+                FROM sale_items
+                WHERE sale_date >= DATE '%s' AND sale_date <= DATE '%s'
+                GROUP BY sale_date, branch_id, product_id
+                """.formatted(from, to));
+    }
+
+    @Test
+    void branchRangeAggregateIsIndexOnlyOnOnePartition() {
+        assertPrunedIndexOnly("""
+                SELECT product_id, SUM(quantity), SUM(unit_price * quantity), SUM(cogs_amount)
+                FROM sale_items
+                WHERE sale_date >= DATE '%s' AND sale_date <= DATE '%s'
+                  AND branch_id = 1
+                GROUP BY product_id
+                """.formatted(from, to));
+    }
+
+    private void assertPrunedIndexOnly(String sql) {
+        jdbc.execute("SET LOCAL enable_seqscan = off");
+        jdbc.execute("SET LOCAL enable_bitmapscan = off");
+        List<String> plan = jdbc.queryForList("EXPLAIN " + sql, String.class);
+        String text = String.join("\n", plan);
+
+        String partition = SalesPartitionJdbcRepository.saleItemsTable(month);
+        assertThat(text).contains("Index Only Scan using " + partition + "_sale_date_branch_id_product_id");
+        assertThat(text).doesNotContain(SalesPartitionJdbcRepository.saleItemsTable(month.minusMonths(1)))
+                .doesNotContain(SalesPartitionJdbcRepository.saleItemsTable(month.plusMonths(1)))
+                .doesNotContain("sale_items_default")
+                .doesNotContain("Seq Scan")
+                .doesNotContain(" on sales");
+    }
+}